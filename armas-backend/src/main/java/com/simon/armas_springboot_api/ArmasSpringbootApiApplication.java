@@ -11,12 +11,14 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.domain.AuditorAware;
+import org.springframework.scheduling.annotation.EnableScheduling;
 // import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @EnableConfigurationProperties(RsaKeyProperties.class)
 @SpringBootApplication
 // @EnableJpaAuditing(auditorAwareRef = "auditorAware")
 @ComponentScan(basePackages = "com.simon.armas_springboot_api")
+@EnableScheduling
 public class ArmasSpringbootApiApplication {
 
 	@Bean
@@ -7,14 +7,33 @@ import com.simon.armas_springboot_api.repositories.BudgetYearRepository;
 import com.simon.armas_springboot_api.repositories.DocumentRepository;
 import com.simon.armas_springboot_api.repositories.MasterTransactionRepository;
 import com.simon.armas_springboot_api.repositories.UserRepository;
+import com.simon.armas_springboot_api.security.models.UserContext;
+import com.simon.armas_springboot_api.services.AutoAssignmentService;
+import com.simon.armas_springboot_api.services.BulkUploadService;
+import com.simon.armas_springboot_api.services.BulkWorkflowService;
+import com.simon.armas_springboot_api.services.ComplianceMatrixService;
+import com.simon.armas_springboot_api.services.DashboardStatsService;
+import com.simon.armas_springboot_api.services.FileDownloadService;
+import com.simon.armas_springboot_api.services.FileStorageService;
 import com.simon.armas_springboot_api.services.MasterTransactionService;
+import com.simon.armas_springboot_api.services.NotificationStreamService;
+import com.simon.armas_springboot_api.services.ReferenceDataCache;
 import com.simon.armas_springboot_api.dto.UserDTO;
+import com.simon.armas_springboot_api.exception.WorkflowConflictException;
 import com.simon.armas_springboot_api.models.User;
 import com.simon.armas_springboot_api.models.Organization;
 import com.simon.armas_springboot_api.repositories.OrganizationRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
 import com.simon.armas_springboot_api.dto.MasterTransactionDTO;
+import com.simon.armas_springboot_api.dto.NotificationDTO;
 import com.simon.armas_springboot_api.dto.SentReportResponseDTO;
+import com.simon.armas_springboot_api.dto.TaskPageDTO;
+import com.simon.armas_springboot_api.dto.BulkUploadItemRequest;
+import com.simon.armas_springboot_api.dto.BulkUploadResultDTO;
+import com.simon.armas_springboot_api.dto.AutoAssignmentResultDTO;
+import com.simon.armas_springboot_api.dto.BulkWorkflowRequest;
 import com.simon.armas_springboot_api.models.Notification;
 import com.simon.armas_springboot_api.repositories.NotificationRepository;
 import org.springframework.http.ResponseEntity;
@@ -26,12 +45,12 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.GrantedAuthority;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Map;
 import java.util.HashMap;
@@ -39,6 +58,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.security.core.Authentication;
 import java.security.Principal;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 
 import java.util.Arrays;
@@ -65,26 +85,51 @@ public class MasterTransactionController {
     @Autowired
     private MasterTransactionService masterTransactionService;
 
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private ComplianceMatrixService complianceMatrixService;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private BulkUploadService bulkUploadService;
+
     @Autowired
     private BudgetYearRepository budgetYearRepository; // Add this
     @Autowired
     private NotificationRepository notificationRepository;
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private AutoAssignmentService autoAssignmentService;
+    @Autowired
+    private BulkWorkflowService bulkWorkflowService;
     private static final Logger logger = LoggerFactory.getLogger(MasterTransactionController.class);
     // New endpoint to fetch unread notifications
     @GetMapping("/notifications")
-    @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<Notification>> getUnreadNotifications(Principal principal) {
-        User user = userRepository.findByUsername(principal.getName());
-        if (user == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.emptyList());
-        }
-        List<Notification> notifications = notificationRepository.findByUserIdAndIsReadFalse(user.getId());
+    public ResponseEntity<List<NotificationDTO>> getUnreadNotifications(UserContext user) {
+        List<NotificationDTO> notifications = notificationRepository.findUnreadAfter(user.userId(), 0L);
         return ResponseEntity.ok(notifications);
     }
 
+    // Server-push alternative to polling /notifications; resumes from the Last-Event-ID header
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            UserContext user) {
+        return ResponseEntity.ok(notificationStreamService.subscribe(user.userId(), lastEventId));
+    }
+
     // New endpoint to mark a notification as read
     @PutMapping("/notifications/{id}/read")
-    @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Void> markAsRead(@PathVariable Long id, Principal principal) {
         Notification notification = notificationRepository.findById(id).orElse(null);
         if (notification == null || !notification.getUser().getUsername().equals(principal.getName())) {
@@ -97,7 +142,6 @@ public class MasterTransactionController {
 
 
     @PostMapping("/upload")
-    @PreAuthorize("hasRole('USER')")
     public ResponseEntity<MasterTransaction> uploadFile(
             @RequestParam("file") org.springframework.web.multipart.MultipartFile file,
             @RequestParam("reportcategory") String reportcategory,
@@ -109,32 +153,44 @@ public class MasterTransactionController {
         return ResponseEntity.ok(transaction);
     }
 
+    // Several reports in one request; metadata is a JSON array matched to files by position
+    @PostMapping(value = "/upload/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<BulkUploadResultDTO>> uploadFiles(
+            @RequestPart("files") List<MultipartFile> files,
+            @RequestPart("metadata") List<BulkUploadItemRequest> metadata,
+            UserContext user,
+            Principal principal) {
+        try {
+            return ResponseEntity.ok(bulkUploadService.upload(files, metadata, user, principal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // In MasterTransactionController.java
-  @GetMapping("/download/{id}/{type}")
-    @PreAuthorize("hasAnyRole('APPROVER', 'SENIOR_AUDITOR', 'ARCHIVER', 'USER', 'MANAGER')")
-    public ResponseEntity<Resource> downloadFile(
+    @GetMapping("/download/{id}/{type}")
+    public void downloadFile(
             @PathVariable Integer id,
             @PathVariable String type,
-            Principal principal) throws IOException {
+            UserContext currentUser,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         MasterTransaction transaction = masterTransactionRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + id));
-        User currentUser = userRepository.findByUsername(principal.getName());
-        if (currentUser == null) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
 
         if ("letter".equals(type)) {
             // Allow the original uploader (USER)
-            if (currentUser.getId().equals(transaction.getUser().getId())) {
+            if (currentUser.userId().equals(transaction.getUser().getId())) {
                 // Allowed
             }
             // Allow MANAGER of the same organization
-            else if (currentUser.getRoles().stream().anyMatch(r -> "MANAGER".equals(r.getDescription())) &&
-                     currentUser.getOrganization() != null &&
-                     currentUser.getOrganization().getId().equals(transaction.getOrganization().getId())) {
+            else if (currentUser.hasRole("MANAGER") &&
+                     currentUser.organizationId() != null &&
+                     currentUser.organizationId().equals(transaction.getOrganization().getId())) {
                 // Allowed
             } else {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                response.setStatus(HttpStatus.FORBIDDEN.value());
+                return;
             }
         }
 
@@ -150,38 +206,32 @@ public class MasterTransactionController {
             filePath = transaction.getLetterPath();
             fileName = transaction.getLetterDocname();
         } else {
-            return ResponseEntity.badRequest().build();
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
         }
 
-        if (filePath == null || fileName == null || !Files.exists(Paths.get(filePath))) {
-            return ResponseEntity.notFound().build();
+        if (filePath == null || fileName == null || !fileStorageService.exists(filePath)) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
         }
 
-        Resource resource = new UrlResource(Paths.get(filePath).toUri());
-        String contentType = Files.probeContentType(Paths.get(filePath));
-        if (contentType == null) {
-            contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        if (!"letter".equals(type) && transaction.getAuditorStartedAt() == null && transaction.getUser2() != null
+                && currentUser.userId().equals(transaction.getUser2().getId())) {
+            masterTransactionService.markStartedByAssignee(id, currentUser.userId());
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .body(resource);
+        String contentType = masterTransactionService.resolveContentType(transaction, type);
+        fileDownloadService.send(fileStorageService.resolve(filePath), fileStorageService.contentHash(filePath),
+                fileName, contentType, request, response);
     }
  @GetMapping("/my-reports")
-@PreAuthorize("hasRole('USER')")
-public ResponseEntity<List<MasterTransaction>> getMyReports(Principal principal) {
-    User user = userRepository.findByUsername(principal.getName());
-    if (user == null) {
-        throw new IllegalStateException("User not found: " + principal.getName());
-    }
-    List<MasterTransaction> reports = masterTransactionRepository.findByUserIdWithLetters(user.getId());
-    System.out.println("Fetched reports for user " + principal.getName() + ": " + reports.size());
+public ResponseEntity<List<MasterTransaction>> getMyReports(UserContext user) {
+    List<MasterTransaction> reports = masterTransactionRepository.findByUserIdWithLetters(user.userId());
+    System.out.println("Fetched reports for user " + user.username() + ": " + reports.size());
     reports.forEach(report -> System.out.println("Report ID=" + report.getId() + ", LetterDocname=" + report.getLetterDocname()));
     return ResponseEntity.ok(reports);
 }
     @PostMapping("/upload-letter/{transactionId}")
-    @PreAuthorize("hasRole('ARCHIVER')")
     public ResponseEntity<MasterTransaction> uploadLetter(
             @PathVariable Integer transactionId,
             @RequestParam("letter") MultipartFile letter,
@@ -191,7 +241,6 @@ public ResponseEntity<List<MasterTransaction>> getMyReports(Principal principal)
     }
 
     @GetMapping("/sent-reports")
-    @PreAuthorize("hasAnyRole('APPROVER', 'SENIOR_AUDITOR', 'ARCHIVER')")
     public ResponseEntity<List<SentReportResponseDTO>> getSentReports(Principal principal) {
         String role = SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
@@ -228,7 +277,6 @@ public ResponseEntity<List<MasterTransaction>> getMyReports(Principal principal)
     }
 
     @PostMapping("/assign/{transactionId}")
-    @PreAuthorize("hasRole('ARCHIVER')")
     public ResponseEntity<MasterTransaction> assignAuditor(@PathVariable Integer transactionId,
             @RequestParam String auditorUsername,
             Principal principal) {
@@ -237,8 +285,45 @@ public ResponseEntity<List<MasterTransaction>> getMyReports(Principal principal)
         return ResponseEntity.ok(transaction);
     }
 
+    // Bulk workflow actions: one result per id, reports that cannot move do not block the rest.
+    // A request rejected as a whole (no ids, too many, bad auditor, no reason) gets 400 with the reason
+    @PostMapping("/assign/bulk")
+    public ResponseEntity<?> assignAuditorBulk(@RequestBody BulkWorkflowRequest request,
+            Principal principal) {
+        try {
+            return ResponseEntity.ok(bulkWorkflowService.assign(request, principal.getName()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/approve/bulk")
+    public ResponseEntity<?> approveReportsBulk(@RequestBody BulkWorkflowRequest request,
+            Principal principal) {
+        try {
+            return ResponseEntity.ok(bulkWorkflowService.approve(request, principal.getName()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/reject/bulk")
+    public ResponseEntity<?> rejectReportsBulk(@RequestBody BulkWorkflowRequest request,
+            Principal principal) {
+        try {
+            return ResponseEntity.ok(bulkWorkflowService.reject(request, principal.getName()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** Assigns waiting Submitted reports and evens out auditor workloads. */
+    @PostMapping("/auto-assign/rebalance")
+    public ResponseEntity<AutoAssignmentResultDTO> rebalanceAssignments() {
+        return ResponseEntity.ok(autoAssignmentService.rebalance());
+    }
+
 @PostMapping("/submit-findings/{transactionId}")
-    @PreAuthorize("hasRole('SENIOR_AUDITOR')")
     public ResponseEntity<?> submitFindings(
             @PathVariable Integer transactionId,
             @RequestParam String remarks,
@@ -250,6 +335,8 @@ public ResponseEntity<List<MasterTransaction>> getMyReports(Principal principal)
             MasterTransaction transaction = masterTransactionService.submitFindings(transactionId, remarks,
                     approverUsername, responseNeeded, principal.getName(), supportingDocument);
             return ResponseEntity.ok(transaction);
+        } catch (WorkflowConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (IllegalArgumentException | IllegalStateException e) {
             System.err.println("Validation error: " + e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -264,7 +351,6 @@ public ResponseEntity<List<MasterTransaction>> getMyReports(Principal principal)
     }
 
     @GetMapping("/approved-reports")
-    @PreAuthorize("hasAnyRole('APPROVER', 'SENIOR_AUDITOR', 'ARCHIVER')")
     public ResponseEntity<List<MasterTransactionDTO>> getApprovedReports(Principal principal) {
         String role = SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
@@ -279,7 +365,6 @@ public ResponseEntity<List<MasterTransaction>> getMyReports(Principal principal)
     }
 
     @PostMapping("/approve/{transactionId}")
-    @PreAuthorize("hasRole('APPROVER')")
     public ResponseEntity<MasterTransaction> approveReport(
             @PathVariable Integer transactionId,
             @RequestParam(value = "approvalDocument", required = false) org.springframework.web.multipart.MultipartFile approvalDocument,
@@ -290,7 +375,6 @@ public ResponseEntity<List<MasterTransaction>> getMyReports(Principal principal)
     }
 
     @PostMapping("/reject/{transactionId}")
-    @PreAuthorize("hasRole('APPROVER')")
     public ResponseEntity<MasterTransaction> rejectReport(
             @PathVariable Integer transactionId,
             @RequestParam String rejectionReason,
@@ -302,28 +386,16 @@ public ResponseEntity<List<MasterTransaction>> getMyReports(Principal principal)
     }
 
 @GetMapping("/rejected-reports")
-@PreAuthorize("hasAnyRole('ARCHIVER', 'SENIOR_AUDITOR', 'APPROVER')")
-public ResponseEntity<List<MasterTransaction>> getRejectedReports() {
-    List<MasterTransaction> reports = masterTransactionRepository.findByReportStatus("Rejected");
-    System.out.println("Rejected reports fetched: " + reports.size());
-    reports.forEach(report -> {
-        System.out.println("Report ID=" + report.getId() +
-                ", Orgname=" + (report.getOrganization() != null ? report.getOrganization().getOrgname() : "null") +
-                ", FiscalYear=" + (report.getBudgetYear() != null ? report.getBudgetYear().getFiscalYear() : "null") +
-                ", ReportType=" + (report.getTransactiondocument() != null ? report.getTransactiondocument().getReportype() : "null") +
-                ", ResponseNeeded=" + report.getResponse_needed());
-    });
-    return ResponseEntity.ok(reports);
+public ResponseEntity<List<MasterTransactionDTO>> getRejectedReports() {
+    return ResponseEntity.ok(masterTransactionService.getRejectedReports());
 }
 
     @GetMapping("/tasks")
-    @PreAuthorize("hasAnyRole('ARCHIVER', 'SENIOR_AUDITOR', 'APPROVER')")
-    public ResponseEntity<List<MasterTransactionDTO>> getTasks(Principal principal) {
-        User user = userRepository.findByUsername(principal.getName());
-        if (user == null) {
-            throw new IllegalStateException("User not found: " + principal.getName());
-        }
-
+    public ResponseEntity<TaskPageDTO> getTasks(
+            @RequestParam(value = "status", required = false) List<String> statuses,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            UserContext user) {
         String role = SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .map(auth -> auth.replace("ROLE_", ""))
@@ -331,43 +403,39 @@ public ResponseEntity<List<MasterTransaction>> getRejectedReports() {
                 .findFirst()
                 .orElseThrow(() -> new IllegalStateException("No valid role found"));
 
-        List<MasterTransaction> tasks = masterTransactionService.getTasks(user.getId(), role);
-        List<MasterTransactionDTO> taskDTOs = tasks.stream()
-                .map(MasterTransactionDTO::new)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(taskDTOs);
+        try {
+            return ResponseEntity.ok(masterTransactionService.getTaskPage(user.userId(), role, statuses, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/under-review-reports")
-    @PreAuthorize("hasAnyRole('APPROVER', 'SENIOR_AUDITOR')")
-    public ResponseEntity<List<MasterTransaction>> getUnderReviewReports() {
-        List<MasterTransaction> reports = masterTransactionService.getUnderReviewReports();
+    public ResponseEntity<List<MasterTransactionDTO>> getUnderReviewReports() {
+        List<MasterTransactionDTO> reports = masterTransactionService.getUnderReviewReports();
         return ResponseEntity.ok(reports);
     }
 
     @GetMapping("/corrected-reports")
-    @PreAuthorize("hasAnyRole('APPROVER', 'SENIOR_AUDITOR')")
-    public ResponseEntity<List<MasterTransaction>> getCorrectedReports() {
-        List<MasterTransaction> reports = masterTransactionService.getCorrectedReports();
+    public ResponseEntity<List<MasterTransactionDTO>> getCorrectedReports() {
+        List<MasterTransactionDTO> reports = masterTransactionService.getCorrectedReports();
         return ResponseEntity.ok(reports);
     }
 
     @GetMapping("/budget-years")
-    @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'SENIOR_AUDITOR', 'APPROVER', 'ARCHIVER','MANAGER')")
     public ResponseEntity<List<BudgetYear>> getBudgetYears() {
         List<BudgetYear> budgetYears = budgetYearRepository.findAll();
         return ResponseEntity.ok(budgetYears);
     }
 
     @PostMapping("/budget-years")
-    @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<BudgetYear> createBudgetYear(@RequestBody BudgetYear budgetYear) {
         BudgetYear saved = budgetYearRepository.save(budgetYear);
+        referenceDataCache.evict(BudgetYear.class);
         return ResponseEntity.ok(saved);
     }
 
     @GetMapping("/report-non-senders")
-@PreAuthorize("hasAnyRole('SENIOR_AUDITOR', 'APPROVER')")
 public ResponseEntity<List<Organization>> getReportNonSenders(
         @RequestParam String reportype,
         @RequestParam String fiscalYear) {
@@ -387,7 +455,6 @@ public ResponseEntity<List<Organization>> getReportNonSenders(
 }
 
     @GetMapping("/reports-by-org")
-    @PreAuthorize("hasAnyRole('SENIOR_AUDITOR', 'APPROVER')")
     public ResponseEntity<List<MasterTransactionDTO>> getReportsByOrgAndFilters(
             @RequestParam String reportype,
             @RequestParam String fiscalYear,
@@ -397,14 +464,12 @@ public ResponseEntity<List<Organization>> getReportNonSenders(
     }
 
     @GetMapping("/organizations-with-reports")
-    @PreAuthorize("hasAnyRole('SENIOR_AUDITOR', 'APPROVER')")
     public ResponseEntity<List<Organization>> getAllOrganizationsWithReports() {
         List<Organization> organizations = masterTransactionService.getAllOrganizationsWithReports();
         return ResponseEntity.ok(organizations);
     }
 
 @GetMapping("/feedback-non-senders")
-@PreAuthorize("hasAnyRole('SENIOR_AUDITOR', 'APPROVER')")
 public ResponseEntity<List<Organization>> getFeedbackNonSenders(
         @RequestParam String reportype,
         @RequestParam String fiscalYear) {
@@ -424,7 +489,6 @@ public ResponseEntity<List<Organization>> getFeedbackNonSenders(
 }
 
     @GetMapping("/feedback-senders")
-    @PreAuthorize("hasAnyRole('SENIOR_AUDITOR', 'APPROVER')")
     public ResponseEntity<List<MasterTransactionDTO>> getFeedbackSenders(
             @RequestParam String reportype,
             @RequestParam String fiscalYear) {
@@ -432,52 +496,36 @@ public ResponseEntity<List<Organization>> getFeedbackNonSenders(
         return ResponseEntity.ok(senders);
     }
 
+@PostMapping("/compliance-matrix/rebuild")
+public ResponseEntity<Map<String, Integer>> rebuildComplianceMatrix() {
+    int cells = complianceMatrixService.rebuild();
+    return ResponseEntity.ok(Collections.singletonMap("cells", cells));
+}
+
 @GetMapping("/dashboard-stats")
-@PreAuthorize("hasAnyRole('SENIOR_AUDITOR', 'APPROVER', 'ARCHIVER', 'ADMIN','USER', 'MANAGER')")
 public ResponseEntity<Map<String, Long>> getDashboardStats(@RequestParam String fiscalYear) {
-    Map<String, Long> stats = new HashMap<>();
-    stats.put("totalOrganizations", masterTransactionService.getTotalOrganizations());
-    stats.put("totalReportTypes", masterTransactionService.getTotalReportTypes());
-    stats.put("senders", masterTransactionService.getSendersCount(fiscalYear));
-    stats.put("nonSenders", masterTransactionService.getNonSendersCount(fiscalYear));
-    stats.put("auditPlanSenders", masterTransactionService.getSendersCountForReportType("Audit Plan", fiscalYear));
-    stats.put("auditPlanNonSenders", masterTransactionService.getNonSendersCountForReportType("Audit Plan", fiscalYear));
-    return ResponseEntity.ok(stats);
+    return ResponseEntity.ok(dashboardStatsService.getStats(fiscalYear));
 }
 @GetMapping("/file-history")
-@PreAuthorize("hasRole('USER')")
-public ResponseEntity<List<MasterTransactionDTO>> getFileHistory(Principal principal) {
-    User user = userRepository.findByUsername(principal.getName());
-    if (user == null) {
-        throw new IllegalStateException("User not found: " + principal.getName());
-    }
-    List<MasterTransactionDTO> history = masterTransactionService.getTransactionHistory(user.getId());
-    System.out.println("Fetched file history for user " + principal.getName() + ": " + history.size());
+public ResponseEntity<List<MasterTransactionDTO>> getFileHistory(UserContext user) {
+    List<MasterTransactionDTO> history = masterTransactionService.getTransactionHistory(user.userId());
+    System.out.println("Fetched file history for user " + user.username() + ": " + history.size());
     return ResponseEntity.ok(history);
 }
 
  @GetMapping("/letters")
-    @PreAuthorize("hasAuthority('VIEW_LETTERS')")
-    public ResponseEntity<List<MasterTransactionDTO>> getLettersForOrganization(Principal principal) {
+    public ResponseEntity<List<MasterTransactionDTO>> getLettersForOrganization(UserContext user) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        logger.info("User {} authorities: {}", principal.getName(), auth.getAuthorities());
+        logger.info("User {} authorities: {}", user.username(), auth.getAuthorities());
 
-        logger.info("Fetching letters for user: {}", principal.getName());
-        User user = userRepository.findByUsername(principal.getName());
-        if (user == null) {
-            logger.error("User not found: {}", principal.getName());
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        if (user.getOrganization() == null) {
-            logger.error("User {} has no organization assigned", principal.getName());
+        logger.info("Fetching letters for user: {}", user.username());
+        if (user.organizationId() == null) {
+            logger.error("User {} has no organization assigned", user.username());
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        String orgId = user.getOrganization().getId();
+        String orgId = user.organizationId();
         logger.info("Fetching letters for organization: {}", orgId);
-        List<MasterTransaction> transactions = masterTransactionService.getLettersForOrganization(orgId);
-        List<MasterTransactionDTO> dtos = transactions.stream()
-            .map(MasterTransactionDTO::new)
-            .collect(Collectors.toList());
+        List<MasterTransactionDTO> dtos = masterTransactionService.getLettersForOrganization(orgId);
         logger.info("Found {} letters for organization {}", dtos.size(), orgId);
         return ResponseEntity.ok(dtos);
     }
@@ -0,0 +1,79 @@
+package com.simon.armas_springboot_api.controllers;
+
+import com.simon.armas_springboot_api.dto.UploadSessionDTO;
+import com.simon.armas_springboot_api.dto.UploadSessionRequest;
+import com.simon.armas_springboot_api.security.models.UserContext;
+import com.simon.armas_springboot_api.services.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.security.Principal;
+
+/**
+ * Resumable upload of large reports:
+ * POST creates a session, PUT ?offset= writes a chunk (raw body), GET reports received ranges,
+ * POST /complete creates the transaction, DELETE aborts.
+ */
+@RestController
+@RequestMapping("/transactions/upload/sessions")
+public class UploadSessionController {
+
+    private final ResumableUploadService resumableUploadService;
+
+    public UploadSessionController(ResumableUploadService resumableUploadService) {
+        this.resumableUploadService = resumableUploadService;
+    }
+
+    @PostMapping
+    public ResponseEntity<UploadSessionDTO> createSession(@RequestBody UploadSessionRequest request, UserContext user)
+            throws IOException {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(resumableUploadService.createSession(request, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionDTO> writeChunk(@PathVariable String id,
+                                                       @RequestParam long offset,
+                                                       HttpServletRequest request,
+                                                       UserContext user) throws IOException {
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).build();
+        }
+        try {
+            return ResponseEntity.ok(resumableUploadService.writeChunk(id, offset, length, request.getInputStream(), user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionDTO> getSession(@PathVariable String id, UserContext user) {
+        return ResponseEntity.ok(resumableUploadService.getSession(id, user));
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<UploadSessionDTO> complete(@PathVariable String id, UserContext user, Principal principal)
+            throws IOException {
+        try {
+            return ResponseEntity.ok(resumableUploadService.complete(id, user, principal));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> abort(@PathVariable String id, UserContext user) throws IOException {
+        resumableUploadService.abort(id, user);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,9 @@
+package com.simon.armas_springboot_api.dto;
+
+/**
+ * A report waiting for (re)assignment, with the directorate that owns its document type.
+ */
+public interface AssignmentCandidateView {
+    Integer getId();
+    String getDirectorateId();
+}
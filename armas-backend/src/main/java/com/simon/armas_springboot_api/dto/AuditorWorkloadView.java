@@ -0,0 +1,10 @@
+package com.simon.armas_springboot_api.dto;
+
+/**
+ * A user holding a role, their directorate and how many open tasks are assigned to them.
+ */
+public interface AuditorWorkloadView {
+    Long getUserId();
+    String getDirectorateId();
+    Long getOpenTasks();
+}
@@ -0,0 +1,16 @@
+package com.simon.armas_springboot_api.dto;
+
+public class AutoAssignmentResultDTO {
+    private int assigned;
+    private int moved;
+
+    public AutoAssignmentResultDTO(int assigned, int moved) {
+        this.assigned = assigned;
+        this.moved = moved;
+    }
+
+    public int getAssigned() { return assigned; }
+    public void setAssigned(int assigned) { this.assigned = assigned; }
+    public int getMoved() { return moved; }
+    public void setMoved(int moved) { this.moved = moved; }
+}
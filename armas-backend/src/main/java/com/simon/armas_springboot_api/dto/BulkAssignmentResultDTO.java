@@ -0,0 +1,20 @@
+package com.simon.armas_springboot_api.dto;
+
+public class BulkAssignmentResultDTO {
+    private int users;
+    private int added;
+    private int removed;
+
+    public BulkAssignmentResultDTO(int users, int added, int removed) {
+        this.users = users;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    public int getUsers() { return users; }
+    public void setUsers(int users) { this.users = users; }
+    public int getAdded() { return added; }
+    public void setAdded(int added) { this.added = added; }
+    public int getRemoved() { return removed; }
+    public void setRemoved(int removed) { this.removed = removed; }
+}
@@ -0,0 +1,18 @@
+package com.simon.armas_springboot_api.dto;
+
+/**
+ * Metadata for one file of a bulk upload; matched to the uploaded files by position.
+ */
+public class BulkUploadItemRequest {
+    private String reportcategory;
+    private Long budgetYearId;
+    private String transactiondocumentid;
+
+    // Getters and Setters
+    public String getReportcategory() { return reportcategory; }
+    public void setReportcategory(String reportcategory) { this.reportcategory = reportcategory; }
+    public Long getBudgetYearId() { return budgetYearId; }
+    public void setBudgetYearId(Long budgetYearId) { this.budgetYearId = budgetYearId; }
+    public String getTransactiondocumentid() { return transactiondocumentid; }
+    public void setTransactiondocumentid(String transactiondocumentid) { this.transactiondocumentid = transactiondocumentid; }
+}
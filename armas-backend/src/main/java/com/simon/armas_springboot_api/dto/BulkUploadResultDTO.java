@@ -0,0 +1,40 @@
+package com.simon.armas_springboot_api.dto;
+
+/**
+ * One line of the bulk upload manifest.
+ */
+public class BulkUploadResultDTO {
+    public enum Status { SUCCESS, FAILED }
+
+    private int index;
+    private String docname;
+    private Status status;
+    private Integer transactionId;
+    private String error;
+
+    public BulkUploadResultDTO(int index, String docname) {
+        this.index = index;
+        this.docname = docname;
+    }
+
+    public BulkUploadResultDTO succeeded(Integer transactionId) {
+        this.status = Status.SUCCESS;
+        this.transactionId = transactionId;
+        this.error = null;
+        return this;
+    }
+
+    public BulkUploadResultDTO failed(String error) {
+        this.status = Status.FAILED;
+        this.transactionId = null;
+        this.error = error;
+        return this;
+    }
+
+    // Getters
+    public int getIndex() { return index; }
+    public String getDocname() { return docname; }
+    public Status getStatus() { return status; }
+    public Integer getTransactionId() { return transactionId; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,16 @@
+package com.simon.armas_springboot_api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One workflow action applied to many reports: the ids plus the payload the action needs
+ * (auditorUsername to assign, rejectionReason to reject; approving needs neither).
+ */
+@Data
+public class BulkWorkflowRequest {
+    private List<Integer> transactionIds;
+    private String auditorUsername;
+    private String rejectionReason;
+}
@@ -0,0 +1,38 @@
+package com.simon.armas_springboot_api.dto;
+
+/**
+ * Outcome of a bulk workflow action for one report.
+ */
+public class BulkWorkflowResultDTO {
+    public enum Status { SUCCESS, CONFLICT, FAILED }
+
+    private Integer transactionId;
+    private Status status;
+    private String reportstatus;
+    private String error;
+
+    public BulkWorkflowResultDTO(Integer transactionId, Status status, String reportstatus, String error) {
+        this.transactionId = transactionId;
+        this.status = status;
+        this.reportstatus = reportstatus;
+        this.error = error;
+    }
+
+    public static BulkWorkflowResultDTO succeeded(Integer transactionId, String reportstatus) {
+        return new BulkWorkflowResultDTO(transactionId, Status.SUCCESS, reportstatus, null);
+    }
+
+    public static BulkWorkflowResultDTO conflicted(Integer transactionId, String reportstatus, String error) {
+        return new BulkWorkflowResultDTO(transactionId, Status.CONFLICT, reportstatus, error);
+    }
+
+    public static BulkWorkflowResultDTO failed(Integer transactionId, String error) {
+        return new BulkWorkflowResultDTO(transactionId, Status.FAILED, null, error);
+    }
+
+    // Getters
+    public Integer getTransactionId() { return transactionId; }
+    public Status getStatus() { return status; }
+    public String getReportstatus() { return reportstatus; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,12 @@
+package com.simon.armas_springboot_api.dto;
+
+/**
+ * Row returned by ComplianceMatrixRepository.dashboardCounts; every counter the dashboard needs
+ * for one fiscal year.
+ */
+public interface DashboardCounts {
+    Long getTotalOrganizations();
+    Long getTotalReportTypes();
+    Long getSenders();
+    Long getReportTypeSenders();
+}
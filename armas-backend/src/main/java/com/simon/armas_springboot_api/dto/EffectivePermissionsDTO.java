@@ -0,0 +1,26 @@
+package com.simon.armas_springboot_api.dto;
+
+import java.util.List;
+
+public class EffectivePermissionsDTO {
+    private Long userId;
+    private List<String> roles;
+    private List<String> privileges; // role privileges, direct grants and derived ones such as VIEW_ORG_REPORTS
+    private List<String> authorities; // exactly what the security context receives
+
+    public EffectivePermissionsDTO(Long userId, List<String> roles, List<String> privileges, List<String> authorities) {
+        this.userId = userId;
+        this.roles = roles;
+        this.privileges = privileges;
+        this.authorities = authorities;
+    }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public List<String> getRoles() { return roles; }
+    public void setRoles(List<String> roles) { this.roles = roles; }
+    public List<String> getPrivileges() { return privileges; }
+    public void setPrivileges(List<String> privileges) { this.privileges = privileges; }
+    public List<String> getAuthorities() { return authorities; }
+    public void setAuthorities(List<String> authorities) { this.authorities = authorities; }
+}
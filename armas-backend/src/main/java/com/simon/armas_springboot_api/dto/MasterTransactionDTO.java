@@ -60,6 +60,32 @@ public class MasterTransactionDTO {
         this.letterDocname = mt.getLetterDocname();
     }
 
+    // Constructor to map from the TransactionSummaryView projection
+    public MasterTransactionDTO(TransactionSummaryView view) {
+        this.id = view.getId();
+        this.createdDate = view.getCreatedDate();
+        this.lastModifiedDate = view.getLastModifiedDate();
+        this.orgname = view.getOrgname();
+        this.fiscalYear = view.getFiscalYear();
+        this.reportype = view.getReportype() != null ? view.getReportype() : view.getReportcategory();
+        this.reportstatus = view.getReportstatus();
+        this.docname = view.getDocname();
+        this.user = view.getUploaderUsername();
+        this.supportingDocumentPath = view.getSupportingDocumentPath();
+        this.supportingDocname = view.getSupportingDocname();
+        this.submittedByAuditorUsername = view.getSubmittedByAuditorUsername();
+        this.assignedAuditorUsername = view.getAssignedAuditorUsername();
+        this.createdBy = view.getCreatedBy();
+        this.assignedByUsername = view.getAssignedByUsername();
+        this.lastModifiedBy = view.getLastModifiedBy();
+        this.approverUsername = "Approved".equals(view.getReportstatus()) ? view.getAssignedAuditorUsername() : null;
+        this.remarks = view.getRemarks();
+        this.reason_of_rejection = view.getReasonOfRejection();
+        this.responseNeeded = view.getResponseNeeded();
+        this.letterPath = view.getLetterPath();
+        this.letterDocname = view.getLetterDocname();
+    }
+
     // Getters and setters
     public Integer getId() { return id; }
     public void setId(Integer id) { this.id = id; }
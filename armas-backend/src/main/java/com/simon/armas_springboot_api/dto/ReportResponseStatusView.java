@@ -0,0 +1,11 @@
+package com.simon.armas_springboot_api.dto;
+
+/**
+ * Report rows a feedback upload depends on: which document/fiscal year was reported
+ * and whether the experts asked for a response.
+ */
+public interface ReportResponseStatusView {
+    String getDocumentId();
+    String getFiscalYear();
+    String getResponseNeeded();
+}
@@ -0,0 +1,22 @@
+package com.simon.armas_springboot_api.dto;
+
+import java.util.List;
+
+public class TaskPageDTO {
+    private List<MasterTransactionDTO> items;
+    private String nextCursor; // null when there are no more tasks
+    private int size;
+
+    public TaskPageDTO(List<MasterTransactionDTO> items, String nextCursor, int size) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.size = size;
+    }
+
+    public List<MasterTransactionDTO> getItems() { return items; }
+    public void setItems(List<MasterTransactionDTO> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
@@ -0,0 +1,33 @@
+package com.simon.armas_springboot_api.dto;
+
+import java.util.Date;
+
+/**
+ * Interface projection over master_transaction and the usernames/lookup values the list
+ * screens show. Selected with MasterTransactionRepository.SUMMARY_SELECT so no entity graph
+ * (users, roles, organization) is materialised.
+ */
+public interface TransactionSummaryView {
+    Integer getId();
+    Date getCreatedDate();
+    Date getLastModifiedDate();
+    String getCreatedBy();
+    String getLastModifiedBy();
+    String getOrgname();
+    String getFiscalYear();
+    String getReportype();
+    String getReportcategory();
+    String getReportstatus();
+    String getDocname();
+    String getSupportingDocumentPath();
+    String getSupportingDocname();
+    String getUploaderUsername();
+    String getAssignedAuditorUsername();
+    String getAssignedByUsername();
+    String getSubmittedByAuditorUsername();
+    String getRemarks();
+    String getReasonOfRejection();
+    String getResponseNeeded();
+    String getLetterPath();
+    String getLetterDocname();
+}
@@ -0,0 +1,37 @@
+package com.simon.armas_springboot_api.dto;
+
+import com.simon.armas_springboot_api.models.UploadSession;
+
+import java.util.List;
+
+public class UploadSessionDTO {
+    private String id;
+    private String fileName;
+    private long totalSize;
+    private long receivedBytes;
+    private List<String> receivedRanges; // inclusive "start-end" byte ranges, as in Content-Range
+    private long chunkSize;              // suggested size for each PUT
+    private String status;
+    private Integer transactionId;
+
+    public UploadSessionDTO(UploadSession session, List<String> receivedRanges, long chunkSize) {
+        this.id = session.getId();
+        this.fileName = session.getFileName();
+        this.totalSize = session.getTotalSize();
+        this.receivedBytes = session.getReceivedBytes();
+        this.receivedRanges = receivedRanges;
+        this.chunkSize = chunkSize;
+        this.status = session.getStatus().name();
+        this.transactionId = session.getTransactionId();
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getFileName() { return fileName; }
+    public long getTotalSize() { return totalSize; }
+    public long getReceivedBytes() { return receivedBytes; }
+    public List<String> getReceivedRanges() { return receivedRanges; }
+    public long getChunkSize() { return chunkSize; }
+    public String getStatus() { return status; }
+    public Integer getTransactionId() { return transactionId; }
+}
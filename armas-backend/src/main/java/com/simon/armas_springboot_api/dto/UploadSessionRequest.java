@@ -0,0 +1,21 @@
+package com.simon.armas_springboot_api.dto;
+
+public class UploadSessionRequest {
+    private String fileName;
+    private Long totalSize;
+    private String reportcategory;
+    private Long budgetYearId;
+    private String transactiondocumentid;
+
+    // Getters and Setters
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public Long getTotalSize() { return totalSize; }
+    public void setTotalSize(Long totalSize) { this.totalSize = totalSize; }
+    public String getReportcategory() { return reportcategory; }
+    public void setReportcategory(String reportcategory) { this.reportcategory = reportcategory; }
+    public Long getBudgetYearId() { return budgetYearId; }
+    public void setBudgetYearId(Long budgetYearId) { this.budgetYearId = budgetYearId; }
+    public String getTransactiondocumentid() { return transactiondocumentid; }
+    public void setTransactiondocumentid(String transactiondocumentid) { this.transactiondocumentid = transactiondocumentid; }
+}
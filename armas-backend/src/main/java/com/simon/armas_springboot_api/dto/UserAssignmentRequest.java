@@ -0,0 +1,15 @@
+package com.simon.armas_springboot_api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Desired state for one user in a bulk assignment: after the call the user holds exactly
+ * these role (or privilege) ids. An empty list removes everything.
+ */
+@Data
+public class UserAssignmentRequest {
+    private Long userId;
+    private List<Long> ids;
+}
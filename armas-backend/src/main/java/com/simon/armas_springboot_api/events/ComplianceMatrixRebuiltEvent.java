@@ -0,0 +1,21 @@
+package com.simon.armas_springboot_api.events;
+
+/**
+ * Published when the compliance matrix has been recomputed from master_transaction. Once the
+ * rebuilding transaction commits, counts cached from the old matrix are dropped.
+ */
+public class ComplianceMatrixRebuiltEvent {
+
+    private final int cells;
+
+    public ComplianceMatrixRebuiltEvent(int cells) {
+        this.cells = cells;
+    }
+
+    public int getCells() { return cells; }
+
+    @Override
+    public String toString() {
+        return "ComplianceMatrixRebuiltEvent [cells=" + cells + "]";
+    }
+}
@@ -0,0 +1,28 @@
+package com.simon.armas_springboot_api.events;
+
+/**
+ * Published when a user's existing sessions must end: password change or reset, role
+ * removal or account deletion. Once the publishing transaction commits, every access token
+ * issued to the user so far is rejected and their refresh tokens are revoked.
+ */
+public class SessionsRevokedEvent {
+
+    private final Long userId;
+    private final String username;
+    private final String reason;
+
+    public SessionsRevokedEvent(Long userId, String username, String reason) {
+        this.userId = userId;
+        this.username = username;
+        this.reason = reason;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getReason() { return reason; }
+
+    @Override
+    public String toString() {
+        return "SessionsRevokedEvent [userId=" + userId + ", username=" + username + ", reason=" + reason + "]";
+    }
+}
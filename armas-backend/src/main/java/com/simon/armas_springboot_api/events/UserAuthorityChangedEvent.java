@@ -0,0 +1,38 @@
+package com.simon.armas_springboot_api.events;
+
+/**
+ * Published whenever something that feeds a user's authorities changes: role membership,
+ * role privileges, direct privilege grants, organization or the user record itself.
+ * userId scopes the change to one user, roleId to every holder of a role; both null means
+ * the change may affect anyone.
+ */
+public class UserAuthorityChangedEvent {
+
+    private final Long userId;
+    private final Long roleId;
+
+    private UserAuthorityChangedEvent(Long userId, Long roleId) {
+        this.userId = userId;
+        this.roleId = roleId;
+    }
+
+    public static UserAuthorityChangedEvent forUser(Long userId) {
+        return new UserAuthorityChangedEvent(userId, null);
+    }
+
+    public static UserAuthorityChangedEvent forRole(Long roleId) {
+        return new UserAuthorityChangedEvent(null, roleId);
+    }
+
+    public static UserAuthorityChangedEvent forAll() {
+        return new UserAuthorityChangedEvent(null, null);
+    }
+
+    public Long getUserId() { return userId; }
+    public Long getRoleId() { return roleId; }
+
+    @Override
+    public String toString() {
+        return "UserAuthorityChangedEvent [userId=" + userId + ", roleId=" + roleId + "]";
+    }
+}
@@ -0,0 +1,80 @@
+package com.simon.armas_springboot_api.events;
+
+import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.User;
+
+/**
+ * Published by MasterTransactionService when a report moves through the workflow.
+ * Only scalar values are copied out of the entity so listeners can run after the
+ * transaction has committed, on another thread.
+ */
+public class WorkflowEvent {
+
+    public enum Type {
+        REPORT_UPLOADED,
+        LETTER_UPLOADED,
+        TASK_ASSIGNED,
+        TASK_EVALUATED,
+        TASK_APPROVED
+    }
+
+    private final Type type;
+    private final Long transactionId;
+    private final String docname;
+    private final String letterDocname;
+    private final String actorUsername;
+    private final Long uploaderId;
+    private final String organizationId;
+    private final String fiscalYear;
+    private final Long recipientId;
+    private final long publishedAt = System.nanoTime();
+
+    private WorkflowEvent(Type type, MasterTransaction transaction, String actorUsername, Long recipientId) {
+        this.type = type;
+        this.transactionId = transaction.getId().longValue();
+        this.docname = transaction.getDocname();
+        this.letterDocname = transaction.getLetterDocname();
+        this.actorUsername = actorUsername;
+        this.uploaderId = transaction.getUser() != null ? transaction.getUser().getId() : null;
+        this.organizationId = transaction.getOrganization() != null ? transaction.getOrganization().getId() : null;
+        this.fiscalYear = transaction.getBudgetYear() != null ? transaction.getBudgetYear().getFiscalYear() : null;
+        this.recipientId = recipientId;
+    }
+
+    public static WorkflowEvent reportUploaded(MasterTransaction transaction, String uploaderUsername) {
+        return new WorkflowEvent(Type.REPORT_UPLOADED, transaction, uploaderUsername, null);
+    }
+
+    public static WorkflowEvent letterUploaded(MasterTransaction transaction, String archiverUsername) {
+        return new WorkflowEvent(Type.LETTER_UPLOADED, transaction, archiverUsername, null);
+    }
+
+    public static WorkflowEvent taskAssigned(MasterTransaction transaction, User auditor, String archiverUsername) {
+        return new WorkflowEvent(Type.TASK_ASSIGNED, transaction, archiverUsername, auditor.getId());
+    }
+
+    public static WorkflowEvent taskEvaluated(MasterTransaction transaction, User approver, String auditorUsername) {
+        return new WorkflowEvent(Type.TASK_EVALUATED, transaction, auditorUsername, approver.getId());
+    }
+
+    public static WorkflowEvent taskApproved(MasterTransaction transaction, String approverUsername) {
+        Long archiverId = transaction.getAssignedBy() != null ? transaction.getAssignedBy().getId() : null;
+        return new WorkflowEvent(Type.TASK_APPROVED, transaction, approverUsername, archiverId);
+    }
+
+    public Type getType() { return type; }
+    public Long getTransactionId() { return transactionId; }
+    public String getDocname() { return docname; }
+    public String getLetterDocname() { return letterDocname; }
+    public String getActorUsername() { return actorUsername; }
+    public Long getUploaderId() { return uploaderId; }
+    public String getOrganizationId() { return organizationId; }
+    public String getFiscalYear() { return fiscalYear; }
+    public Long getRecipientId() { return recipientId; }
+    public long getPublishedAt() { return publishedAt; }
+
+    @Override
+    public String toString() {
+        return "WorkflowEvent [type=" + type + ", transactionId=" + transactionId + ", actor=" + actorUsername + "]";
+    }
+}
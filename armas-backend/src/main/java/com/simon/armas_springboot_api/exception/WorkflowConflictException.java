@@ -0,0 +1,24 @@
+package com.simon.armas_springboot_api.exception;
+
+/**
+ * A workflow transition found the report in a state it cannot leave that way, usually
+ * because another user moved it first. Mapped to 409 Conflict.
+ */
+public class WorkflowConflictException extends IllegalStateException {
+    private final Integer transactionId;
+    private final String currentStatus;
+
+    public WorkflowConflictException(Integer transactionId, String currentStatus, String message) {
+        super(message);
+        this.transactionId = transactionId;
+        this.currentStatus = currentStatus;
+    }
+
+    public Integer getTransactionId() {
+        return transactionId;
+    }
+
+    public String getCurrentStatus() {
+        return currentStatus;
+    }
+}
@@ -0,0 +1,46 @@
+package com.simon.armas_springboot_api.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * One cell of the organization x document x budget year x category submission matrix.
+ * A row exists once an organization has submitted at least one transaction for that cell;
+ * it is maintained by ComplianceMatrixService and can be rebuilt from master_transaction.
+ * Cells hold ids only, so report type and fiscal year names are joined in when queried and
+ * renaming a document or budget year never leaves the matrix stale.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "compliance_matrix_cell",
+        uniqueConstraints = @jakarta.persistence.UniqueConstraint(name = "uk_compliance_matrix_cell",
+                columnNames = { "reportcategory", "budget_year_id", "document_id", "org_id" }),
+        indexes = @Index(name = "idx_compliance_matrix_org", columnList = "org_id"))
+public class ComplianceMatrixEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "org_id", nullable = false)
+    private String organizationId;
+
+    @Column(name = "document_id", nullable = false)
+    private String documentId;
+
+    @Column(name = "budget_year_id", nullable = false)
+    private Long budgetYearId;
+
+    @Column(name = "reportcategory", nullable = false)
+    private String reportcategory;
+
+    @Column(name = "submission_count", nullable = false)
+    private long submissionCount;
+
+    @Column(name = "last_submitted_at")
+    private Date lastSubmittedAt;
+}
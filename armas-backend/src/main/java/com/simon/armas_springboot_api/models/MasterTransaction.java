@@ -13,6 +13,8 @@ import lombok.NoArgsConstructor;
 import com.simon.armas_springboot_api.security.models.Auditable;
 import com.simon.armas_springboot_api.models.User;
 import org.springframework.data.annotation.Transient;
+
+import java.util.Date;
 @Entity
 @Table(name = "master_transaction")
 @NoArgsConstructor
@@ -24,6 +26,11 @@ public class MasterTransaction extends Auditable<String> {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    // Bumped by JPA saves and by every WorkflowEngine transition
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long version;
+
     private String docname;
     private String reportstatus;
     @Column(length = 5000)
@@ -36,14 +43,27 @@ public class MasterTransaction extends Auditable<String> {
     private BudgetYear budgetYear;
 
     private String reportcategory;
-    private String filepath;
-    private String supportingDocumentPath;
+    private String filepath; // Storage key of the original report (see StorageEngine)
+    private String supportingDocumentPath; // Storage key of the supporting document
     private String supportingDocname;
     @Column(name = "letter_path")
-    private String letterPath; // Path to the letter uploaded by ARCHIVER
+    private String letterPath; // Storage key of the letter uploaded by ARCHIVER
 
     @Column(name = "letter_docname")
     private String letterDocname; // Name of the letter file
+
+    // Content types cached at upload time so downloads do not sniff the disk
+    @Column(name = "file_content_type")
+    private String fileContentType;
+    @Column(name = "supporting_content_type")
+    private String supportingContentType;
+    @Column(name = "letter_content_type")
+    private String letterContentType;
+
+    // First download by the assigned auditor while Assigned; auto-assignment only moves reports without it
+    @Column(name = "auditor_started_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date auditorStartedAt;
     @Transient
     private String current_orgname;
     @Transient
@@ -84,6 +104,8 @@ public class MasterTransaction extends Auditable<String> {
     // Getters and Setters
     public Integer getId() { return id; }
     public void setId(Integer id) { this.id = id; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
     public String getDocname() { return docname; }
     public void setDocname(String docname) { this.docname = docname; }
     public String getReportstatus() { return reportstatus; }
@@ -132,4 +154,12 @@ public class MasterTransaction extends Auditable<String> {
     public void setLetterPath(String letterPath) { this.letterPath = letterPath; }
     public String getLetterDocname() { return letterDocname; }
     public void setLetterDocname(String letterDocname) { this.letterDocname = letterDocname; }
+    public String getFileContentType() { return fileContentType; }
+    public void setFileContentType(String fileContentType) { this.fileContentType = fileContentType; }
+    public String getSupportingContentType() { return supportingContentType; }
+    public void setSupportingContentType(String supportingContentType) { this.supportingContentType = supportingContentType; }
+    public String getLetterContentType() { return letterContentType; }
+    public void setLetterContentType(String letterContentType) { this.letterContentType = letterContentType; }
+    public Date getAuditorStartedAt() { return auditorStartedAt; }
+    public void setAuditorStartedAt(Date auditorStartedAt) { this.auditorStartedAt = auditorStartedAt; }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.simon.armas_springboot_api.models;
+
+/**
+ * Workflow states of a MasterTransaction. The label is what is stored in the
+ * reportstatus column and sent to the frontend.
+ */
+public enum ReportStatus {
+    SUBMITTED("Submitted"),
+    ASSIGNED("Assigned"),
+    UNDER_REVIEW("Under Review"),
+    CORRECTED("Corrected"),
+    REJECTED("Rejected"),
+    APPROVED("Approved");
+
+    private final String label;
+
+    ReportStatus(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public static ReportStatus fromLabel(String label) {
+        for (ReportStatus status : values()) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown report status: " + label);
+    }
+}
@@ -0,0 +1,12 @@
+package com.simon.armas_springboot_api.models;
+
+/**
+ * Result of writing an upload into the storage engine.
+ *
+ * @param key     storage key persisted on MasterTransaction (filepath, supportingDocumentPath, letterPath)
+ * @param sha256  hex encoded SHA-256 of the stored bytes
+ * @param size    number of bytes stored
+ * @param created false when identical content was already stored and the upload was de-duplicated
+ */
+public record StoredFile(String key, String sha256, long size, boolean created) {
+}
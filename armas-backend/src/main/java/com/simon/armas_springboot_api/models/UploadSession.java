@@ -0,0 +1,64 @@
+package com.simon.armas_springboot_api.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * State of a resumable upload: the target file is preallocated on disk and chunks are
+ * written into it at their offsets; receivedRanges records what has arrived so far.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "upload_session", indexes = @Index(name = "idx_upload_session_updated", columnList = "updated_at"))
+public class UploadSession {
+
+    public enum Status { OPEN, COMPLETED }
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "total_size", nullable = false)
+    private long totalSize;
+
+    // Merged, sorted "start-endExclusive" pairs separated by commas
+    @Column(name = "received_ranges", columnDefinition = "TEXT")
+    private String receivedRanges = "";
+
+    @Column(name = "received_bytes", nullable = false)
+    private long receivedBytes;
+
+    private String reportcategory;
+
+    @Column(name = "budget_year_id")
+    private Long budgetYearId;
+
+    @Column(name = "transaction_document_id")
+    private String transactiondocumentid;
+
+    @Column(name = "temp_path", nullable = false)
+    private String tempPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.OPEN;
+
+    @Column(name = "transaction_id")
+    private Integer transactionId;
+
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Date updatedAt;
+}
@@ -0,0 +1,96 @@
+package com.simon.armas_springboot_api.monitoring;
+
+/**
+ * SQL issued by Hibernate on the current thread while a request is being served. Populated
+ * by SqlStatementCounter and SqlTimingListener, which Hibernate instantiates itself, so the
+ * current request is handed over through a thread local opened and closed by SqlStatsFilter.
+ * JdbcTemplate statements bypass Hibernate and are not counted, nor are the connections they use.
+ */
+public final class RequestSqlStats {
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long executionNanos;
+    private long executionStarted;
+    private int connectionAcquisitions;
+    private long connectionHoldNanos;
+    private int connectionsHeld;
+    private long connectionAcquired;
+
+    private RequestSqlStats() {
+    }
+
+    public static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /** Continues the stats of a request on the thread serving its async dispatch. */
+    public static void resume(RequestSqlStats stats) {
+        CURRENT.set(stats);
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /** The stats of the request on this thread, or null outside a request. */
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long executionNanos() {
+        return executionNanos;
+    }
+
+    /** How many times a Hibernate session obtained a JDBC connection during the request. */
+    public int connectionAcquisitions() {
+        return connectionAcquisitions;
+    }
+
+    /**
+     * Time during which the request held at least one JDBC connection, from acquisition until
+     * released back to the pool. Overlapping connections (e.g. REQUIRES_NEW) count once.
+     */
+    public long connectionHoldNanos() {
+        long held = connectionHoldNanos;
+        if (connectionsHeld > 0) {
+            // Still held, e.g. by the open-in-view session when the request ends
+            held += System.nanoTime() - connectionAcquired;
+        }
+        return held;
+    }
+
+    void statementPrepared() {
+        statements++;
+    }
+
+    void executionStarted() {
+        executionStarted = System.nanoTime();
+    }
+
+    void executionEnded() {
+        if (executionStarted != 0) {
+            executionNanos += System.nanoTime() - executionStarted;
+            executionStarted = 0;
+        }
+    }
+
+    void connectionAcquired() {
+        connectionAcquisitions++;
+        if (connectionsHeld++ == 0) {
+            connectionAcquired = System.nanoTime();
+        }
+    }
+
+    void connectionReleased() {
+        if (connectionsHeld > 0 && --connectionsHeld == 0) {
+            connectionHoldNanos += System.nanoTime() - connectionAcquired;
+        }
+    }
+}
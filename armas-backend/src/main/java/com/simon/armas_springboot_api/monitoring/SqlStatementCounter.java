@@ -0,0 +1,19 @@
+package com.simon.armas_springboot_api.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares. Registered through
+ * hibernate.session_factory.statement_inspector; the SQL is returned unchanged.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.statementPrepared();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,145 @@
+package com.simon.armas_springboot_api.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how many statements each request issued, how long they ran and how long the request
+ * held a database connection, per endpoint pattern, and logs requests over the statement or time
+ * budget. With armas.sql-stats.expose-headers the numbers are also returned as X-SQL-Count /
+ * X-SQL-Time-Ms / X-DB-Hold-Ms headers; the body is buffered for that so lazy loads during JSON
+ * serialization are included, except on streamed paths.
+ * <p>
+ * Async requests (e.g. POST /login) are finished on their async dispatch, the way
+ * ShallowEtagHeaderFilter does it: the first dispatch leaves the buffer alone and the re-dispatch
+ * picks up the same wrapper and stats. SQL run on the async executor thread itself is not
+ * counted, since the stats are bound to the dispatching thread.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatsFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(SqlStatsFilter.class);
+
+    public static final String COUNT_HEADER = "X-SQL-Count";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    public static final String HOLD_HEADER = "X-DB-Hold-Ms";
+
+    private static final String STATS_ATTRIBUTE = SqlStatsFilter.class.getName() + ".STATS";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean exposeHeaders;
+    private final int statementBudget;
+    private final long timeBudgetMillis;
+    private final List<String> unbufferedPaths;
+
+    public SqlStatsFilter(MeterRegistry meterRegistry,
+                          @Value("${armas.sql-stats.expose-headers:false}") boolean exposeHeaders,
+                          @Value("${armas.sql-stats.statement-budget:30}") int statementBudget,
+                          @Value("${armas.sql-stats.time-budget-ms:500}") long timeBudgetMillis,
+                          @Value("${armas.sql-stats.unbuffered-paths:/transactions/notifications/stream,/transactions/download}")
+                          List<String> unbufferedPaths) {
+        this.meterRegistry = meterRegistry;
+        this.exposeHeaders = exposeHeaders;
+        this.statementBudget = statementBudget;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.unbufferedPaths = unbufferedPaths;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = (RequestSqlStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            stats = RequestSqlStats.begin();
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+        } else {
+            RequestSqlStats.resume(stats);
+        }
+        ContentCachingResponseWrapper buffered = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (buffered == null && exposeHeaders && !isUnbuffered(request)) {
+            buffered = new ContentCachingResponseWrapper(response);
+        }
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            RequestSqlStats.end();
+            // If the handler went async, its result is written (and the request finished) on the re-dispatch
+            if (!isAsyncStarted(request)) {
+                record(request, stats);
+                if (buffered != null) {
+                    buffered.setHeader(COUNT_HEADER, Integer.toString(stats.statements()));
+                    buffered.setHeader(TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.executionNanos())));
+                    buffered.setHeader(HOLD_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.connectionHoldNanos())));
+                    buffered.copyBodyToResponse();
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void record(HttpServletRequest request, RequestSqlStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        DistributionSummary.builder("armas.sql.statements")
+                .description("SQL statements issued per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.statements());
+        Timer.builder("armas.sql.time")
+                .description("Time spent executing SQL per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.executionNanos(), TimeUnit.NANOSECONDS);
+        if (stats.connectionAcquisitions() > 0) {
+            Timer.builder("armas.db.connection.hold")
+                    .description("Time a database connection was held per request")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .record(stats.connectionHoldNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(stats.executionNanos());
+        if (stats.statements() > statementBudget || millis > timeBudgetMillis) {
+            Counter.builder("armas.sql.budget.exceeded")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} {} issued {} SQL statements taking {} ms (budget {} statements, {} ms)",
+                    method, uri, stats.statements(), millis, statementBudget, timeBudgetMillis);
+        }
+    }
+
+    private boolean isUnbuffered(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        if (accept != null && accept.contains("text/event-stream")) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return unbufferedPaths.stream().anyMatch(path::startsWith);
+    }
+}
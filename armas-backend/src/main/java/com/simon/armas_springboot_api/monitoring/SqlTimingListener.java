@@ -0,0 +1,52 @@
+package com.simon.armas_springboot_api.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds up time spent executing JDBC statements and holding JDBC connections. Registered through
+ * hibernate.session.events.auto, which creates one instance per session.
+ */
+public class SqlTimingListener implements SessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.executionStarted();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.executionEnded();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.connectionAcquired();
+        }
+    }
+
+    @Override
+    public void jdbcConnectionReleaseEnd() {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.connectionReleased();
+        }
+    }
+}
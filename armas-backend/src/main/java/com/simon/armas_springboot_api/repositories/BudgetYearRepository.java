@@ -2,6 +2,9 @@ package com.simon.armas_springboot_api.repositories;
 
 import com.simon.armas_springboot_api.models.BudgetYear;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 import com.simon.armas_springboot_api.dto.BudgetYearDTO;
@@ -11,10 +14,18 @@ import java.util.List;
 
 @Repository
 public interface BudgetYearRepository extends JpaRepository<BudgetYear, Long> {
+    // Reference data: results come from the query cache, rows from the reference-data.budget-year region
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<BudgetYear> findByFiscalYear(String fiscalYear);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT new com.simon.armas_springboot_api.dto.BudgetYearDTO(b.id, b.fiscalYear) FROM BudgetYear b")
     List<BudgetYearDTO> findAllBudgetYears();
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByFiscalYear(String fiscalYear);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<BudgetYear> findAll();
    
 }
@@ -0,0 +1,71 @@
+package com.simon.armas_springboot_api.repositories;
+
+import com.simon.armas_springboot_api.dto.DashboardCounts;
+import com.simon.armas_springboot_api.models.ComplianceMatrixEntry;
+import com.simon.armas_springboot_api.models.Organization;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface ComplianceMatrixRepository extends JpaRepository<ComplianceMatrixEntry, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO compliance_matrix_cell (org_id, document_id, budget_year_id, reportcategory, submission_count, last_submitted_at) " +
+           "VALUES (:orgId, :documentId, :budgetYearId, :reportcategory, 1, :submittedAt) " +
+           "ON DUPLICATE KEY UPDATE submission_count = submission_count + 1, " +
+           "last_submitted_at = GREATEST(COALESCE(last_submitted_at, VALUES(last_submitted_at)), VALUES(last_submitted_at))",
+           nativeQuery = true)
+    int recordSubmission(@Param("orgId") String orgId,
+                         @Param("documentId") String documentId,
+                         @Param("budgetYearId") Long budgetYearId,
+                         @Param("reportcategory") String reportcategory,
+                         @Param("submittedAt") Date submittedAt);
+
+    @Modifying
+    @Query("DELETE FROM ComplianceMatrixEntry c")
+    int deleteAllCells();
+
+    @Modifying
+    @Query("INSERT INTO ComplianceMatrixEntry (organizationId, documentId, budgetYearId, reportcategory, submissionCount, lastSubmittedAt) " +
+           "SELECT o.id, d.id, b.id, m.reportcategory, COUNT(m), MAX(m.createdDate) " +
+           "FROM MasterTransaction m JOIN m.organization o JOIN m.transactiondocument d JOIN m.budgetYear b " +
+           "WHERE m.reportcategory IS NOT NULL " +
+           "GROUP BY o.id, d.id, b.id, m.reportcategory")
+    int rebuildFromTransactions();
+
+    @Query("SELECT o FROM Organization o WHERE NOT EXISTS " +
+           "(SELECT 1 FROM ComplianceMatrixEntry c JOIN Document d ON d.id = c.documentId JOIN BudgetYear b ON b.id = c.budgetYearId " +
+           "WHERE c.organizationId = o.id AND c.reportcategory = :reportcategory " +
+           "AND b.fiscalYear = :fiscalYear AND d.reportype = :reportype)")
+    List<Organization> findNonSenders(@Param("reportcategory") String reportcategory,
+                                      @Param("reportype") String reportype,
+                                      @Param("fiscalYear") String fiscalYear);
+
+    @Query("SELECT COUNT(DISTINCT c.organizationId) FROM ComplianceMatrixEntry c JOIN BudgetYear b ON b.id = c.budgetYearId " +
+           "WHERE c.reportcategory = :reportcategory AND b.fiscalYear = :fiscalYear")
+    long countSenders(@Param("reportcategory") String reportcategory, @Param("fiscalYear") String fiscalYear);
+
+    // Distinct: several documents (or budget years) may share a report type (or fiscal year) name
+    @Query("SELECT COUNT(DISTINCT c.organizationId) FROM ComplianceMatrixEntry c " +
+           "JOIN Document d ON d.id = c.documentId JOIN BudgetYear b ON b.id = c.budgetYearId " +
+           "WHERE c.reportcategory = :reportcategory AND b.fiscalYear = :fiscalYear AND d.reportype = :reportype")
+    long countSenders(@Param("reportcategory") String reportcategory,
+                      @Param("reportype") String reportype,
+                      @Param("fiscalYear") String fiscalYear);
+
+    // Single round trip for the dashboard: lookup table sizes plus sender counts from the matrix
+    @Query(value = "SELECT (SELECT COUNT(*) FROM organization) AS totalOrganizations, " +
+           "(SELECT COUNT(*) FROM document) AS totalReportTypes, " +
+           "COUNT(DISTINCT c.org_id) AS senders, " +
+           "COUNT(DISTINCT CASE WHEN d.reportype = :reportype THEN c.org_id END) AS reportTypeSenders " +
+           "FROM compliance_matrix_cell c JOIN budget_year b ON b.id = c.budget_year_id JOIN document d ON d.id = c.document_id " +
+           "WHERE c.reportcategory = 'Report' AND b.fiscal_year = :fiscalYear",
+           nativeQuery = true)
+    DashboardCounts dashboardCounts(@Param("fiscalYear") String fiscalYear, @Param("reportype") String reportype);
+}
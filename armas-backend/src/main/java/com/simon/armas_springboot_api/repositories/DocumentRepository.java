@@ -2,9 +2,18 @@ package com.simon.armas_springboot_api.repositories;
 
 import com.simon.armas_springboot_api.models.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, String> {
-     boolean existsByReportype(String reportype);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    boolean existsByReportype(String reportype);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Document> findAll();
 }
\ No newline at end of file
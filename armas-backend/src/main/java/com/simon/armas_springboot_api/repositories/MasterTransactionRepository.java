@@ -1,14 +1,21 @@
 package com.simon.armas_springboot_api.repositories;
 
 import com.simon.armas_springboot_api.dto.SentReportResponseDTO;
+import com.simon.armas_springboot_api.dto.ReportResponseStatusView;
+import com.simon.armas_springboot_api.dto.TransactionSummaryView;
+import com.simon.armas_springboot_api.dto.AssignmentCandidateView;
 import com.simon.armas_springboot_api.models.Document;
 import com.simon.armas_springboot_api.models.MasterTransaction;
 import com.simon.armas_springboot_api.models.User;
 import com.simon.armas_springboot_api.models.Organization;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.Date;
 import java.util.Optional;
 
 import java.util.List;
@@ -16,6 +23,98 @@ import java.util.List;
 @Repository
 public interface MasterTransactionRepository extends JpaRepository<MasterTransaction, Integer> {
 
+    // Column list for TransactionSummaryView; joins are LEFT so missing lookups do not drop rows
+    String SUMMARY_SELECT = "SELECT m.id AS id, m.createdDate AS createdDate, m.lastModifiedDate AS lastModifiedDate, " +
+           "m.createdBy AS createdBy, m.lastModifiedBy AS lastModifiedBy, o.orgname AS orgname, " +
+           "b.fiscalYear AS fiscalYear, d.reportype AS reportype, m.reportcategory AS reportcategory, " +
+           "m.reportstatus AS reportstatus, m.docname AS docname, m.supportingDocumentPath AS supportingDocumentPath, " +
+           "m.supportingDocname AS supportingDocname, u.username AS uploaderUsername, " +
+           "u2.username AS assignedAuditorUsername, ab.username AS assignedByUsername, " +
+           "sa.username AS submittedByAuditorUsername, m.remarks AS remarks, " +
+           "m.reason_of_rejection AS reasonOfRejection, m.response_needed AS responseNeeded, " +
+           "m.letterPath AS letterPath, m.letterDocname AS letterDocname " +
+           "FROM MasterTransaction m " +
+           "LEFT JOIN m.organization o LEFT JOIN m.budgetYear b LEFT JOIN m.transactiondocument d " +
+           "LEFT JOIN m.user u LEFT JOIN m.user2 u2 LEFT JOIN m.assignedBy ab LEFT JOIN m.submittedByAuditor sa ";
+
+    // Task inbox order: newest first, legacy rows without a createdDate last, id as tie-breaker
+    String INBOX_ORDER = "ORDER BY m.createdDate DESC NULLS LAST, m.id DESC";
+
+    // Keyset predicate for later inbox pages: rows strictly after the (createdDate, id) cursor in
+    // INBOX_ORDER; a null cursorDate means the previous page already ended among the undated rows
+    String INBOX_KEYSET = "AND ((:cursorDate IS NOT NULL AND (m.createdDate < :cursorDate " +
+           "OR (m.createdDate = :cursorDate AND m.id < :cursorId) OR m.createdDate IS NULL)) " +
+           "OR (:cursorDate IS NULL AND m.createdDate IS NULL AND m.id < :cursorId)) " + INBOX_ORDER;
+
+    String ARCHIVER_INBOX = SUMMARY_SELECT + "WHERE ab.id = :userId AND m.reportstatus IN :statuses ";
+    String SENIOR_AUDITOR_INBOX = SUMMARY_SELECT + "WHERE ((u2.id = :userId AND m.reportstatus IN ('Assigned', 'Rejected')) " +
+           "OR (sa.id = :userId AND m.reportstatus = 'Approved')) AND m.reportstatus IN :statuses ";
+    String APPROVER_INBOX = SUMMARY_SELECT + "WHERE u2.id = :userId AND m.reportstatus IN :statuses ";
+
+    @Query(ARCHIVER_INBOX + INBOX_ORDER)
+    List<TransactionSummaryView> findArchiverInbox(@Param("userId") Long userId,
+            @Param("statuses") List<String> statuses,
+            Pageable page);
+
+    @Query(ARCHIVER_INBOX + INBOX_KEYSET)
+    List<TransactionSummaryView> findArchiverInboxAfter(@Param("userId") Long userId,
+            @Param("statuses") List<String> statuses,
+            @Param("cursorDate") Date cursorDate,
+            @Param("cursorId") Integer cursorId,
+            Pageable page);
+
+    @Query(SENIOR_AUDITOR_INBOX + INBOX_ORDER)
+    List<TransactionSummaryView> findSeniorAuditorInbox(@Param("userId") Long userId,
+            @Param("statuses") List<String> statuses,
+            Pageable page);
+
+    @Query(SENIOR_AUDITOR_INBOX + INBOX_KEYSET)
+    List<TransactionSummaryView> findSeniorAuditorInboxAfter(@Param("userId") Long userId,
+            @Param("statuses") List<String> statuses,
+            @Param("cursorDate") Date cursorDate,
+            @Param("cursorId") Integer cursorId,
+            Pageable page);
+
+    @Query(APPROVER_INBOX + INBOX_ORDER)
+    List<TransactionSummaryView> findApproverInbox(@Param("userId") Long userId,
+            @Param("statuses") List<String> statuses,
+            Pageable page);
+
+    @Query(APPROVER_INBOX + INBOX_KEYSET)
+    List<TransactionSummaryView> findApproverInboxAfter(@Param("userId") Long userId,
+            @Param("statuses") List<String> statuses,
+            @Param("cursorDate") Date cursorDate,
+            @Param("cursorId") Integer cursorId,
+            Pageable page);
+
+    // List screens read TransactionSummaryView rows: one statement, only the columns MasterTransactionDTO shows
+    @Query(SUMMARY_SELECT + "WHERE m.reportstatus = :status ORDER BY m.createdDate DESC")
+    List<TransactionSummaryView> findSummariesByStatus(@Param("status") String status);
+
+    @Query(SUMMARY_SELECT + "WHERE m.reportstatus = :status AND sa.username = :username ORDER BY m.createdDate DESC")
+    List<TransactionSummaryView> findSummariesByStatusAndSubmittedByAuditor(@Param("status") String status,
+            @Param("username") String username);
+
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId ORDER BY m.createdDate DESC")
+    List<TransactionSummaryView> findSummariesByUploader(@Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "WHERE o.id = :orgId AND m.letterPath IS NOT NULL ORDER BY m.createdDate DESC")
+    List<TransactionSummaryView> findLetterSummariesByOrganization(@Param("orgId") String orgId);
+
+    @Query(SUMMARY_SELECT + "WHERE m.reportcategory = :reportcategory AND d.reportype = :reportype " +
+           "AND b.fiscalYear = :fiscalYear ORDER BY m.createdDate DESC")
+    List<TransactionSummaryView> findSummariesByCategoryAndReportTypeAndBudgetYear(
+            @Param("reportcategory") String reportcategory,
+            @Param("reportype") String reportype,
+            @Param("fiscalYear") String fiscalYear);
+
+    @Query(SUMMARY_SELECT + "WHERE m.reportcategory = 'Report' AND d.reportype = :reportype " +
+           "AND b.fiscalYear = :fiscalYear AND o.id = :orgId ORDER BY m.createdDate DESC")
+    List<TransactionSummaryView> findReportSummariesByOrgAndReportTypeAndBudgetYear(
+            @Param("reportype") String reportype,
+            @Param("fiscalYear") String fiscalYear,
+            @Param("orgId") String orgId);
+
     @Query("SELECT m FROM MasterTransaction m WHERE CONCAT(m.id, ' ', m.transactiondocument.id) LIKE %:keyword% ORDER BY m.createdDate DESC")
     List<MasterTransaction> findByTransactionDocumentIdKeyword(@Param("keyword") String keyword);
 
@@ -55,27 +154,12 @@ public interface MasterTransactionRepository extends JpaRepository<MasterTransac
            "WHERE m.reportstatus IN :statuses ORDER BY m.createdDate DESC")
     List<SentReportResponseDTO> fetchDataByStatuses(@Param("statuses") List<String> statuses);
 
-    @Query("SELECT m FROM MasterTransaction m " +
-           "LEFT JOIN FETCH m.organization " +
-           "LEFT JOIN FETCH m.transactiondocument " +
-           "LEFT JOIN FETCH m.submittedByAuditor " +
-           "LEFT JOIN FETCH m.budgetYear " +
-           "WHERE m.reportstatus = 'Rejected' ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findRejectedReports();
-
     @Query("SELECT COUNT(DISTINCT mt.organization) FROM MasterTransaction mt WHERE mt.transactiondocument IS NOT NULL")
     int countDistinctOrganizationsWithReports();
 
     @Query("SELECT m FROM MasterTransaction m WHERE m.transactiondocument.id = :transactionDocumentId ORDER BY m.createdDate DESC")
     List<MasterTransaction> findByTransactionDocumentId(@Param("transactionDocumentId") String transactionDocumentId);
 
-    @Query("SELECT m FROM MasterTransaction m " +
-           "LEFT JOIN FETCH m.organization " +
-           "LEFT JOIN FETCH m.transactiondocument " +
-           "LEFT JOIN FETCH m.budgetYear " +
-           "WHERE m.reportstatus = :status ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findByReportStatus(@Param("status") String reportStatus);
-
     @Query("SELECT m FROM MasterTransaction m WHERE m.user2.id = :userId AND m.reportstatus IN :statuses ORDER BY m.createdDate DESC")
     List<MasterTransaction> findByUserAndStatuses(@Param("userId") Long userId,
             @Param("statuses") List<String> statuses);
@@ -134,36 +218,27 @@ public interface MasterTransactionRepository extends JpaRepository<MasterTransac
            "WHERE m.submittedByAuditor.id = :userId AND m.reportstatus = 'Approved' ORDER BY m.createdDate DESC")
     List<MasterTransaction> findApprovedSeniorAuditorTasks(@Param("userId") Long userId);
 
-    @Query("SELECT m FROM MasterTransaction m " +
-           "LEFT JOIN FETCH m.organization " +
-           "LEFT JOIN FETCH m.transactiondocument " +
-           "LEFT JOIN FETCH m.submittedByAuditor " +
-           "LEFT JOIN FETCH m.budgetYear " +
-           "WHERE m.reportstatus = 'Under Review' ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findUnderReviewReports();
-
-    @Query("SELECT m FROM MasterTransaction m " +
-           "LEFT JOIN FETCH m.organization " +
-           "LEFT JOIN FETCH m.transactiondocument " +
-           "LEFT JOIN FETCH m.budgetYear " +
-           "LEFT JOIN FETCH m.submittedByAuditor " +
-           "WHERE m.reportstatus = 'Corrected' ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findCorrectedReports();
-
     boolean existsByDocname(String docname);
 
     boolean existsByDocnameAndUserId(String docname, Long userId);
 
     boolean existsByDocnameAndUser(String docname, User user);
 
-    @Query("SELECT t FROM MasterTransaction t WHERE t.reportstatus = :status AND t.user2.username = :username ORDER BY t.createdDate DESC")
-    List<MasterTransaction> findByReportstatusAndUser2Username(String status, String username);
+    @Query("SELECT COUNT(m) > 0 FROM MasterTransaction m " +
+           "WHERE m.filepath = :key OR m.supportingDocumentPath = :key OR m.letterPath = :key")
+    boolean isStorageKeyReferenced(@Param("key") String key);
 
-    @Query("SELECT m FROM MasterTransaction m WHERE m.reportstatus = :reportstatus ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findByReportstatus(@Param("reportstatus") String reportstatus);
+    @Query("SELECT m.docname FROM MasterTransaction m WHERE m.user.id = :userId AND m.docname IN :docnames")
+    List<String> findExistingDocnames(@Param("userId") Long userId, @Param("docnames") Collection<String> docnames);
 
-    @Query("SELECT m FROM MasterTransaction m WHERE m.reportstatus = :reportstatus AND m.submittedByAuditor = :submittedByAuditor ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findByReportstatusAndSubmittedByAuditor(@Param("reportstatus") String reportstatus, @Param("submittedByAuditor") User submittedByAuditor);
+    @Query("SELECT d.id AS documentId, b.fiscalYear AS fiscalYear, m.response_needed AS responseNeeded " +
+           "FROM MasterTransaction m JOIN m.transactiondocument d JOIN m.budgetYear b " +
+           "WHERE m.reportcategory = 'Report' AND m.organization.id = :orgId AND d.id IN :documentIds")
+    List<ReportResponseStatusView> findReportResponseStatuses(@Param("orgId") String orgId,
+                                                              @Param("documentIds") Collection<String> documentIds);
+
+    @Query("SELECT t FROM MasterTransaction t WHERE t.reportstatus = :status AND t.user2.username = :username ORDER BY t.createdDate DESC")
+    List<MasterTransaction> findByReportstatusAndUser2Username(String status, String username);
 
     @Query("SELECT m FROM MasterTransaction m LEFT JOIN FETCH m.budgetYear WHERE m.id = :id")
     Optional<MasterTransaction> findByIdWithBudgetYear(@Param("id") Integer id);
@@ -185,66 +260,38 @@ public interface MasterTransactionRepository extends JpaRepository<MasterTransac
            "WHERE m.user.id = :userId ORDER BY m.createdDate DESC")
     List<MasterTransaction> findByUserIdWithLetters(@Param("userId") Long userId);
 
-    @Query("SELECT DISTINCT o FROM Organization o WHERE o.id NOT IN " +
-           "(SELECT m.organization.id FROM MasterTransaction m " +
-           "WHERE m.reportcategory = 'Report' " +
-           "AND m.transactiondocument.reportype = :reportype " +
-           "AND m.budgetYear.fiscalYear = :fiscalYear " +
-           "AND m.organization IS NOT NULL " +
-           "AND m.transactiondocument IS NOT NULL " +
-           "AND m.budgetYear IS NOT NULL)")
-    List<Organization> findReportNonSendersByReportTypeAndBudgetYear(
-            @Param("reportype") String reportype,
-            @Param("fiscalYear") String fiscalYear);
-
-    @Query("SELECT m FROM MasterTransaction m WHERE m.reportcategory = 'Report' " +
-           "AND m.transactiondocument.reportype = :reportype " +
-           "AND m.budgetYear.fiscalYear = :fiscalYear " +
-           "AND m.organization.id = :orgId ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findReportsByOrgAndReportTypeAndBudgetYear(
-            @Param("reportype") String reportype,
-            @Param("fiscalYear") String fiscalYear,
-            @Param("orgId") String orgId);
-
     @Query("SELECT DISTINCT m.organization FROM MasterTransaction m WHERE m.reportcategory = 'Report'")
     List<Organization> findAllOrganizationsWithReports();
 
-    @Query("SELECT DISTINCT o FROM Organization o WHERE o.id NOT IN " +
-           "(SELECT m.organization.id FROM MasterTransaction m " +
-           "WHERE m.reportcategory = 'Feedback' " +
-           "AND m.transactiondocument.reportype = :reportype " +
-           "AND m.budgetYear.fiscalYear = :fiscalYear " +
-           "AND m.organization IS NOT NULL " +
-           "AND m.transactiondocument IS NOT NULL " +
-           "AND m.budgetYear IS NOT NULL)")
-    List<Organization> findFeedbackNonSendersByReportTypeAndBudgetYear(
-            @Param("reportype") String reportype,
-            @Param("fiscalYear") String fiscalYear);
-
-    @Query("SELECT m FROM MasterTransaction m WHERE m.reportcategory = 'Feedback' " +
-           "AND m.transactiondocument.reportype = :reportype " +
-           "AND m.budgetYear.fiscalYear = :fiscalYear ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findFeedbackSendersByReportTypeAndBudgetYear(
-            @Param("reportype") String reportype,
-            @Param("fiscalYear") String fiscalYear);
-
-    @Query("SELECT COUNT(DISTINCT m.organization) FROM MasterTransaction m WHERE m.reportcategory = 'Report' AND m.budgetYear.fiscalYear = :fiscalYear")
-    long countSendersByFiscalYear(@Param("fiscalYear") String fiscalYear);
-
-    @Query("SELECT COUNT(DISTINCT m.organization) FROM MasterTransaction m WHERE m.reportcategory = 'Report' AND m.transactiondocument.reportype = :reportype AND m.budgetYear.fiscalYear = :fiscalYear")
-    long countSendersByReportTypeAndFiscalYear(@Param("reportype") String reportype, @Param("fiscalYear") String fiscalYear);
-
-    @Query("SELECT m FROM MasterTransaction m " +
-           "LEFT JOIN FETCH m.organization " +
-           "LEFT JOIN FETCH m.budgetYear " +
-           "LEFT JOIN FETCH m.transactiondocument " +
-           "LEFT JOIN FETCH m.user " +
-           "WHERE m.user.id = :userId ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findTransactionHistoryByUserId(@Param("userId") Long userId);
-
-    @Query("SELECT m FROM MasterTransaction m " +
-           "LEFT JOIN FETCH m.user " +
-           "LEFT JOIN FETCH m.organization " +
-           "WHERE m.organization.id = :orgId AND m.letterPath IS NOT NULL ORDER BY m.createdDate DESC")
-    List<MasterTransaction> findTransactionsWithLettersByOrganization(@Param("orgId") String orgId);
+    @Query("SELECT m.id AS id, d.directorate.id AS directorateId FROM MasterTransaction m LEFT JOIN m.transactiondocument d " +
+           "WHERE m.id IN :ids AND m.reportstatus = 'Submitted' AND m.user2 IS NULL")
+    List<AssignmentCandidateView> findUnassignedCandidates(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT m.id AS id, d.directorate.id AS directorateId FROM MasterTransaction m LEFT JOIN m.transactiondocument d " +
+           "WHERE m.reportstatus = 'Submitted' AND m.user2 IS NULL ORDER BY m.createdDate, m.id")
+    List<AssignmentCandidateView> findUnassignedBacklog(Pageable pageable);
+
+    // Reports the auditor has not opened yet, most recently assigned first
+    @Query("SELECT m.id AS id, d.directorate.id AS directorateId FROM MasterTransaction m LEFT JOIN m.transactiondocument d " +
+           "WHERE m.user2.id = :userId AND m.reportstatus = 'Assigned' AND m.auditorStartedAt IS NULL " +
+           "ORDER BY m.lastModifiedDate DESC, m.id DESC")
+    List<AssignmentCandidateView> findMovableAssignments(@Param("userId") Long userId, Pageable pageable);
+
+    // Bumps the version like any other write, so stale copies of the row cannot overwrite it
+    @Modifying
+    @Query("UPDATE MasterTransaction m SET m.auditorStartedAt = :now, m.version = m.version + 1 " +
+           "WHERE m.id = :id AND m.user2.id = :userId AND m.reportstatus = 'Assigned' AND m.auditorStartedAt IS NULL")
+    int markAuditorStarted(@Param("id") Integer id, @Param("userId") Long userId, @Param("now") Date now);
+
+    @Modifying
+    @Query("UPDATE MasterTransaction m SET m.fileContentType = :contentType WHERE m.id = :id")
+    int updateFileContentType(@Param("id") Integer id, @Param("contentType") String contentType);
+
+    @Modifying
+    @Query("UPDATE MasterTransaction m SET m.supportingContentType = :contentType WHERE m.id = :id")
+    int updateSupportingContentType(@Param("id") Integer id, @Param("contentType") String contentType);
+
+    @Modifying
+    @Query("UPDATE MasterTransaction m SET m.letterContentType = :contentType WHERE m.id = :id")
+    int updateLetterContentType(@Param("id") Integer id, @Param("contentType") String contentType);
 }
\ No newline at end of file
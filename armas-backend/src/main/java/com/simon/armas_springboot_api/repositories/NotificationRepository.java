@@ -1,10 +1,18 @@
 package com.simon.armas_springboot_api.repositories;
+import com.simon.armas_springboot_api.dto.NotificationDTO;
 import com.simon.armas_springboot_api.models.Notification;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUserIdAndIsReadFalse(Long userId);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.simon.armas_springboot_api.dto.NotificationDTO(" +
+           "n.id, n.title, n.message, n.isRead, n.createdAt, n.entityType, n.entityId, n.context) " +
+           "FROM Notification n WHERE n.user.id = :userId AND n.isRead = false AND n.id > :afterId ORDER BY n.id")
+    List<NotificationDTO> findUnreadAfter(@Param("userId") Long userId, @Param("afterId") Long afterId);
+}
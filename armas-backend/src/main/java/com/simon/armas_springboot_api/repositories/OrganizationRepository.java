@@ -2,11 +2,15 @@ package com.simon.armas_springboot_api.repositories;
 
 import com.simon.armas_springboot_api.models.Organization;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 
 @Repository
 public interface OrganizationRepository extends JpaRepository<Organization, String> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Organization> findAll();
 }
\ No newline at end of file
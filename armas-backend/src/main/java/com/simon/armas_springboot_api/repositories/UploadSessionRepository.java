@@ -0,0 +1,13 @@
+package com.simon.armas_springboot_api.repositories;
+
+import com.simon.armas_springboot_api.models.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    List<UploadSession> findByStatusAndUpdatedAtBefore(UploadSession.Status status, Date cutoff);
+}
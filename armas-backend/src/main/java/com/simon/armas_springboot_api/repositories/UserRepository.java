@@ -1,15 +1,19 @@
 package com.simon.armas_springboot_api.repositories;
 
+import com.simon.armas_springboot_api.dto.AuditorWorkloadView;
 import com.simon.armas_springboot_api.models.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -28,6 +32,48 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRoleNameAndOrganizationId(@Param("roleName") String roleName, @Param("organizationId") String organizationId);
 
 
+    @Query("SELECT u.id FROM User u JOIN u.roles r WHERE r.description = :roleName")
+    List<Long> findIdsByRoleName(@Param("roleName") String roleName);
+
+    @Query("SELECT u.id AS userId, d.id AS directorateId, COUNT(m.id) AS openTasks FROM User u JOIN u.roles r " +
+           "LEFT JOIN u.directorate d " +
+           "LEFT JOIN MasterTransaction m ON m.user2 = u AND m.reportstatus IN :statuses " +
+           "WHERE r.description = :roleName GROUP BY u.id, d.id")
+    List<AuditorWorkloadView> findWorkloadsByRoleName(@Param("roleName") String roleName,
+                                                      @Param("statuses") Collection<String> statuses);
+
+    @Query("SELECT u.id FROM User u JOIN u.roles r WHERE r.description = :roleName AND u.organization.id = :organizationId")
+    List<Long> findIdsByRoleNameAndOrganizationId(@Param("roleName") String roleName, @Param("organizationId") String organizationId);
+
     @Query("SELECT u FROM User u JOIN FETCH u.organization JOIN FETCH u.directorate WHERE u.id = :id")
     Optional<User> findByIdWithRelations(@Param("id") Long id);
-}
\ No newline at end of file
+
+    // The user and its eager associations in one round trip; authorities come from EffectivePermissionService
+    @Query("SELECT DISTINCT u FROM User u " +
+           "LEFT JOIN FETCH u.roles " +
+           "LEFT JOIN FETCH u.organization " +
+           "LEFT JOIN FETCH u.directorate " +
+           "WHERE u.username = :username")
+    User findForLoginByUsername(@Param("username") String username);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    // Effective-permission index: (userId, roleId) pairs for every user, or for one user
+    @Query("SELECT u.id, r.id FROM User u JOIN u.roles r")
+    List<Object[]> findAllUserRoleIds();
+
+    @Query("SELECT r.id FROM User u JOIN u.roles r WHERE u.id = :userId")
+    List<Long> findRoleIdsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT u.id FROM User u JOIN u.organization o WHERE o.organizationhead = u.username")
+    List<Long> findOrganizationHeadIds();
+
+    @Query("SELECT COUNT(u) > 0 FROM User u JOIN u.organization o WHERE u.id = :userId AND o.organizationhead = u.username")
+    boolean isOrganizationHead(@Param("userId") Long userId);
+
+    @Query("SELECT u.id, u.username, o.id FROM User u LEFT JOIN u.organization o WHERE u.username = :username")
+    List<Object[]> findIdentityByUsername(@Param("username") String username);
+}
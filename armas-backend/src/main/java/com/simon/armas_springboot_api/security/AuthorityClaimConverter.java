@@ -0,0 +1,122 @@
+package com.simon.armas_springboot_api.security;
+
+import com.simon.armas_springboot_api.security.models.UserContext;
+import com.simon.armas_springboot_api.security.services.AuthorityDictionary;
+import com.simon.armas_springboot_api.security.services.UserContextService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Turns the token's "auth" bitset into authorities. Tokens with the same claims share one
+ * immutable set, so most requests allocate nothing here. Tokens minted under an older
+ * dictionary version fall back to the user's current authorities from UserContextService,
+ * and tokens without the claim are read from the plain "scope" list.
+ */
+@Component
+public class AuthorityClaimConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+    private static final Logger log = LoggerFactory.getLogger(AuthorityClaimConverter.class);
+
+    public static final String AUTHORITIES_CLAIM = "auth";
+    public static final String VERSION_CLAIM = "authv";
+    public static final String SCOPE_CLAIM = "scope";
+
+    private final AuthorityDictionary authorityDictionary;
+    private final UserContextService userContextService;
+    private final Map<String, Set<GrantedAuthority>> interned = new ConcurrentHashMap<>();
+    private final int maxInterned;
+    // Dictionary version the interned bitset entries were decoded under
+    private volatile String internedVersion;
+
+    public AuthorityClaimConverter(AuthorityDictionary authorityDictionary,
+                                   UserContextService userContextService,
+                                   @Value("${armas.security.authority-dictionary.max-interned:1024}") int maxInterned) {
+        this.authorityDictionary = authorityDictionary;
+        this.userContextService = userContextService;
+        this.maxInterned = maxInterned;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        String bits = jwt.getClaimAsString(AUTHORITIES_CLAIM);
+        String version = jwt.getClaimAsString(VERSION_CLAIM);
+        String scope = jwt.getClaimAsString(SCOPE_CLAIM);
+        if (bits == null || version == null) {
+            return intern("scope|" + scope, () -> fromScope(new ArrayList<>(), scope));
+        }
+
+        // Checked before the interned lookup: an entry decoded under an older dictionary must not be served
+        String currentVersion = authorityDictionary.version();
+        if (!currentVersion.equals(version)) {
+            return stale(jwt, version);
+        }
+        if (!currentVersion.equals(internedVersion)) {
+            interned.clear();
+            internedVersion = currentVersion;
+        }
+
+        String key = version + "|" + bits + "|" + (scope != null ? scope : "");
+        Set<GrantedAuthority> cached = interned.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<GrantedAuthority> decoded = authorityDictionary.decode(bits, version);
+        if (decoded == null) {
+            // The dictionary changed between the version check and the decode
+            return stale(jwt, version);
+        }
+        return intern(key, () -> fromScope(decoded, scope));
+    }
+
+    // Dictionary changed since the token was issued; its bit positions no longer apply
+    private Collection<GrantedAuthority> stale(Jwt jwt, String version) {
+        log.debug("Token for {} uses authority dictionary {}, resolving from the database", jwt.getSubject(), version);
+        return fromContext(jwt);
+    }
+
+    private Collection<GrantedAuthority> fromContext(Jwt jwt) {
+        UserContext context = userContextService.resolve(jwt);
+        if (context == null) {
+            return Set.of();
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        context.roles().forEach(role -> authorities.add(new SimpleGrantedAuthority("ROLE_" + role)));
+        context.privileges().forEach(privilege -> authorities.add(new SimpleGrantedAuthority(privilege)));
+        return Set.copyOf(authorities);
+    }
+
+    private Set<GrantedAuthority> intern(String key, Supplier<List<GrantedAuthority>> builder) {
+        Set<GrantedAuthority> cached = interned.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (interned.size() >= maxInterned) {
+            interned.clear();
+        }
+        Set<GrantedAuthority> authorities = Set.copyOf(builder.get());
+        Set<GrantedAuthority> previous = interned.putIfAbsent(key, authorities);
+        return previous != null ? previous : authorities;
+    }
+
+    private static List<GrantedAuthority> fromScope(List<GrantedAuthority> authorities, String scope) {
+        if (scope != null && !scope.isBlank()) {
+            for (String authority : scope.trim().split("\\s+")) {
+                authorities.add(new SimpleGrantedAuthority(authority));
+            }
+        }
+        return authorities;
+    }
+}
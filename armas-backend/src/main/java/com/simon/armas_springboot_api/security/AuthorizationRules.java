@@ -0,0 +1,59 @@
+package com.simon.armas_springboot_api.security;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Who may call which endpoint. This table is the single place request-level role checks
+ * live; the first matching rule wins, and anything not listed requires authentication.
+ */
+public final class AuthorizationRules {
+
+    private AuthorizationRules() {
+    }
+
+    public static RequestAuthorizationManager requestAuthorizationManager() {
+        return RequestAuthorizationManager.builder()
+            .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+            .requestMatchers("/register", "/login", "/token/refresh").permitAll()
+            .requestMatchers(HttpMethod.POST, "/users").permitAll()
+            .requestMatchers(HttpMethod.GET, "/users").permitAll()
+            .requestMatchers("/roles/**").permitAll()
+            .requestMatchers("/organizations/**").hasAnyRole("ADMIN", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/directorates/**").hasRole("ADMIN")
+            .requestMatchers("/documents/**").hasRole("ADMIN")
+            .requestMatchers("/budgetyears/**").hasRole("ADMIN")
+            .requestMatchers("/budget-years/**").hasAnyRole("ADMIN", "USER", "ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/master-transactions/**").hasRole("ADMIN")
+            .requestMatchers("/userPrivilegeAssignments/**").hasRole("ADMIN")
+            .requestMatchers("/buttons/forms/**").hasRole("USER")
+            .requestMatchers("/buttons/charts/**").hasRole("USER")
+            .requestMatchers("/transactions/upload", "/transactions/upload/bulk").hasRole("USER")
+            .requestMatchers("/transactions/upload/sessions/**").hasRole("USER")
+            .requestMatchers("/transactions/upload-letter/**").hasRole("ARCHIVER")
+            .requestMatchers("/transactions/my-reports").hasRole("USER")
+            .requestMatchers("/transactions/sent-reports").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/transactions/listdocuments").hasAnyRole("ADMIN", "USER", "ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/transactions/users-by-role/**").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/transactions/assign/**").hasRole("ARCHIVER")
+            .requestMatchers(HttpMethod.POST, "/transactions/auto-assign/rebalance").hasAnyRole("ARCHIVER", "ADMIN")
+            .requestMatchers("/transactions/submit-findings/**").hasRole("SENIOR_AUDITOR")
+            .requestMatchers("/transactions/approve/**").hasRole("APPROVER")
+            .requestMatchers("/transactions/reject/**").hasRole("APPROVER")
+            .requestMatchers("/transactions/file-history/**").hasRole("USER")
+            .requestMatchers("/transactions/auditor-tasks/**").hasAnyRole("SENIOR_AUDITOR", "APPROVER", "ADMIN", "ARCHIVER", "USER")
+            .requestMatchers("/transactions/tasks", "/transactions/rejected-reports").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/transactions/letters").hasAuthority("VIEW_LETTERS")
+            .requestMatchers("/transactions/approved-reports").hasAnyRole("APPROVER", "ARCHIVER", "SENIOR_AUDITOR")
+            .requestMatchers("/transactions/under-review-reports", "/transactions/corrected-reports",
+                    "/transactions/report-non-senders", "/transactions/reports-by-org", "/transactions/organizations-with-reports",
+                    "/transactions/feedback-non-senders", "/transactions/feedback-senders").hasAnyRole("APPROVER", "SENIOR_AUDITOR")
+            .requestMatchers("/transactions/download/**").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER", "USER", "MANAGER")
+            .requestMatchers("/transactions/dashboard-stats").hasAnyRole("USER", "ADMIN", "SENIOR_AUDITOR", "APPROVER", "ARCHIVER", "MANAGER")
+            .requestMatchers(HttpMethod.GET, "/transactions/budget-years").hasAnyRole("USER", "ADMIN", "SENIOR_AUDITOR", "APPROVER", "ARCHIVER", "MANAGER")
+            .requestMatchers(HttpMethod.POST, "/transactions/budget-years").hasRole("ADMIN")
+            .requestMatchers(HttpMethod.POST, "/transactions/compliance-matrix/rebuild").hasRole("ADMIN")
+            .requestMatchers("/transactions/notifications/**").authenticated()
+            .requestMatchers("/users/change-password").hasAnyRole("USER", "ADMIN", "SENIOR_AUDITOR", "APPROVER", "ARCHIVER")
+            .build();
+    }
+}
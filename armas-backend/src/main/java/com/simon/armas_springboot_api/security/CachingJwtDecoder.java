@@ -0,0 +1,92 @@
+package com.simon.armas_springboot_api.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers tokens that already passed signature and claim validation, so the parallel
+ * requests a page makes with one bearer token pay for RSA verification once. Entries are
+ * keyed by a SHA-256 of the token and kept until the token expires or the TTL runs out,
+ * whichever is first. Rejected tokens are never cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    private static final Logger log = LoggerFactory.getLogger(CachingJwtDecoder.class);
+
+    private final JwtDecoder delegate;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<String, CachedJwt> cache = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public CachingJwtDecoder(JwtDecoder delegate, Duration ttl, int maxEntries, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("armas.jwt.decode.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("armas.jwt.decode.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("armas.jwt.decode.cache.size", cache, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Instant now = Instant.now();
+        CachedJwt cached = cache.get(key);
+        if (cached != null) {
+            if (cached.validUntil.isAfter(now)) {
+                hits.increment();
+                return cached.jwt;
+            }
+            cache.remove(key, cached);
+        }
+        misses.increment();
+        Jwt jwt = delegate.decode(token);
+
+        Instant validUntil = now.plus(ttl);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(validUntil)) {
+            validUntil = jwt.getExpiresAt();
+        }
+        if (cache.size() >= maxEntries) {
+            evictExpired();
+            if (cache.size() >= maxEntries) {
+                log.warn("JWT decode cache reached {} entries, clearing", maxEntries);
+                cache.clear();
+            }
+        }
+        cache.put(key, new CachedJwt(jwt, validUntil));
+        return jwt;
+    }
+
+    public void evictExpired() {
+        Instant now = Instant.now();
+        cache.values().removeIf(cached -> !cached.validUntil.isAfter(now));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedJwt(Jwt jwt, Instant validUntil) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.simon.armas_springboot_api.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Request authorization from a rule table compiled into a path trie. A request walks the
+ * trie once, segment by segment, and the first declared rule matching its method and path
+ * wins, which is the same outcome as an ordered requestMatchers chain without testing every
+ * pattern in turn. Patterns are literal paths, optionally ending in "/**" to cover the path
+ * and everything below it. Requests matching no rule must be authenticated.
+ */
+public final class RequestAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    private static final AuthenticationTrustResolver TRUST_RESOLVER = new AuthenticationTrustResolverImpl();
+    private static final Access AUTHENTICATED = new Access(false, Set.of());
+    private static final Rule FALLBACK = new Rule(Integer.MAX_VALUE, null, "/**", AUTHENTICATED);
+
+    private final List<Rule> rules;
+    private final Node root = new Node();
+
+    private RequestAuthorizationManager(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+        for (Rule rule : this.rules) {
+            Node node = root;
+            boolean subtree = rule.pattern.endsWith("/**");
+            String path = subtree ? rule.pattern.substring(0, rule.pattern.length() - 3) : rule.pattern;
+            for (String segment : segments(path)) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+            // Rules are added in declaration order, so each list stays sorted by precedence
+            (subtree ? node.subtree : node.exact).add(rule);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        HttpServletRequest request = context.getRequest();
+        Rule rule = match(request.getMethod(), UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+        return rule.access.allows(authentication) ? GRANTED : DENIED;
+    }
+
+    /** The rule deciding a request, or the authenticated fallback when none matches. */
+    public Rule match(String method, String path) {
+        Rule best = first(root.subtree, method, null);
+        Node node = root;
+        int length = path.length();
+        int start = 0;
+        while (start < length) {
+            if (path.charAt(start) == '/') {
+                start++;
+                continue;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                return best != null ? best : FALLBACK;
+            }
+            best = first(node.subtree, method, best);
+            start = end;
+        }
+        best = first(node.exact, method, best);
+        return best != null ? best : FALLBACK;
+    }
+
+    /** The rules in declaration order. */
+    public List<Rule> rules() {
+        return rules;
+    }
+
+    private static Rule first(List<Rule> candidates, String method, Rule best) {
+        for (Rule rule : candidates) {
+            if (best != null && rule.order > best.order) {
+                return best;
+            }
+            if (rule.method == null || rule.method.matches(method)) {
+                return rule;
+            }
+        }
+        return best;
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.contains("*") || segment.contains("{")) {
+                throw new IllegalArgumentException("Only literal paths and a trailing /** are supported: " + path);
+            }
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<Rule> exact = new ArrayList<>(1);
+        private final List<Rule> subtree = new ArrayList<>(1);
+    }
+
+    /** A method (null for any) and path pattern with the access it requires. */
+    public record Rule(int order, HttpMethod method, String pattern, Access access) {
+    }
+
+    /** permitAll, or an authenticated user holding any of the authorities (none listed: any user). */
+    public record Access(boolean permitAll, Set<String> authorities) {
+
+        boolean allows(Supplier<Authentication> supplier) {
+            if (permitAll) {
+                return true;
+            }
+            Authentication authentication = supplier.get();
+            if (authentication == null || !authentication.isAuthenticated() || TRUST_RESOLVER.isAnonymous(authentication)) {
+                return false;
+            }
+            if (authorities.isEmpty()) {
+                return true;
+            }
+            for (GrantedAuthority granted : authentication.getAuthorities()) {
+                if (authorities.contains(granted.getAuthority())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static final class Builder {
+        private final List<Rule> rules = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public RuleBuilder requestMatchers(String... patterns) {
+            return new RuleBuilder(this, null, patterns);
+        }
+
+        public RuleBuilder requestMatchers(HttpMethod method, String... patterns) {
+            return new RuleBuilder(this, method, patterns);
+        }
+
+        public RequestAuthorizationManager build() {
+            return new RequestAuthorizationManager(rules);
+        }
+
+        private Builder add(HttpMethod method, String[] patterns, Access access) {
+            for (String pattern : patterns) {
+                rules.add(new Rule(rules.size(), method, pattern, access));
+            }
+            return this;
+        }
+    }
+
+    public static final class RuleBuilder {
+        private final Builder builder;
+        private final HttpMethod method;
+        private final String[] patterns;
+
+        private RuleBuilder(Builder builder, HttpMethod method, String[] patterns) {
+            this.builder = builder;
+            this.method = method;
+            this.patterns = patterns;
+        }
+
+        public Builder permitAll() {
+            return builder.add(method, patterns, new Access(true, Set.of()));
+        }
+
+        public Builder authenticated() {
+            return builder.add(method, patterns, AUTHENTICATED);
+        }
+
+        public Builder hasRole(String role) {
+            return hasAnyRole(role);
+        }
+
+        public Builder hasAnyRole(String... roles) {
+            Set<String> authorities = new LinkedHashSet<>();
+            Arrays.stream(roles).forEach(role -> authorities.add("ROLE_" + role));
+            return builder.add(method, patterns, new Access(false, Collections.unmodifiableSet(authorities)));
+        }
+
+        public Builder hasAuthority(String authority) {
+            return builder.add(method, patterns, new Access(false, Set.of(authority)));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.simon.armas_springboot_api.security;
 
 import com.simon.armas_springboot_api.security.RsaKeyProperties;
+import com.simon.armas_springboot_api.security.services.TokenRevocationService;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
@@ -8,15 +9,17 @@ import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
@@ -27,12 +30,13 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -49,6 +53,9 @@ public class SecurityConfig {
     private final RsaKeyProperties properties;
     private final UserDetailsService userDetailsService;
     private static final Logger log = Logger.getLogger(SecurityConfig.class.getName());
+    // Work factor for new hashes; existing hashes are upgraded on the next successful login
+    @Value("${armas.security.bcrypt.strength:10}")
+    private int bcryptStrength;
     @Autowired
     public SecurityConfig(RsaKeyProperties properties, UserDetailsService userDetailsService) {
         this.properties = properties;
@@ -56,45 +63,16 @@ public class SecurityConfig {
     }
 
     @Bean
-public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity,
+                                               JwtAuthenticationConverter jwtAuthenticationConverter,
+                                               RequestAuthorizationManager requestAuthorizationManager) throws Exception {
     return httpSecurity
         .cors(cors -> cors.configurationSource(corsConfigurationSource()))
         .csrf(csrf -> csrf.disable())
-        .authorizeHttpRequests(auth -> auth
-            .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-            .requestMatchers("/register", "/login").permitAll()
-            .requestMatchers(HttpMethod.POST, "/users").permitAll()
-            .requestMatchers(HttpMethod.GET, "/users").permitAll()
-            .requestMatchers("/roles/**").permitAll()
-            .requestMatchers("/organizations/**").hasAnyRole("ADMIN", "SENIOR_AUDITOR", "APPROVER")
-            .requestMatchers("/directorates/**").hasRole("ADMIN")
-            .requestMatchers("/documents/**").hasRole("ADMIN")
-            .requestMatchers("/budgetyears/**").hasRole("ADMIN")
-            .requestMatchers("/budget-years/**").hasAnyRole("ADMIN", "USER", "ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
-            .requestMatchers("/master-transactions/**").hasRole("ADMIN")
-            .requestMatchers("/userPrivilegeAssignments/**").hasRole("ADMIN")
-            .requestMatchers("/buttons/forms/**").hasRole("USER")
-            .requestMatchers("/buttons/charts/**").hasRole("USER")
-            .requestMatchers("/transactions/upload").hasAnyRole("USER", "ADMIN")
-            .requestMatchers("/transactions/sent-reports").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
-            .requestMatchers("/transactions/listdocuments").hasAnyRole("ADMIN", "USER", "ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
-            .requestMatchers("/transactions/users-by-role/**").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
-            .requestMatchers("/transactions/assign/**").hasRole("ARCHIVER")
-            .requestMatchers("/transactions/submit-findings/**").hasRole("SENIOR_AUDITOR")
-            .requestMatchers("/transactions/approve/**").hasRole("APPROVER")
-            .requestMatchers("/transactions/reject/**").hasRole("APPROVER")
-            .requestMatchers("/transactions/file-history/**").hasRole("USER")
-            .requestMatchers("/transactions/auditor-tasks/**").hasAnyRole("SENIOR_AUDITOR", "APPROVER", "ADMIN", "ARCHIVER", "USER")
-            .requestMatchers("/transactions/tasks").permitAll()
-            .requestMatchers("/transactions/letters").hasAuthority("VIEW_LETTERS")
-            .requestMatchers("/transactions/approved-reports").hasAnyRole("APPROVER", "ARCHIVER", "SENIOR_AUDITOR")
-            .requestMatchers("/transactions/download/**").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER", "USER", "MANAGER")
-            .requestMatchers("/transactions/dashboard-stats").hasAnyRole("USER", "ADMIN", "SENIOR_AUDITOR", "APPROVER", "ARCHIVER","MANAGER") 
-            .requestMatchers("/users/change-password").hasAnyRole("USER", "ADMIN", "SENIOR_AUDITOR", "APPROVER", "ARCHIVER")
-            .anyRequest().authenticated()
-        )
+        // One trie lookup per request instead of walking an ordered matcher chain
+        .authorizeHttpRequests(auth -> auth.anyRequest().access(requestAuthorizationManager))
         .oauth2ResourceServer(oauth2 -> oauth2
-            .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))
+            .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter))
             .authenticationEntryPoint((request, response, authException) -> {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
             })
@@ -108,6 +86,11 @@ public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws
         )
         .build();
 }
+    @Bean
+    public RequestAuthorizationManager requestAuthorizationManager() {
+        return AuthorizationRules.requestAuthorizationManager();
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -122,18 +105,28 @@ public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws
     }
 
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        grantedAuthoritiesConverter.setAuthoritiesClaimName("scope");
-        grantedAuthoritiesConverter.setAuthorityPrefix("");
+    public JwtAuthenticationConverter jwtAuthenticationConverter(AuthorityClaimConverter authorityClaimConverter) {
+        // Authorities come from the "auth" bitset claim, with "scope" for anything outside the dictionary
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(authorityClaimConverter);
         return jwtAuthenticationConverter;
     }
 
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(properties.publicKey()).build();
+    public JwtDecoder jwtDecoder(MeterRegistry meterRegistry,
+                                 TokenRevocationService tokenRevocationService,
+                                 @Value("${armas.security.jwt-cache.ttl-ms:300000}") long cacheTtlMillis,
+                                 @Value("${armas.security.jwt-cache.max-entries:10000}") int cacheMaxEntries) {
+        JwtDecoder nimbusDecoder = NimbusJwtDecoder.withPublicKey(properties.publicKey()).build();
+        JwtDecoder cachingDecoder = new CachingJwtDecoder(nimbusDecoder, Duration.ofMillis(cacheTtlMillis), cacheMaxEntries, meterRegistry);
+        // Revocation is checked on every request, including cache hits, against the in-memory set
+        return token -> {
+            Jwt jwt = cachingDecoder.decode(token);
+            if (tokenRevocationService.isRevoked(jwt)) {
+                throw new BadJwtException("Token has been revoked");
+            }
+            return jwt;
+        };
     }
 
     @Bean
@@ -145,7 +138,7 @@ public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws
 
     @Bean
     public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -0,0 +1,46 @@
+package com.simon.armas_springboot_api.security;
+
+import com.simon.armas_springboot_api.security.models.UserContext;
+import com.simon.armas_springboot_api.security.services.UserContextService;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Supplies a UserContext controller argument for JWT-authenticated requests.
+ */
+@Component
+public class UserContextArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final UserContextService userContextService;
+
+    public UserContextArgumentResolver(UserContextService userContextService) {
+        this.userContextService = userContextService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return UserContext.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Jwt jwt)) {
+            throw new AccessDeniedException("No authenticated user");
+        }
+        UserContext context = userContextService.resolve(jwt);
+        if (context == null) {
+            throw new AccessDeniedException("User not found: " + jwt.getSubject());
+        }
+        return context;
+    }
+}
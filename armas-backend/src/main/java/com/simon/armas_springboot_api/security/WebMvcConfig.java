@@ -0,0 +1,22 @@
+package com.simon.armas_springboot_api.security;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final UserContextArgumentResolver userContextArgumentResolver;
+
+    public WebMvcConfig(UserContextArgumentResolver userContextArgumentResolver) {
+        this.userContextArgumentResolver = userContextArgumentResolver;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(userContextArgumentResolver);
+    }
+}
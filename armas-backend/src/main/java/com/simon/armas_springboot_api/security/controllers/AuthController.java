@@ -1,28 +1,23 @@
 package com.simon.armas_springboot_api.security.controllers;
 
-import com.simon.armas_springboot_api.models.User;
-import com.simon.armas_springboot_api.security.models.UserPrincipal;
-import com.simon.armas_springboot_api.security.services.AuthenticationService;
 import com.simon.armas_springboot_api.security.models.LoginRequest;
-import com.simon.armas_springboot_api.security.models.Role;
-import com.simon.armas_springboot_api.security.services.TokenService;
-import com.simon.armas_springboot_api.security.services.UserPrivilegeAssignmentService;
-import com.simon.armas_springboot_api.services.UserService;
-import jakarta.servlet.http.HttpSession;
+import com.simon.armas_springboot_api.security.services.LoginService;
+import com.simon.armas_springboot_api.security.services.RefreshTokenService;
+import com.simon.armas_springboot_api.security.services.TokenRevocationService;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
@@ -30,77 +25,83 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class AuthController {
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
-    private final UserService userService;
-    private final UserPrivilegeAssignmentService userPrivilegeAssignmentService;
-    private final TokenService tokenService;
-    private final AuthenticationService authenticationService;
+    private final LoginService loginService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public AuthController(UserService userService, UserPrivilegeAssignmentService userPrivilegeAssignmentService,
-                          TokenService tokenService, AuthenticationService authenticationService) {
-        this.userService = userService;
-        this.userPrivilegeAssignmentService = userPrivilegeAssignmentService;
-        this.tokenService = tokenService;
-        this.authenticationService = authenticationService;
+    public AuthController(LoginService loginService, RefreshTokenService refreshTokenService,
+                          TokenRevocationService tokenRevocationService) {
+        this.loginService = loginService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
+    // Async: the servlet thread is released while the password check waits for a BCrypt thread
     @PostMapping("/login") // Changed from "/api/v1/login" to "/login"
-    public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> login(@RequestBody LoginRequest loginRequest) {
         log.info("Login attempt for username: {}", loginRequest.getUsername());
-        try {
-            if (loginRequest.getUsername() == null || loginRequest.getPassword() == null) {
-                log.warn("Invalid login request: username or password is null");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of("error", "Username and password are required"));
-            }
-
-            boolean isAuthenticated = authenticationService.authenticate(loginRequest.getUsername(), loginRequest.getPassword());
-            if (!isAuthenticated) {
-                log.warn("Authentication failed for username: {}", loginRequest.getUsername());
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("error", "Invalid username or password"));
-            }
-
-            User user = userService.getUserByUsername(loginRequest.getUsername());
-            if (user == null) {
-                log.error("User not found after authentication: {}", loginRequest.getUsername());
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(Map.of("error", "User not found after authentication"));
-            }
-
-            UserPrincipal principal = new UserPrincipal(userPrivilegeAssignmentService, user);
-            Authentication authentication = new UsernamePasswordAuthenticationToken(
-                    user.getUsername(), null, principal.getAuthorities()
-            );
-
-            String jwtToken = tokenService.generateToken(authentication);
-
-            List<String> roles = user.getRoles().stream()
-                    .map(Role::getDescription)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+        if (loginRequest.getUsername() == null || loginRequest.getPassword() == null) {
+            log.warn("Invalid login request: username or password is null");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Username and password are required")));
+        }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", jwtToken);
-            response.put("id", user.getId());
-            response.put("username", user.getUsername());
-            response.put("roles", roles);
+        return loginService.login(loginRequest.getUsername(), loginRequest.getPassword())
+                .thenApply(result -> {
+                    if (result == null) {
+                        log.warn("Authentication failed for username: {}", loginRequest.getUsername());
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(Map.<String, Object>of("error", "Invalid username or password"));
+                    }
+                    log.info("Login successful for username: {}", loginRequest.getUsername());
+                    return ResponseEntity.ok(tokenResponse(result));
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof RejectedExecutionException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header("Retry-After", "1")
+                                .body(Map.of("error", "Too many login attempts in progress, please retry"));
+                    }
+                    log.error("Unexpected error during login for username: {}", loginRequest.getUsername(), cause);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(Map.of("error", "An error occurred during login: " + cause.getMessage()));
+                });
+    }
 
-            log.info("Login successful for username: {}", loginRequest.getUsername());
-            return ResponseEntity.ok(response);
-        } catch (UsernameNotFoundException e) {
-            log.warn("User not found: {}", loginRequest.getUsername(), e);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Invalid username or password"));
-        } catch (Exception e) {
-            log.error("Unexpected error during login for username: {}", loginRequest.getUsername(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "An error occurred during login: " + e.getMessage()));
+    @PostMapping("/token/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody Map<String, String> request) {
+        String refreshToken = request.get("refreshToken");
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "Refresh token is required"));
+        }
+        LoginService.LoginResult result = loginService.refresh(refreshToken);
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid or expired refresh token"));
         }
+        return ResponseEntity.ok(tokenResponse(result));
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<String> logout() {
-        log.info("User logged out");
+    public ResponseEntity<String> logout(@AuthenticationPrincipal Jwt jwt,
+                                         @RequestBody(required = false) Map<String, String> request) {
+        if (jwt != null) {
+            tokenRevocationService.revoke(jwt);
+        }
+        if (request != null && request.get("refreshToken") != null) {
+            refreshTokenService.revoke(request.get("refreshToken"));
+        }
+        log.info("User logged out: {}", jwt != null ? jwt.getSubject() : null);
         return ResponseEntity.ok("Logout successful");
     }
+
+    private static Map<String, Object> tokenResponse(LoginService.LoginResult result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", result.token());
+        response.put("refreshToken", result.refreshToken());
+        response.put("id", result.context().userId());
+        response.put("username", result.context().username());
+        response.put("roles", new ArrayList<>(result.context().roles()));
+        return response;
+    }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.simon.armas_springboot_api.security.controllers;
 
+import com.simon.armas_springboot_api.dto.UserAssignmentRequest;
 import com.simon.armas_springboot_api.dto.UserDTO;
 import com.simon.armas_springboot_api.security.models.Privilege;
 import com.simon.armas_springboot_api.security.repositories.PrivilegeRepository;
+import com.simon.armas_springboot_api.security.services.BulkAssignmentService;
 import com.simon.armas_springboot_api.security.services.RoleService;
 import com.simon.armas_springboot_api.security.models.Role;
 import com.simon.armas_springboot_api.services.UserService;
@@ -13,6 +15,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/roles")
@@ -22,12 +25,15 @@ public class RoleController {
     private final PrivilegeRepository privilegeRepository;
     private final RoleService roleService;
     private final UserService userService;
+    private final BulkAssignmentService bulkAssignmentService;
 
     @Autowired
-    public RoleController(PrivilegeRepository privilegeRepository, RoleService roleService, UserService userService) {
+    public RoleController(PrivilegeRepository privilegeRepository, RoleService roleService, UserService userService,
+                          BulkAssignmentService bulkAssignmentService) {
         this.privilegeRepository = privilegeRepository;
         this.roleService = roleService;
         this.userService = userService;
+        this.bulkAssignmentService = bulkAssignmentService;
     }
 
     @GetMapping
@@ -64,6 +70,20 @@ public class RoleController {
         return ResponseEntity.ok(updatedUser);
     }
 
+    // Desired state: each listed user ends up with exactly the given role ids
+    // Outside the class-level transaction: a rejected list rolls back only the service's own
+    // transaction, so the 400 below is not turned into an UnexpectedRollbackException on commit
+    @PutMapping("/assignments")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public ResponseEntity<?> replaceUserRoles(@RequestBody List<UserAssignmentRequest> assignments) {
+        try {
+            return ResponseEntity.ok(bulkAssignmentService.replaceUserRoles(assignments));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{roleId}/unassign/user/{userId}")
     @PreAuthorize("hasRole('ADMIN')") // Changed from hasAuthority
     public ResponseEntity<UserDTO> unAssignUserRole(@PathVariable("roleId") Long roleId, @PathVariable("userId") Long userId) {
@@ -1,8 +1,12 @@
 package com.simon.armas_springboot_api.security.controllers;
 
+import com.simon.armas_springboot_api.dto.EffectivePermissionsDTO;
+import com.simon.armas_springboot_api.dto.UserAssignmentRequest;
 import com.simon.armas_springboot_api.models.User;
 import com.simon.armas_springboot_api.security.models.Privilege;
 import com.simon.armas_springboot_api.security.models.UserPrivilegeAssignment;
+import com.simon.armas_springboot_api.security.services.BulkAssignmentService;
+import com.simon.armas_springboot_api.security.services.EffectivePermissionService;
 import com.simon.armas_springboot_api.security.services.UserPrivilegeAssignmentService;
 import com.simon.armas_springboot_api.services.UserService;
 import jakarta.transaction.Transactional;
@@ -14,6 +18,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @Transactional
@@ -21,12 +26,29 @@ public class UserPrivilegeAssignmentController {
 
     @Autowired
     private UserPrivilegeAssignmentService userPrivilegeAssignmentService;
+    @Autowired
+    private EffectivePermissionService effectivePermissionService;
+    @Autowired
+    private BulkAssignmentService bulkAssignmentService;
 
     @GetMapping("/userPrivilegeAssignments")
     public List<UserPrivilegeAssignment> parameters(Model model) {
         return userPrivilegeAssignmentService.findAll();
     }
 
+    // Desired state: each listed user ends up with exactly the given privilege ids
+    // Not part of the class-level transaction, for the same reason as RoleController.replaceUserRoles
+    @PutMapping("/userPrivilegeAssignments/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public ResponseEntity<?> replaceUserPrivileges(@RequestBody List<UserAssignmentRequest> assignments) {
+        try {
+            return ResponseEntity.ok(bulkAssignmentService.replaceUserPrivileges(assignments));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/userPrivilegeAssignment/{id}")
     @PreAuthorize("hasAuthority('ADMIN')")
     public UserPrivilegeAssignment getById(@PathVariable Long id) {
@@ -64,6 +86,15 @@ public class UserPrivilegeAssignmentController {
         return userPrivilegeAssignmentService.getUserPrivileges(userid);
     }
 
+    @GetMapping("/user/{userid}/effective-permissions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public EffectivePermissionsDTO getEffectivePermissions(@PathVariable("userid") Long userid) {
+        EffectivePermissionService.Permissions permissions = effectivePermissionService.forUser(userid);
+        return new EffectivePermissionsDTO(userid, permissions.roles().stream().sorted().toList(),
+                permissions.privileges().stream().sorted().toList(),
+                permissions.authorities().stream().sorted().toList());
+    }
+
     @GetMapping("/privilege/{privilegeid}/users")
     @PreAuthorize("hasAuthority('ADMIN')")
     public  List<User> getUsersByPrivilege(@PathVariable("privilegeid") Long privilegeid) {
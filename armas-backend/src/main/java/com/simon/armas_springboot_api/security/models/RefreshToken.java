@@ -0,0 +1,50 @@
+package com.simon.armas_springboot_api.security.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One refresh token, stored as a SHA-256 of its value. Every rotation issues a new row in
+ * the same family; presenting a token that was already rotated revokes the whole family.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_token_expires", columnList = "expires_at")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+}
@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
+@Table(name = "secure_token", indexes = @Index(name = "idx_secure_token_expired", columnList = "expired_at"))
 public class SecureToken {
 
     @Id
@@ -0,0 +1,37 @@
+package com.simon.armas_springboot_api.security.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revoked access token (jti set) or every access token of a user issued before
+ * revokedAt (userId set; username is kept for tokens minted without a uid claim). Rows are
+ * only needed until expiresAt, after which every token they could match has expired on its own.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "token_revocation", indexes = @Index(name = "idx_token_revocation_expires", columnList = "expires_at"))
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private String username;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
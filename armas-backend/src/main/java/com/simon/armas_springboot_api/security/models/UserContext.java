@@ -0,0 +1,23 @@
+package com.simon.armas_springboot_api.security.models;
+
+import java.util.Set;
+
+/**
+ * Identity of the caller resolved once per token and cached by UserContextService.
+ * Controllers take it as a method argument instead of reloading the User entity.
+ */
+public record UserContext(Long userId,
+                          String username,
+                          String organizationId,
+                          Set<Long> roleIds,
+                          Set<String> roles,
+                          Set<String> privileges) {
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    public boolean hasPrivilege(String privilege) {
+        return privileges.contains(privilege);
+    }
+}
@@ -4,6 +4,7 @@ import com.simon.armas_springboot_api.security.models.Privilege;
 import com.simon.armas_springboot_api.security.models.Role;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +13,11 @@ import java.util.List;
 public interface PrivilegeRepository extends JpaRepository<Privilege, Long> {
      List<Privilege> findByRoleId(Long roleId); // Queries role.id
     Privilege findByDescription(String description);
-}
\ No newline at end of file
+
+    @Query("SELECT p.description FROM Privilege p WHERE p.description IS NOT NULL ORDER BY p.id")
+    List<String> findAllDescriptionsOrderById();
+
+    // (roleId, description) for every privilege attached to a role
+    @Query("SELECT p.role.id, p.description FROM Privilege p WHERE p.role IS NOT NULL AND p.description IS NOT NULL")
+    List<Object[]> findAllRoleIdsAndDescriptions();
+}
@@ -3,6 +3,9 @@ package com.simon.armas_springboot_api.security.repositories;
 import com.simon.armas_springboot_api.security.models.Privilege;
 import com.simon.armas_springboot_api.security.models.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -10,5 +13,12 @@ import java.util.List;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Role findByDescription(String description);
-}
\ No newline at end of file
+
+    @Query("SELECT r.description FROM Role r WHERE r.description IS NOT NULL ORDER BY r.id")
+    List<String> findAllDescriptionsOrderById();
+
+    @Query("SELECT r.id, r.description FROM Role r WHERE r.description IS NOT NULL")
+    List<Object[]> findAllIdsAndDescriptions();
+}
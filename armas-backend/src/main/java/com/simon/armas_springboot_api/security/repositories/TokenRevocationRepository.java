@@ -0,0 +1,13 @@
+package com.simon.armas_springboot_api.security.repositories;
+
+import com.simon.armas_springboot_api.security.models.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    List<TokenRevocation> findByExpiresAtAfter(LocalDateTime now);
+}
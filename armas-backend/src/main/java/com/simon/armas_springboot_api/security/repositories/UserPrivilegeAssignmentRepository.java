@@ -2,6 +2,8 @@ package com.simon.armas_springboot_api.security.repositories;
 
 import com.simon.armas_springboot_api.security.models.UserPrivilegeAssignment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +15,10 @@ public interface UserPrivilegeAssignmentRepository extends JpaRepository<UserPri
     public List<UserPrivilegeAssignment> findByUserid(Long userid);
 
     public void deleteByUseridAndPrivilegeId(Long userid, Long privilegeid);
-}
\ No newline at end of file
+
+    @Query("SELECT p.description FROM UserPrivilegeAssignment a JOIN a.privilege p WHERE a.userid = :userid")
+    List<String> findPrivilegeDescriptionsByUserid(@Param("userid") Long userid);
+
+    @Query("SELECT a.userid, p.description FROM UserPrivilegeAssignment a JOIN a.privilege p WHERE p.description IS NOT NULL")
+    List<Object[]> findAllUseridsAndPrivilegeDescriptions();
+}
@@ -0,0 +1,145 @@
+package com.simon.armas_springboot_api.security.services;
+
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
+import com.simon.armas_springboot_api.security.repositories.PrivilegeRepository;
+import com.simon.armas_springboot_api.security.repositories.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Numbers every known authority (ROLE_ plus each role description, then each privilege
+ * description, then VIEW_ORG_REPORTS) so a token can carry its authorities as a bitset.
+ * The version is a checksum of the ordered entries, so every node that sees the same
+ * roles and privileges agrees on it; a token minted under another version is resolved
+ * from the database instead of its bits.
+ */
+@Service
+public class AuthorityDictionary {
+    private static final Logger log = LoggerFactory.getLogger(AuthorityDictionary.class);
+
+    private final RoleRepository roleRepository;
+    private final PrivilegeRepository privilegeRepository;
+    private volatile Snapshot snapshot;
+
+    public AuthorityDictionary(RoleRepository roleRepository, PrivilegeRepository privilegeRepository) {
+        this.roleRepository = roleRepository;
+        this.privilegeRepository = privilegeRepository;
+    }
+
+    /**
+     * Splits authorities into a bitset over the current dictionary and the ones it does not
+     * know yet (e.g. a role created since the last reload), which travel as plain strings.
+     */
+    public EncodedAuthorities encode(Collection<String> authorities) {
+        Snapshot current = current();
+        BitSet bits = new BitSet(current.authorities.size());
+        List<String> unknown = new ArrayList<>();
+        for (String authority : authorities) {
+            Integer index = current.index.get(authority);
+            if (index != null) {
+                bits.set(index);
+            } else {
+                unknown.add(authority);
+            }
+        }
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+        return new EncodedAuthorities(encoded, current.version, unknown);
+    }
+
+    /**
+     * Returns the authorities set in the bitset, or null if it was encoded under another version.
+     */
+    public List<GrantedAuthority> decode(String encoded, String version) {
+        Snapshot current = current();
+        if (!current.version.equals(version)) {
+            return null;
+        }
+        BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+        List<GrantedAuthority> granted = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            if (i >= current.authorities.size()) {
+                return null;
+            }
+            granted.add(current.authorities.get(i));
+        }
+        return granted;
+    }
+
+    public String version() {
+        return current().version;
+    }
+
+    @Scheduled(fixedDelayString = "${armas.security.authority-dictionary.refresh-ms:600000}")
+    public void refresh() {
+        Snapshot loaded = load();
+        Snapshot previous = snapshot;
+        if (previous == null || !previous.version.equals(loaded.version)) {
+            snapshot = loaded;
+            log.info("Authority dictionary version {} with {} entries", loaded.version, loaded.authorities.size());
+        }
+    }
+
+    // Role and privilege edits may add, rename or remove entries; per-user changes never do
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAuthorityChanged(UserAuthorityChangedEvent event) {
+        if (event.getUserId() == null) {
+            refresh();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        Set<String> entries = new LinkedHashSet<>();
+        roleRepository.findAllDescriptionsOrderById().forEach(role -> entries.add("ROLE_" + role));
+        entries.addAll(privilegeRepository.findAllDescriptionsOrderById());
+        // Granted dynamically to organization heads, so it may not exist as a privilege row
+        entries.add("VIEW_ORG_REPORTS");
+
+        CRC32 checksum = new CRC32();
+        List<GrantedAuthority> authorities = new ArrayList<>(entries.size());
+        Map<String, Integer> index = new HashMap<>();
+        for (String entry : entries) {
+            checksum.update(entry.getBytes(StandardCharsets.UTF_8));
+            checksum.update('\n');
+            index.put(entry, authorities.size());
+            authorities.add(new SimpleGrantedAuthority(entry));
+        }
+        return new Snapshot(Long.toHexString(checksum.getValue()), List.copyOf(authorities), Map.copyOf(index));
+    }
+
+    public record EncodedAuthorities(String bits, String version, List<String> unknown) {
+    }
+
+    private record Snapshot(String version, List<GrantedAuthority> authorities, Map<String, Integer> index) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.simon.armas_springboot_api.security.services;
+
+import com.simon.armas_springboot_api.dto.BulkAssignmentResultDTO;
+import com.simon.armas_springboot_api.dto.UserAssignmentRequest;
+import com.simon.armas_springboot_api.events.SessionsRevokedEvent;
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Desired-state role and privilege assignment for many users at once. The requested pairs
+ * are loaded into connection-scoped temporary tables, the difference against the live
+ * assignment table is computed by the database, and it is applied with one DELETE and one
+ * INSERT ... SELECT, all in a single transaction.
+ */
+@Service
+public class BulkAssignmentService {
+    private static final Logger log = LoggerFactory.getLogger(BulkAssignmentService.class);
+
+    // Beyond this many changed users one global event is cheaper than per-user refreshes
+    private static final int PER_USER_EVENT_LIMIT = 100;
+
+    private static final Target USER_ROLES = new Target("user_roles", "user_id", "role_id", "role");
+    private static final Target USER_PRIVILEGES = new Target("user_privilege_assignment", "userid", "privilegeid", "privilege");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxUsers;
+
+    public BulkAssignmentService(JdbcTemplate jdbcTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${armas.security.bulk-assignment.max-users:5000}") int maxUsers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxUsers = maxUsers;
+    }
+
+    @Transactional
+    public BulkAssignmentResultDTO replaceUserRoles(List<UserAssignmentRequest> requests) {
+        return apply(USER_ROLES, requests, true);
+    }
+
+    @Transactional
+    public BulkAssignmentResultDTO replaceUserPrivileges(List<UserAssignmentRequest> requests) {
+        return apply(USER_PRIVILEGES, requests, false);
+    }
+
+    private BulkAssignmentResultDTO apply(Target target, List<UserAssignmentRequest> requests, boolean revokeOnRemoval) {
+        Map<Long, Set<Long>> desired = normalize(requests);
+        dropTemporaryTables();
+        try {
+            jdbcTemplate.execute("CREATE TEMPORARY TABLE tmp_bulk_scope (user_id BIGINT NOT NULL PRIMARY KEY)");
+            jdbcTemplate.execute("CREATE TEMPORARY TABLE tmp_bulk_desired (user_id BIGINT NOT NULL, target_id BIGINT NOT NULL, "
+                    + "PRIMARY KEY (user_id, target_id))");
+
+            List<Object[]> scopeRows = new ArrayList<>(desired.size());
+            List<Object[]> desiredRows = new ArrayList<>();
+            desired.forEach((userId, ids) -> {
+                scopeRows.add(new Object[] { userId });
+                ids.forEach(id -> desiredRows.add(new Object[] { userId, id }));
+            });
+            jdbcTemplate.batchUpdate("INSERT INTO tmp_bulk_scope (user_id) VALUES (?)", scopeRows);
+            jdbcTemplate.batchUpdate("INSERT INTO tmp_bulk_desired (user_id, target_id) VALUES (?, ?)", desiredRows);
+
+            rejectUnknown("SELECT s.user_id FROM tmp_bulk_scope s LEFT JOIN `user` u ON u.id = s.user_id "
+                    + "WHERE u.id IS NULL LIMIT 10", "Unknown user ids: ");
+            rejectUnknown("SELECT DISTINCT d.target_id FROM tmp_bulk_desired d LEFT JOIN " + target.referenceTable
+                    + " r ON r.id = d.target_id WHERE r.id IS NULL LIMIT 10", "Unknown " + target.referenceTable + " ids: ");
+
+            String stale = " FROM " + target.table + " a JOIN tmp_bulk_scope s ON s.user_id = a." + target.userColumn
+                    + " LEFT JOIN tmp_bulk_desired d ON d.user_id = a." + target.userColumn
+                    + " AND d.target_id = a." + target.idColumn + " WHERE d.user_id IS NULL";
+            String missing = " FROM tmp_bulk_desired d LEFT JOIN " + target.table + " a ON a." + target.userColumn
+                    + " = d.user_id AND a." + target.idColumn + " = d.target_id WHERE a." + target.userColumn + " IS NULL";
+
+            Set<Long> losing = new LinkedHashSet<>(jdbcTemplate.queryForList("SELECT DISTINCT a." + target.userColumn + stale, Long.class));
+            Set<Long> changed = new LinkedHashSet<>(losing);
+            changed.addAll(jdbcTemplate.queryForList("SELECT DISTINCT d.user_id" + missing, Long.class));
+
+            int removed = jdbcTemplate.update("DELETE a" + stale);
+            int added = jdbcTemplate.update("INSERT INTO " + target.table + " (" + target.userColumn + ", " + target.idColumn + ")"
+                    + " SELECT d.user_id, d.target_id" + missing);
+
+            publish(changed, revokeOnRemoval ? losing : Set.of());
+            log.info("Bulk {} update for {} users: {} added, {} removed", target.table, desired.size(), added, removed);
+            return new BulkAssignmentResultDTO(desired.size(), added, removed);
+        } finally {
+            dropTemporaryTables();
+        }
+    }
+
+    private Map<Long, Set<Long>> normalize(List<UserAssignmentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("No assignments provided");
+        }
+        Map<Long, Set<Long>> desired = new LinkedHashMap<>();
+        for (UserAssignmentRequest request : requests) {
+            if (request.getUserId() == null) {
+                throw new IllegalArgumentException("Every entry needs a userId");
+            }
+            Set<Long> ids = desired.computeIfAbsent(request.getUserId(), id -> new LinkedHashSet<>());
+            if (request.getIds() != null) {
+                request.getIds().stream().filter(Objects::nonNull).forEach(ids::add);
+            }
+        }
+        if (desired.size() > maxUsers) {
+            throw new IllegalArgumentException("At most " + maxUsers + " users can be updated at once");
+        }
+        return desired;
+    }
+
+    private void rejectUnknown(String sql, String message) {
+        List<Long> unknown = jdbcTemplate.queryForList(sql, Long.class);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException(message + unknown);
+        }
+    }
+
+    private void publish(Set<Long> changed, Set<Long> losing) {
+        if (changed.size() > PER_USER_EVENT_LIMIT) {
+            eventPublisher.publishEvent(UserAuthorityChangedEvent.forAll());
+        } else {
+            changed.forEach(userId -> eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(userId)));
+        }
+        if (!losing.isEmpty()) {
+            Map<Long, String> usernames = new HashMap<>();
+            jdbcTemplate.query("SELECT u.id, u.username FROM `user` u JOIN tmp_bulk_scope s ON s.user_id = u.id",
+                    rs -> { usernames.put(rs.getLong(1), rs.getString(2)); });
+            losing.forEach(userId -> eventPublisher.publishEvent(
+                    new SessionsRevokedEvent(userId, usernames.get(userId), "role removed")));
+        }
+    }
+
+    private void dropTemporaryTables() {
+        // Temporary tables outlive a rollback on a pooled connection, so clear leftovers too
+        jdbcTemplate.execute("DROP TEMPORARY TABLE IF EXISTS tmp_bulk_scope, tmp_bulk_desired");
+    }
+
+    private record Target(String table, String userColumn, String idColumn, String referenceTable) {
+    }
+}
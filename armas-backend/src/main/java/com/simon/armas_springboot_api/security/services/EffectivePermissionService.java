@@ -0,0 +1,223 @@
+package com.simon.armas_springboot_api.security.services;
+
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
+import com.simon.armas_springboot_api.repositories.UserRepository;
+import com.simon.armas_springboot_api.security.repositories.PrivilegeRepository;
+import com.simon.armas_springboot_api.security.repositories.RoleRepository;
+import com.simon.armas_springboot_api.security.repositories.UserPrivilegeAssignmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Materialized user -> authorities index. Built from four table scans on first use, then
+ * kept current from UserAuthorityChangedEvent: a user change re-reads that user's roles and
+ * grants, a role change re-reads the role table and recomputes only the holders of roles
+ * whose definition changed.
+ * Lookups are a map read plus a set probe.
+ */
+@Service
+public class EffectivePermissionService {
+    private static final Logger log = LoggerFactory.getLogger(EffectivePermissionService.class);
+
+    public static final String ORG_HEAD_PRIVILEGE = "VIEW_ORG_REPORTS";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PrivilegeRepository privilegeRepository;
+    private final UserPrivilegeAssignmentRepository userPrivilegeAssignmentRepository;
+
+    // Guarded by this; read without locking once published through 'permissions'
+    private Map<Long, Role> roles = Map.of();
+    private final Map<Long, Set<Long>> userRoles = new HashMap<>();
+    private final Map<Long, Set<Long>> roleUsers = new HashMap<>();
+    private final Map<Long, Set<String>> userGrants = new HashMap<>();
+    private final Set<Long> organizationHeads = new HashSet<>();
+    private final Map<Long, Permissions> permissions = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public EffectivePermissionService(UserRepository userRepository,
+                                      RoleRepository roleRepository,
+                                      PrivilegeRepository privilegeRepository,
+                                      UserPrivilegeAssignmentRepository userPrivilegeAssignmentRepository) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.privilegeRepository = privilegeRepository;
+        this.userPrivilegeAssignmentRepository = userPrivilegeAssignmentRepository;
+    }
+
+    /** Returns the user's roles and authorities; a user with none gets an empty entry. */
+    public Permissions forUser(Long userId) {
+        ensureLoaded();
+        Permissions cached = permissions.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            // Users created since the last load have no index entry yet
+            if (!userRoles.containsKey(userId) && !userGrants.containsKey(userId)) {
+                reloadUser(userId);
+            }
+            return permissions.computeIfAbsent(userId, this::compute);
+        }
+    }
+
+    public boolean hasAuthority(Long userId, String authority) {
+        return forUser(userId).authorities().contains(authority);
+    }
+
+    // Runs before UserContextService evicts, so contexts rebuilt after the eviction see the new index
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAuthorityChanged(UserAuthorityChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (event.getUserId() != null) {
+                reloadUser(event.getUserId());
+                permissions.put(event.getUserId(), compute(event.getUserId()));
+            } else if (event.getRoleId() != null) {
+                // Moving a privilege between roles changes both, so diff every role definition
+                Map<Long, Role> previous = roles;
+                roles = loadRoles();
+                Set<Long> affected = new HashSet<>(roleUsers.getOrDefault(event.getRoleId(), Set.of()));
+                roleUsers.forEach((roleId, holders) -> {
+                    if (!Objects.equals(previous.get(roleId), roles.get(roleId))) {
+                        affected.addAll(holders);
+                    }
+                });
+                affected.forEach(userId -> permissions.put(userId, compute(userId)));
+            } else {
+                loadAll();
+            }
+        }
+        log.debug("Effective permissions updated for {}", event);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    loadAll();
+                    loaded = true;
+                }
+            }
+        }
+    }
+
+    private void loadAll() {
+        long started = System.currentTimeMillis();
+        roles = loadRoles();
+        userRoles.clear();
+        roleUsers.clear();
+        userGrants.clear();
+        organizationHeads.clear();
+        for (Object[] row : userRepository.findAllUserRoleIds()) {
+            link((Long) row[0], (Long) row[1]);
+        }
+        for (Object[] row : userPrivilegeAssignmentRepository.findAllUseridsAndPrivilegeDescriptions()) {
+            userGrants.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+        organizationHeads.addAll(userRepository.findOrganizationHeadIds());
+        permissions.clear();
+        userRoles.keySet().forEach(userId -> permissions.put(userId, compute(userId)));
+        userGrants.keySet().forEach(userId -> permissions.computeIfAbsent(userId, this::compute));
+        organizationHeads.forEach(userId -> permissions.computeIfAbsent(userId, this::compute));
+        log.info("Loaded effective permissions for {} users in {} ms", permissions.size(), System.currentTimeMillis() - started);
+    }
+
+    private void reloadUser(Long userId) {
+        Set<Long> previous = userRoles.remove(userId);
+        if (previous != null) {
+            previous.forEach(roleId -> {
+                Set<Long> holders = roleUsers.get(roleId);
+                if (holders != null) {
+                    holders.remove(userId);
+                }
+            });
+        }
+        userRepository.findRoleIdsByUserId(userId).forEach(roleId -> link(userId, roleId));
+        List<String> grants = userPrivilegeAssignmentRepository.findPrivilegeDescriptionsByUserid(userId);
+        if (grants.isEmpty()) {
+            userGrants.remove(userId);
+        } else {
+            userGrants.put(userId, new HashSet<>(grants));
+        }
+        if (userRepository.isOrganizationHead(userId)) {
+            organizationHeads.add(userId);
+        } else {
+            organizationHeads.remove(userId);
+        }
+    }
+
+    private Map<Long, Role> loadRoles() {
+        Map<Long, Set<String>> privileges = new HashMap<>();
+        for (Object[] row : privilegeRepository.findAllRoleIdsAndDescriptions()) {
+            privileges.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+        Map<Long, Role> loadedRoles = new HashMap<>();
+        for (Object[] row : roleRepository.findAllIdsAndDescriptions()) {
+            Long roleId = (Long) row[0];
+            loadedRoles.put(roleId, new Role((String) row[1], Set.copyOf(privileges.getOrDefault(roleId, Set.of()))));
+        }
+        return Map.copyOf(loadedRoles);
+    }
+
+    private void link(Long userId, Long roleId) {
+        userRoles.computeIfAbsent(userId, id -> new HashSet<>()).add(roleId);
+        roleUsers.computeIfAbsent(roleId, id -> new HashSet<>()).add(userId);
+    }
+
+    private Permissions compute(Long userId) {
+        Set<Long> roleIds = new HashSet<>();
+        Set<String> roleNames = new HashSet<>();
+        Set<String> privileges = new HashSet<>(userGrants.getOrDefault(userId, Set.of()));
+        for (Long roleId : userRoles.getOrDefault(userId, Set.of())) {
+            Role role = roles.get(roleId);
+            if (role == null) {
+                continue;
+            }
+            roleIds.add(roleId);
+            roleNames.add(role.description);
+            privileges.addAll(role.privileges);
+        }
+        if (organizationHeads.contains(userId)) {
+            privileges.add(ORG_HEAD_PRIVILEGE);
+        }
+        Set<String> authorities = new HashSet<>(privileges);
+        roleNames.forEach(role -> authorities.add("ROLE_" + role));
+        return new Permissions(Set.copyOf(roleIds), Set.copyOf(roleNames), Set.copyOf(privileges), Set.copyOf(authorities));
+    }
+
+    private record Role(String description, Set<String> privileges) {
+    }
+
+    /**
+     * roles are bare descriptions; authorities holds ROLE_-prefixed roles plus privileges,
+     * exactly what ends up in the security context.
+     */
+    public record Permissions(Set<Long> roleIds, Set<String> roles, Set<String> privileges, Set<String> authorities) {
+
+        public List<GrantedAuthority> grantedAuthorities() {
+            List<GrantedAuthority> granted = new ArrayList<>(authorities.size());
+            authorities.stream().filter(Objects::nonNull).forEach(authority -> granted.add(new SimpleGrantedAuthority(authority)));
+            return granted;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.simon.armas_springboot_api.security.services;
+
+import com.simon.armas_springboot_api.models.User;
+import com.simon.armas_springboot_api.repositories.UserRepository;
+import com.simon.armas_springboot_api.security.models.UserContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Password login. The user row is read in one query on the request thread and authorities
+ * come from EffectivePermissionService; BCrypt runs on a small bounded pool so a login storm queues there instead of
+ * occupying every servlet thread. When the configured work factor differs from the one a
+ * stored hash was made with, the password is re-hashed after a successful match.
+ */
+@Service
+public class LoginService {
+    private static final Logger log = LoggerFactory.getLogger(LoginService.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final UserRepository userRepository;
+    private final UserContextService userContextService;
+    private final TokenService tokenService;
+    private final RefreshTokenService refreshTokenService;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor bcryptExecutor;
+    private final int strength;
+    // Compared against for unknown usernames so they cost as much as a wrong password
+    private final String dummyHash;
+    private final Timer queueTimer;
+    private final Timer verifyTimer;
+    private final Counter rejectedCounter;
+    private final Counter rehashCounter;
+
+    public LoginService(UserRepository userRepository,
+                        UserContextService userContextService,
+                        TokenService tokenService,
+                        RefreshTokenService refreshTokenService,
+                        BCryptPasswordEncoder passwordEncoder,
+                        MeterRegistry meterRegistry,
+                        @Value("${armas.security.bcrypt.strength:10}") int strength,
+                        @Value("${armas.security.bcrypt.threads:4}") int threads,
+                        @Value("${armas.security.bcrypt.queue-capacity:200}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.userContextService = userContextService;
+        this.tokenService = tokenService;
+        this.refreshTokenService = refreshTokenService;
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.dummyHash = passwordEncoder.encode("armas-login-dummy-password");
+        AtomicInteger threadCount = new AtomicInteger();
+        // A full queue rejects the login outright; the caller gets a 503 and retries
+        this.bcryptExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("armas.login.bcrypt.queue.depth", bcryptExecutor, executor -> executor.getQueue().size())
+                .description("Password checks waiting for a BCrypt thread")
+                .register(meterRegistry);
+        this.queueTimer = Timer.builder("armas.login.bcrypt.queue")
+                .description("Time a password check waited for a BCrypt thread")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("armas.login.bcrypt.verify")
+                .description("Duration of one BCrypt password check")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("armas.login.rejected")
+                .description("Logins refused because the BCrypt queue was full")
+                .register(meterRegistry);
+        this.rehashCounter = Counter.builder("armas.login.rehash")
+                .description("Stored password hashes upgraded to the configured work factor")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        bcryptExecutor.shutdown();
+    }
+
+    /**
+     * Verifies the credentials and issues a token. Completes with null when the username or
+     * password is wrong, and fails with RejectedExecutionException when too many logins are queued.
+     */
+    public CompletableFuture<LoginResult> login(String username, String password) {
+        User user = userRepository.findForLoginByUsername(username);
+        String storedHash = user != null && user.getPassword() != null ? user.getPassword() : dummyHash;
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                Boolean matches = verifyTimer.record(() -> passwordEncoder.matches(password, storedHash));
+                if (user == null || !Boolean.TRUE.equals(matches)) {
+                    return null;
+                }
+                if (needsRehash(storedHash)) {
+                    rehash(user, password);
+                }
+                UserContext context = userContextService.toContext(user);
+                return new LoginResult(accessToken(context), refreshTokenService.issue(user.getId(), user.getUsername()), context);
+            }, bcryptExecutor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Login queue full, refusing login for {}", username);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Exchanges a refresh token for a new access and refresh token pair. Authorities are read
+     * fresh, so role changes made since login apply. Returns null if the token is not usable.
+     */
+    public LoginResult refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        if (rotation == null) {
+            return null;
+        }
+        UserContext context = userContextService.load(rotation.username());
+        if (context == null) {
+            refreshTokenService.revokeAllForUser(rotation.userId());
+            return null;
+        }
+        return new LoginResult(accessToken(context), rotation.refreshToken(), context);
+    }
+
+    private String accessToken(UserContext context) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        context.roles().forEach(role -> authorities.add(new SimpleGrantedAuthority("ROLE_" + role)));
+        context.privileges().forEach(privilege -> authorities.add(new SimpleGrantedAuthority(privilege)));
+        return tokenService.generateToken(
+                new UsernamePasswordAuthenticationToken(context.username(), null, authorities), context.userId());
+    }
+
+    private void rehash(User user, String password) {
+        try {
+            userRepository.updatePassword(user.getId(), passwordEncoder.encode(password));
+            rehashCounter.increment();
+            log.info("Re-hashed password for {} with work factor {}", user.getUsername(), strength);
+        } catch (RuntimeException e) {
+            // The old hash still verifies, so the login goes ahead and the upgrade is retried next time
+            log.warn("Could not re-hash password for {}: {}", user.getUsername(), e.getMessage());
+        }
+    }
+
+    boolean needsRehash(String hash) {
+        Matcher matcher = BCRYPT_COST.matcher(hash);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public record LoginResult(String token, String refreshToken, UserContext context) {
+    }
+}
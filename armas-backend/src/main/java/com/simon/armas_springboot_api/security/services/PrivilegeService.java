@@ -1,9 +1,11 @@
 package com.simon.armas_springboot_api.security.services;
 
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
 import com.simon.armas_springboot_api.repositories.UserRepository;
 import com.simon.armas_springboot_api.security.models.Privilege;
 import com.simon.armas_springboot_api.security.repositories.PrivilegeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,6 +15,8 @@ public class PrivilegeService {
 
     @Autowired
     private PrivilegeRepository privilegeRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public List<Privilege> findAll(){
         return privilegeRepository.findAll();
@@ -23,11 +27,15 @@ public class PrivilegeService {
     }
 
     public  Privilege save(Privilege privilege){
-        return privilegeRepository.save(privilege);
+        Privilege saved = privilegeRepository.save(privilege);
+        // A privilege may be attached to a role and granted directly, so anyone can be affected
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forAll());
+        return saved;
     }
 
     public void delete(Integer id) {
         privilegeRepository.deleteById(Long.valueOf(id));
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forAll());
     }
 
     public Privilege getById(Integer id) {
@@ -36,6 +44,7 @@ public class PrivilegeService {
 
     public void update(Privilege privilege) {
         privilegeRepository.save(privilege);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forAll());
     }
 
 }
\ No newline at end of file
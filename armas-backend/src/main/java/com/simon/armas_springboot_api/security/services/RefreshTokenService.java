@@ -0,0 +1,110 @@
+package com.simon.armas_springboot_api.security.services;
+
+import com.simon.armas_springboot_api.security.models.RefreshToken;
+import com.simon.armas_springboot_api.security.repositories.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. Only a hash of each token is stored; the raw value is
+ * returned to the client once. A token can be exchanged exactly once, and replaying an
+ * already rotated token is treated as theft and revokes its whole family.
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final long ttlHours;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${armas.security.refresh-token.ttl-hours:168}") long ttlHours) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttlHours = ttlHours;
+    }
+
+    /** Starts a new token family for a fresh login and returns the raw token. */
+    @Transactional
+    public String issue(Long userId, String username) {
+        return save(userId, username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one in the same family. Returns null if the token
+     * is unknown, expired, revoked or was already used.
+     */
+    @Transactional
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken));
+        if (current == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getRevokedAt() != null || current.getExpiresAt().isBefore(now)) {
+            return null;
+        }
+        if (refreshTokenRepository.markRotated(current.getId(), now) == 0) {
+            log.warn("Refresh token reuse detected for {}, revoking family {}", current.getUsername(), current.getFamilyId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            return null;
+        }
+        String next = save(current.getUserId(), current.getUsername(), current.getFamilyId());
+        return new Rotation(current.getUserId(), current.getUsername(), next);
+    }
+
+    /** Revokes the family the token belongs to; unknown tokens are ignored. */
+    @Transactional
+    public void revoke(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken));
+        if (token != null) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now());
+        }
+    }
+
+    @Transactional
+    public int revokeAllForUser(Long userId) {
+        return refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+
+    private String save(Long userId, String username, String familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(rawToken));
+        token.setFamilyId(familyId);
+        token.setUserId(userId);
+        token.setUsername(username);
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plusHours(ttlHours));
+        refreshTokenRepository.save(token);
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(Long userId, String username, String refreshToken) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.simon.armas_springboot_api.security.services;
 
+import com.simon.armas_springboot_api.events.SessionsRevokedEvent;
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
 import com.simon.armas_springboot_api.models.User;
 import com.simon.armas_springboot_api.repositories.UserRepository;
 import com.simon.armas_springboot_api.security.models.Privilege;
@@ -8,6 +10,7 @@ import com.simon.armas_springboot_api.security.repositories.PrivilegeRepository;
 import com.simon.armas_springboot_api.security.repositories.RoleRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 
@@ -27,13 +30,15 @@ public class RoleService {
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final PrivilegeRepository privilegeRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public RoleService(RoleRepository roleRepository, UserRepository userRepository,
-                       PrivilegeRepository privilegeRepository) {
+                       PrivilegeRepository privilegeRepository, ApplicationEventPublisher eventPublisher) {
         this.roleRepository = roleRepository;
         this.userRepository = userRepository;
         this.privilegeRepository = privilegeRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -63,6 +68,7 @@ public class RoleService {
             roleRepository.save(role); // Save role to update its privileges
         }
 
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forRole(roleId));
         logger.info("Successfully assigned privileges {} to role {}", privilegeIds, role.getDescription());
     }
 
@@ -199,6 +205,7 @@ public class RoleService {
 
     public void delete(Long id) {
         roleRepository.deleteById(id);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forRole(id));
     }
 
     public Role save(Role role) {
@@ -215,9 +222,14 @@ public class RoleService {
                 .map(roleId -> roleRepository.findById(roleId)
                         .orElseThrow(() -> new IllegalArgumentException("Role not found: " + roleId)))
                 .collect(Collectors.toList());
+        boolean rolesRemoved = !newRoles.containsAll(user.getRoles());
         user.getRoles().clear();
         user.getRoles().addAll(newRoles);
         userRepository.save(user);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(userId));
+        if (rolesRemoved) {
+            eventPublisher.publishEvent(new SessionsRevokedEvent(userId, user.getUsername(), "role removed"));
+        }
     }
 
     public void unAssignUserRole(Long userId, Long roleId) {
@@ -227,6 +239,8 @@ public class RoleService {
                 .orElseThrow(() -> new IllegalArgumentException("Role not found: " + roleId));
         user.getRoles().remove(role);
         userRepository.save(user);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(userId));
+        eventPublisher.publishEvent(new SessionsRevokedEvent(userId, user.getUsername(), "role removed"));
     }
 
     public List<Privilege> getPrivilegesInRole(Long roleId) {
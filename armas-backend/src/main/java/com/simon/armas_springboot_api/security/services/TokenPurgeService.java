@@ -0,0 +1,100 @@
+package com.simon.armas_springboot_api.security.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes expired verification tokens, refresh tokens and revocation entries. Each table is
+ * purged in small DELETE ... LIMIT batches that commit on their own, with a pause in between,
+ * so row locks are held for one batch at a time and concurrent logins are never stalled.
+ */
+@Service
+public class TokenPurgeService {
+    private static final Logger log = LoggerFactory.getLogger(TokenPurgeService.class);
+
+    private static final List<Purge> PURGES = List.of(
+            new Purge("secure_token", "expired_at"),
+            new Purge("refresh_token", "expires_at"),
+            new Purge("token_revocation", "expires_at"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxBatches;
+
+    public TokenPurgeService(JdbcTemplate jdbcTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${armas.security.purge.batch-size:1000}") int batchSize,
+                             @Value("${armas.security.purge.pause-ms:200}") long pauseMillis,
+                             @Value("${armas.security.purge.max-batches:500}") int maxBatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(initialDelayString = "${armas.security.purge.initial-delay-ms:60000}",
+            fixedDelayString = "${armas.security.purge.interval-ms:3600000}")
+    public void purgeExpired() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now());
+        for (Purge purge : PURGES) {
+            try {
+                purge(purge, cutoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // One failing table must not keep the others growing
+                log.warn("Purging {} failed: {}", purge.table, e.getMessage());
+            }
+        }
+    }
+
+    /** Returns the number of rows deleted from the table. */
+    int purge(Purge purge, Timestamp cutoff) throws InterruptedException {
+        String sql = "DELETE FROM " + purge.table + " WHERE " + purge.expiryColumn + " < ? LIMIT ?";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int total = 0;
+        int batches = 0;
+        int deleted;
+        do {
+            // No surrounding transaction: every batch commits and releases its locks immediately
+            deleted = jdbcTemplate.update(sql, cutoff, batchSize);
+            total += deleted;
+            batches++;
+            if (deleted == batchSize && batches < maxBatches) {
+                Thread.sleep(pauseMillis);
+            }
+        } while (deleted == batchSize && batches < maxBatches);
+
+        sample.stop(meterRegistry.timer("armas.security.purge.duration", "table", purge.table));
+        Counter.builder("armas.security.purge.rows")
+                .description("Expired token rows deleted by the housekeeping purge")
+                .tag("table", purge.table)
+                .register(meterRegistry)
+                .increment(total);
+        if (total > 0) {
+            log.info("Purged {} expired rows from {} in {} batches", total, purge.table, batches);
+        }
+        if (deleted == batchSize) {
+            log.warn("Purge of {} stopped after {} batches, the rest is left for the next run", purge.table, maxBatches);
+        }
+        return total;
+    }
+
+    record Purge(String table, String expiryColumn) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.simon.armas_springboot_api.security.services;
+
+import com.simon.armas_springboot_api.events.SessionsRevokedEvent;
+import com.simon.armas_springboot_api.security.models.TokenRevocation;
+import com.simon.armas_springboot_api.security.repositories.TokenRevocationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers "is this access token revoked?" from memory. Revocations are written to the
+ * token_revocation table and applied locally at once; every node also reloads the table on
+ * a short schedule, so a logout on one node reaches the others within the reload interval.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final long accessTokenTtlSeconds;
+    // jti -> expiry of the revoked token
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    // user id -> tokens issued before this instant are revoked
+    private final Cutoffs<Long> userCutoffs = new Cutoffs<>();
+    // Same, by username, for tokens minted before they carried a uid claim
+    private final Cutoffs<String> usernameCutoffs = new Cutoffs<>();
+    private final Counter rejected;
+
+    public TokenRevocationService(TokenRevocationRepository tokenRevocationRepository,
+                                  RefreshTokenService refreshTokenService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${armas.security.access-token.ttl-seconds:900}") long accessTokenTtlSeconds) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.accessTokenTtlSeconds = accessTokenTtlSeconds;
+        this.rejected = Counter.builder("armas.security.revoked.rejected")
+                .description("Requests refused because their access token was revoked")
+                .register(meterRegistry);
+        Gauge.builder("armas.security.revoked.entries", this, service -> service.revokedTokens.size() + service.userCutoffs.size() + service.usernameCutoffs.size())
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(Jwt jwt) {
+        boolean revoked = (jwt.getId() != null && revokedTokens.containsKey(jwt.getId()))
+                || issuedBeforeCutoff(jwt);
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    /** Revokes one access token, e.g. on logout. */
+    @Transactional
+    public void revoke(Jwt jwt) {
+        if (jwt.getId() == null) {
+            return;
+        }
+        Instant expiresAt = jwt.getExpiresAt() != null ? jwt.getExpiresAt() : Instant.now().plusSeconds(accessTokenTtlSeconds);
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setJti(jwt.getId());
+        revocation.setRevokedAt(LocalDateTime.now());
+        revocation.setExpiresAt(toLocal(expiresAt));
+        tokenRevocationRepository.save(revocation);
+        revokedTokens.put(jwt.getId(), expiresAt);
+    }
+
+    /**
+     * Revokes every access and refresh token issued to the user so far. iat has second precision,
+     * so the cutoff is the start of the current second: a token minted right after the revocation
+     * (e.g. on logging in again with a new password) is accepted, at the price of tokens minted
+     * earlier in that same second staying valid.
+     */
+    @Transactional
+    public void revokeUser(Long userId, String username) {
+        if (userId == null && username == null) {
+            return;
+        }
+        Instant cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant expiresAt = cutoff.plusSeconds(accessTokenTtlSeconds);
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(userId);
+        revocation.setUsername(username);
+        revocation.setRevokedAt(toLocal(cutoff));
+        revocation.setExpiresAt(toLocal(expiresAt));
+        tokenRevocationRepository.save(revocation);
+        applyCutoff(revocation, cutoff, expiresAt);
+        if (userId != null) {
+            refreshTokenService.revokeAllForUser(userId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onSessionsRevoked(SessionsRevokedEvent event) {
+        revokeUser(event.getUserId(), event.getUsername());
+        log.info("Revoked sessions of {} ({})", event.getUsername(), event.getReason());
+    }
+
+    @Scheduled(fixedDelayString = "${armas.security.revocation.reload-ms:30000}")
+    public void reload() {
+        Instant now = Instant.now();
+        for (TokenRevocation revocation : tokenRevocationRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            Instant expiresAt = toInstant(revocation.getExpiresAt());
+            if (revocation.getJti() != null) {
+                revokedTokens.put(revocation.getJti(), expiresAt);
+            } else {
+                applyCutoff(revocation, toInstant(revocation.getRevokedAt()), expiresAt);
+            }
+        }
+        // Tokens covered by these entries have expired on their own
+        revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        userCutoffs.purge(now);
+        usernameCutoffs.purge(now);
+    }
+
+    private boolean issuedBeforeCutoff(Jwt jwt) {
+        Object userId = jwt.getClaims().get(TokenService.USER_ID_CLAIM);
+        Instant cutoff = userId instanceof Number number
+                ? userCutoffs.get(number.longValue())
+                : usernameCutoffs.get(jwt.getSubject());
+        return cutoff != null && (jwt.getIssuedAt() == null || jwt.getIssuedAt().isBefore(cutoff));
+    }
+
+    private void applyCutoff(TokenRevocation revocation, Instant cutoff, Instant expiresAt) {
+        if (revocation.getUserId() != null) {
+            userCutoffs.apply(revocation.getUserId(), cutoff, expiresAt);
+        }
+        if (revocation.getUsername() != null) {
+            usernameCutoffs.apply(revocation.getUsername(), cutoff, expiresAt);
+        }
+    }
+
+    /** Latest cutoff per key, dropped once every token it could match has expired. */
+    private static final class Cutoffs<K> {
+        private final Map<K, Instant> cutoffs = new ConcurrentHashMap<>();
+        private final Map<K, Instant> expiry = new ConcurrentHashMap<>();
+
+        Instant get(K key) {
+            return cutoffs.get(key);
+        }
+
+        int size() {
+            return cutoffs.size();
+        }
+
+        void apply(K key, Instant cutoff, Instant expiresAt) {
+            cutoffs.merge(key, cutoff, (a, b) -> a.isAfter(b) ? a : b);
+            expiry.merge(key, expiresAt, (a, b) -> a.isAfter(b) ? a : b);
+        }
+
+        void purge(Instant now) {
+            expiry.forEach((key, expiresAt) -> {
+                if (expiresAt.isBefore(now)) {
+                    expiry.remove(key, expiresAt);
+                    cutoffs.remove(key);
+                }
+            });
+        }
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
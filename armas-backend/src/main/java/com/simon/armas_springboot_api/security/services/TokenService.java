@@ -1,5 +1,7 @@
 package com.simon.armas_springboot_api.security.services;
 
+import com.simon.armas_springboot_api.security.AuthorityClaimConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
@@ -9,34 +11,50 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Service
 public class TokenService {
+    // Id of the user the token was issued to; revocation cutoffs are keyed by it, not by the renameable username
+    public static final String USER_ID_CLAIM = "uid";
+
     private final JwtEncoder jwtEncoder;
+    private final AuthorityDictionary authorityDictionary;
+    private final long expiry;
 
    
-    public TokenService(JwtEncoder jwtEncoder) {
+    public TokenService(JwtEncoder jwtEncoder, AuthorityDictionary authorityDictionary,
+                        @Value("${armas.security.access-token.ttl-seconds:900}") long expiry) {
         this.jwtEncoder = jwtEncoder;
+        this.authorityDictionary = authorityDictionary;
+        this.expiry = expiry;
     }
 
-    public String generateToken(Authentication authentication) {
+    public String generateToken(Authentication authentication, Long userId) {
         Instant now = Instant.now();
-        long expiry = 3600L; // 1 hour
 
-        // Include authorities in the "scope" claim
-        String scope = authentication.getAuthorities().stream()
+        // Authorities travel as a bitset over the authority dictionary; only entries it
+        // does not know yet are spelled out in the "scope" claim
+        AuthorityDictionary.EncodedAuthorities encoded = authorityDictionary.encode(authentication.getAuthorities().stream()
             .map(GrantedAuthority::getAuthority)
-            .collect(Collectors.joining(" "));
+            .toList());
 
-        JwtClaimsSet claims = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
             .issuer("self")
             .issuedAt(now)
             .expiresAt(now.plusSeconds(expiry))
             .subject(authentication.getName())
-            .claim("scope", scope)
-            .build();
-
-        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+            // jti lets a single token be revoked on logout
+            .id(UUID.randomUUID().toString())
+            .claim(AuthorityClaimConverter.AUTHORITIES_CLAIM, encoded.bits())
+            .claim(AuthorityClaimConverter.VERSION_CLAIM, encoded.version());
+        if (userId != null) {
+            claims.claim(USER_ID_CLAIM, userId);
+        }
+        if (!encoded.unknown().isEmpty()) {
+            claims.claim(AuthorityClaimConverter.SCOPE_CLAIM, String.join(" ", encoded.unknown()));
+        }
+
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims.build())).getTokenValue();
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.simon.armas_springboot_api.security.services;
+
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
+import com.simon.armas_springboot_api.models.User;
+import com.simon.armas_springboot_api.repositories.UserRepository;
+import com.simon.armas_springboot_api.security.models.UserContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the caller's UserContext per (subject, issued-at) pair, so every request made with
+ * the same token shares one lookup. Entries live until the token expires and are dropped
+ * as soon as a UserAuthorityChangedEvent touching the user commits. Every eviction bumps a
+ * generation counter, so a context loaded while an eviction ran is not left in the cache.
+ */
+@Service
+public class UserContextService {
+    private static final Logger log = LoggerFactory.getLogger(UserContextService.class);
+
+    private final UserRepository userRepository;
+    private final EffectivePermissionService effectivePermissionService;
+    private final Map<CacheKey, CachedContext> cache = new ConcurrentHashMap<>();
+    // The user id is only known once the context is loaded, so evictions are counted globally
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserContextService(UserRepository userRepository,
+                              EffectivePermissionService effectivePermissionService,
+                              MeterRegistry meterRegistry,
+                              @Value("${armas.security.user-context-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.effectivePermissionService = effectivePermissionService;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("armas.user.context.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("armas.user.context.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("armas.user.context.cache.size", cache, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the context for the token's subject, loading it on the first request made with
+     * this token. Returns null if the subject no longer exists.
+     */
+    public UserContext resolve(Jwt jwt) {
+        CacheKey key = new CacheKey(jwt.getSubject(), jwt.getIssuedAt());
+        CachedContext cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached.context;
+        }
+        misses.increment();
+        long loadedAt = generation.get();
+        UserContext context = load(jwt.getSubject());
+        if (context == null) {
+            return null;
+        }
+        if (cache.size() >= maxEntries) {
+            evictExpired();
+            if (cache.size() >= maxEntries) {
+                log.warn("User context cache reached {} entries, clearing", maxEntries);
+                cache.clear();
+            }
+        }
+        Instant expiresAt = jwt.getExpiresAt() != null ? jwt.getExpiresAt() : Instant.now().plusSeconds(3600);
+        CachedContext entry = new CachedContext(context, expiresAt);
+        cache.put(key, entry);
+        // An eviction during the load may have swept before this put, so take the entry back out.
+        // One that bumps after this check sweeps the entry itself.
+        if (generation.get() != loadedAt) {
+            cache.remove(key, entry);
+        }
+        return context;
+    }
+
+    public UserContext load(String username) {
+        List<Object[]> rows = userRepository.findIdentityByUsername(username);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] identity = rows.get(0);
+        return toContext((Long) identity[0], (String) identity[1], (String) identity[2]);
+    }
+
+    public UserContext toContext(User user) {
+        return toContext(user.getId(), user.getUsername(),
+                user.getOrganization() != null ? user.getOrganization().getId() : null);
+    }
+
+    private UserContext toContext(Long userId, String username, String organizationId) {
+        EffectivePermissionService.Permissions permissions = effectivePermissionService.forUser(userId);
+        return new UserContext(userId, username, organizationId,
+                permissions.roleIds(), permissions.roles(), permissions.privileges());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAuthorityChanged(UserAuthorityChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.getUserId() != null) {
+            cache.values().removeIf(cached -> event.getUserId().equals(cached.context.userId()));
+        } else if (event.getRoleId() != null) {
+            cache.values().removeIf(cached -> cached.context.roleIds().contains(event.getRoleId()));
+        } else {
+            cache.clear();
+        }
+        log.debug("Evicted user contexts for {}", event);
+    }
+
+    @Scheduled(fixedDelayString = "${armas.security.user-context-cache.sweep-ms:300000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        cache.values().removeIf(cached -> cached.expiresAt.isBefore(now));
+    }
+
+    private record CacheKey(String subject, Instant issuedAt) {
+    }
+
+    private record CachedContext(UserContext context, Instant expiresAt) {
+    }
+}
@@ -1,11 +1,13 @@
 package com.simon.armas_springboot_api.security.services;
 
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
 import com.simon.armas_springboot_api.models.User;
 import com.simon.armas_springboot_api.security.models.Privilege;
 import com.simon.armas_springboot_api.security.models.UserPrivilegeAssignment;
 import com.simon.armas_springboot_api.security.repositories.UserPrivilegeAssignmentRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,6 +18,8 @@ import java.util.stream.Collectors;
 public class UserPrivilegeAssignmentService {
     @Autowired
     public UserPrivilegeAssignmentRepository repository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public List<UserPrivilegeAssignment> findAll() {
         return repository.findAll();
@@ -26,10 +30,14 @@ public class UserPrivilegeAssignmentService {
     }
 
     public UserPrivilegeAssignment save(UserPrivilegeAssignment userPrivilegeAssignment) {
-        return repository.save(userPrivilegeAssignment);
+        UserPrivilegeAssignment saved = repository.save(userPrivilegeAssignment);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(saved.getUserid()));
+        return saved;
     }
 
     public void delete(Long id) {
+        repository.findById(id).ifPresent(assignment ->
+                eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(assignment.getUserid())));
         repository.deleteById(Long.valueOf(id));
     }
 
@@ -39,11 +47,13 @@ public class UserPrivilegeAssignmentService {
 
     public void update(UserPrivilegeAssignment userPrivilegeAssignment) {
         repository.save(userPrivilegeAssignment);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(userPrivilegeAssignment.getUserid()));
     }
 
     @Transactional
     public List<Privilege> savePrivileges(List<Privilege> privileges, Long userid) {
         repository.deleteByUserid(userid);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(userid));
 
         List<UserPrivilegeAssignment> assignments = privileges.stream()
                 .map(privilege -> new UserPrivilegeAssignment(userid, privilege.getId()))
@@ -56,6 +66,7 @@ public class UserPrivilegeAssignmentService {
 
     public void deletePrivileges(Long userid) {
         repository.deleteByUserid(userid);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(userid));
     }
 
     public List<Privilege> getUserPrivileges(Long userid) {
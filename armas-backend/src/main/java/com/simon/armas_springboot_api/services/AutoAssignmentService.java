@@ -0,0 +1,360 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.dto.AssignmentCandidateView;
+import com.simon.armas_springboot_api.dto.AuditorWorkloadView;
+import com.simon.armas_springboot_api.dto.AutoAssignmentResultDTO;
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
+import com.simon.armas_springboot_api.events.WorkflowEvent;
+import com.simon.armas_springboot_api.models.ReportStatus;
+import com.simon.armas_springboot_api.repositories.MasterTransactionRepository;
+import com.simon.armas_springboot_api.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assigns Submitted reports to SENIOR_AUDITORs without waiting for an archiver. Auditors sit
+ * in a min-heap keyed by open workload (Assigned + Rejected tasks); a second heap per
+ * directorate lets an auditor of the report's own directorate win as long as they carry at
+ * most affinity-weight more work than the least loaded auditor overall. Heap entries are
+ * never updated in place: a changed workload pushes a new entry and the old one is skipped
+ * when it surfaces. Assignments go through MasterTransactionService.assign, so they raise the
+ * same TASK_ASSIGNED notification as a manual one. Uploaded reports are assigned on a single
+ * background thread, so the upload response never waits for a workload recount. Rebalancing only moves Assigned reports
+ * the auditor has not downloaded yet (auditorStartedAt unset); the move itself is guarded on
+ * that, so a download racing the rebalance keeps the report where it is.
+ */
+@Service
+public class AutoAssignmentService {
+    private static final Logger log = LoggerFactory.getLogger(AutoAssignmentService.class);
+
+    private static final String AUDITOR_ROLE = "SENIOR_AUDITOR";
+    private static final List<String> OPEN_STATUSES = List.of(ReportStatus.ASSIGNED.label(), ReportStatus.REJECTED.label());
+
+    private final MasterTransactionService masterTransactionService;
+    private final MasterTransactionRepository masterTransactionRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final String actor;
+    private final long affinityWeight;
+    private final long maxSpread;
+    private final int maxMoves;
+    private final int backlogBatch;
+    private final ThreadPoolExecutor assignExecutor;
+
+    // Guarded by this
+    private final Map<Long, Auditor> auditors = new HashMap<>();
+    private final PriorityQueue<Slot> all = new PriorityQueue<>();
+    private final Map<String, PriorityQueue<Slot>> byDirectorate = new HashMap<>();
+    private boolean stale = true;
+
+    public AutoAssignmentService(MasterTransactionService masterTransactionService,
+                                 MasterTransactionRepository masterTransactionRepository,
+                                 UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${armas.auto-assign.enabled:false}") boolean enabled,
+                                 @Value("${armas.auto-assign.actor:auto-assign}") String actor,
+                                 @Value("${armas.auto-assign.affinity-weight:3}") long affinityWeight,
+                                 @Value("${armas.auto-assign.max-spread:2}") long maxSpread,
+                                 @Value("${armas.auto-assign.max-moves:50}") int maxMoves,
+                                 @Value("${armas.auto-assign.backlog-batch:500}") int backlogBatch,
+                                 @Value("${armas.auto-assign.queue-capacity:1000}") int queueCapacity) {
+        this.masterTransactionService = masterTransactionService;
+        this.masterTransactionRepository = masterTransactionRepository;
+        this.userRepository = userRepository;
+        // Runs after the uploading transaction committed, so every assignment needs its own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.actor = actor;
+        this.affinityWeight = affinityWeight;
+        this.maxSpread = maxSpread;
+        this.maxMoves = maxMoves;
+        this.backlogBatch = backlogBatch;
+        // A full queue leaves the report Submitted for an archiver or the next rebalance
+        this.assignExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "auto-assign");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> outcome("deferred"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        assignExecutor.shutdown();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkflowEvent(WorkflowEvent event) {
+        switch (event.getType()) {
+            case REPORT_UPLOADED -> {
+                if (enabled) {
+                    Integer transactionId = event.getTransactionId().intValue();
+                    assignExecutor.execute(() -> {
+                        try {
+                            assign(List.of(transactionId));
+                        } catch (RuntimeException e) {
+                            // The upload has committed; leave the report for an archiver or the next rebalance
+                            log.warn("Auto-assignment of report {} failed: {}", transactionId, e.getMessage());
+                        }
+                    });
+                }
+            }
+            // Our own assignments were counted when they were picked
+            case TASK_ASSIGNED -> {
+                if (!actor.equals(event.getActorUsername())) {
+                    adjust(event.getRecipientId(), 1);
+                }
+            }
+            // An auditor handed a task on; who it was is not in the event, so recount
+            case TASK_EVALUATED -> markStale();
+            default -> {
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAuthorityChanged(UserAuthorityChangedEvent event) {
+        markStale();
+    }
+
+    // Rejections send work back without an event; a periodic recount picks those up
+    @Scheduled(fixedDelayString = "${armas.auto-assign.refresh-ms:300000}")
+    public synchronized void markStale() {
+        stale = true;
+    }
+
+    /**
+     * Assigns every unassigned Submitted report (oldest first, up to the backlog batch), then
+     * moves Assigned reports their auditor has not opened yet from the busiest auditor to the least busy one
+     * until their open workloads are within max-spread of each other.
+     */
+    public AutoAssignmentResultDTO rebalance() {
+        markStale();
+        List<AssignmentCandidateView> backlog = transactionTemplate.execute(
+                status -> masterTransactionRepository.findUnassignedBacklog(PageRequest.of(0, backlogBatch)));
+        int assigned = assignCandidates(backlog);
+
+        int moved = 0;
+        for (int attempt = 0; attempt < maxMoves; attempt++) {
+            Auditor busiest = busiest();
+            if (busiest == null) {
+                break;
+            }
+            List<AssignmentCandidateView> movable = transactionTemplate.execute(
+                    status -> masterTransactionRepository.findMovableAssignments(busiest.id, PageRequest.of(0, 1)));
+            if (movable == null || movable.isEmpty()) {
+                break;
+            }
+            AssignmentCandidateView task = movable.get(0);
+            Auditor target = pick(task.getDirectorateId());
+            // With directorate affinity the pick may not actually be lighter; moving would not help
+            if (target == null || target == busiest || target.openTasks >= busiest.openTasks) {
+                release(target);
+                break;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> masterTransactionService.reassign(task.getId(),
+                        userRepository.getReferenceById(busiest.id), userRepository.getReferenceById(target.id), actor));
+                adjust(busiest.id, -1);
+                moved++;
+                outcome("moved");
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                // The auditor picked it up or someone else moved it meanwhile
+                release(target);
+                markStale();
+                outcome("conflict");
+                log.debug("Could not move report {}: {}", task.getId(), e.getMessage());
+            }
+        }
+        log.info("Rebalanced auditor workloads: {} assigned, {} moved", assigned, moved);
+        return new AutoAssignmentResultDTO(assigned, moved);
+    }
+
+    /** Assigns those of the given reports that are still Submitted and unassigned. */
+    public int assign(Collection<Integer> transactionIds) {
+        List<AssignmentCandidateView> candidates = transactionTemplate.execute(
+                status -> masterTransactionRepository.findUnassignedCandidates(transactionIds));
+        return assignCandidates(candidates);
+    }
+
+    private int assignCandidates(List<AssignmentCandidateView> candidates) {
+        int assigned = 0;
+        for (AssignmentCandidateView candidate : candidates != null ? candidates : List.<AssignmentCandidateView>of()) {
+            Auditor auditor = pick(candidate.getDirectorateId());
+            if (auditor == null) {
+                log.warn("No {} available, report {} stays unassigned", AUDITOR_ROLE, candidate.getId());
+                outcome("no_auditor");
+                break;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> masterTransactionService.assign(candidate.getId(),
+                        userRepository.getReferenceById(auditor.id), null, actor));
+                assigned++;
+                outcome("assigned");
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                // An archiver assigned it by hand first
+                release(auditor);
+                outcome("conflict");
+                log.debug("Auto-assignment of report {} lost: {}", candidate.getId(), e.getMessage());
+            }
+        }
+        return assigned;
+    }
+
+    /**
+     * Takes the auditor with the lowest workload, counting affinity-weight extra for auditors
+     * outside the report's directorate, and books the task on them.
+     */
+    private synchronized Auditor pick(String directorateId) {
+        refreshIfStale();
+        Slot overall = peek(all);
+        if (overall == null) {
+            return null;
+        }
+        Auditor chosen = overall.auditor;
+        PriorityQueue<Slot> local = directorateId != null ? byDirectorate.get(directorateId) : null;
+        if (local != null && !directorateId.equals(chosen.directorateId)) {
+            Slot affine = peek(local);
+            if (affine != null && affine.openTasks <= overall.openTasks + affinityWeight) {
+                chosen = affine.auditor;
+            }
+        }
+        update(chosen, chosen.openTasks + 1);
+        return chosen;
+    }
+
+    /** The auditor with the most open work, if they exceed the least loaded by more than max-spread. */
+    private synchronized Auditor busiest() {
+        refreshIfStale();
+        Slot least = peek(all);
+        if (least == null) {
+            return null;
+        }
+        Auditor busiest = null;
+        for (Auditor auditor : auditors.values()) {
+            if (busiest == null || auditor.openTasks > busiest.openTasks) {
+                busiest = auditor;
+            }
+        }
+        return busiest.openTasks - least.openTasks > maxSpread ? busiest : null;
+    }
+
+    private synchronized void release(Auditor auditor) {
+        if (auditor != null && auditors.get(auditor.id) == auditor) {
+            update(auditor, Math.max(0, auditor.openTasks - 1));
+        }
+    }
+
+    private synchronized void adjust(Long userId, long delta) {
+        Auditor auditor = userId != null ? auditors.get(userId) : null;
+        if (auditor != null) {
+            update(auditor, Math.max(0, auditor.openTasks + delta));
+        }
+    }
+
+    private void update(Auditor auditor, long openTasks) {
+        auditor.openTasks = openTasks;
+        auditor.stamp++;
+        push(auditor);
+        // Superseded entries pile up between refreshes; rebuild before they dominate the heap
+        if (all.size() > 4 * auditors.size() + 16) {
+            rebuild();
+        }
+    }
+
+    private void refreshIfStale() {
+        if (!stale) {
+            return;
+        }
+        List<AuditorWorkloadView> workloads = transactionTemplate.execute(
+                status -> userRepository.findWorkloadsByRoleName(AUDITOR_ROLE, OPEN_STATUSES));
+        auditors.clear();
+        for (AuditorWorkloadView workload : workloads != null ? workloads : List.<AuditorWorkloadView>of()) {
+            Auditor auditor = new Auditor(workload.getUserId(), workload.getDirectorateId());
+            auditor.openTasks = workload.getOpenTasks() != null ? workload.getOpenTasks() : 0;
+            auditors.put(auditor.id, auditor);
+        }
+        rebuild();
+        stale = false;
+    }
+
+    private void rebuild() {
+        all.clear();
+        byDirectorate.clear();
+        auditors.values().forEach(this::push);
+    }
+
+    private void push(Auditor auditor) {
+        Slot slot = new Slot(auditor.openTasks, auditor.stamp, auditor);
+        all.add(slot);
+        if (auditor.directorateId != null) {
+            byDirectorate.computeIfAbsent(auditor.directorateId, d -> new PriorityQueue<>()).add(slot);
+        }
+    }
+
+    /** The current head of the heap, discarding entries superseded by a later update. */
+    private Slot peek(PriorityQueue<Slot> heap) {
+        Slot head = heap.peek();
+        while (head != null && (head.stamp != head.auditor.stamp || auditors.get(head.auditor.id) != head.auditor)) {
+            heap.poll();
+            head = heap.peek();
+        }
+        return head;
+    }
+
+    private void outcome(String outcome) {
+        Counter.builder("armas.assignments.auto")
+                .description("Automatic report assignments by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static final class Auditor {
+        private final Long id;
+        private final String directorateId;
+        private long openTasks;
+        private long stamp;
+
+        private Auditor(Long id, String directorateId) {
+            this.id = id;
+            this.directorateId = directorateId;
+        }
+    }
+
+    private record Slot(long openTasks, long stamp, Auditor auditor) implements Comparable<Slot> {
+        @Override
+        public int compareTo(Slot other) {
+            int byLoad = Long.compare(openTasks, other.openTasks);
+            return byLoad != 0 ? byLoad : Long.compare(auditor.id, other.auditor.id);
+        }
+    }
+}
@@ -14,10 +14,12 @@ import java.util.Optional;
 public class BudgetYearService {
    @Autowired
     private BudgetYearRepository budgetYearRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     @Autowired
-    public BudgetYearService(BudgetYearRepository budgetYearRepository) {
+    public BudgetYearService(BudgetYearRepository budgetYearRepository, ReferenceDataCache referenceDataCache) {
         this.budgetYearRepository = budgetYearRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     public List<BudgetYearDTO> getAllBudgetYears() {
@@ -37,6 +39,7 @@ public class BudgetYearService {
             budgetYear.setId(budgetYearDTO.getId());
         }
         BudgetYear saved = budgetYearRepository.save(budgetYear);
+        referenceDataCache.evict(BudgetYear.class);
         return new BudgetYearDTO(saved.getId(), saved.getFiscalYear());
     }
 
@@ -45,5 +48,6 @@ public class BudgetYearService {
             throw new IllegalArgumentException("Budget Year not found: " + id);
         }
         budgetYearRepository.deleteById(id);
+        referenceDataCache.evict(BudgetYear.class);
     }
 }
\ No newline at end of file
@@ -0,0 +1,280 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.dto.BulkUploadItemRequest;
+import com.simon.armas_springboot_api.dto.BulkUploadResultDTO;
+import com.simon.armas_springboot_api.dto.ReportResponseStatusView;
+import com.simon.armas_springboot_api.events.WorkflowEvent;
+import com.simon.armas_springboot_api.models.BudgetYear;
+import com.simon.armas_springboot_api.models.Document;
+import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.Organization;
+import com.simon.armas_springboot_api.models.ReportStatus;
+import com.simon.armas_springboot_api.models.User;
+import com.simon.armas_springboot_api.repositories.BudgetYearRepository;
+import com.simon.armas_springboot_api.repositories.DocumentRepository;
+import com.simon.armas_springboot_api.repositories.MasterTransactionRepository;
+import com.simon.armas_springboot_api.repositories.OrganizationRepository;
+import com.simon.armas_springboot_api.repositories.UserRepository;
+import com.simon.armas_springboot_api.security.models.UserContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Uploads many reports in one request. Lookups and duplicate checks are done once for the
+ * whole batch, files are streamed into storage on a bounded pool, and all rows are inserted
+ * in a single transaction that opens only once every file is stored; if it fails, the files
+ * it would have referenced are removed again. Each file gets its own line in the returned manifest.
+ */
+@Service
+public class BulkUploadService {
+    private static final Logger log = LoggerFactory.getLogger(BulkUploadService.class);
+
+    private final MasterTransactionRepository masterTransactionRepository;
+    private final DocumentRepository documentRepository;
+    private final BudgetYearRepository budgetYearRepository;
+    private final UserRepository userRepository;
+    private final OrganizationRepository organizationRepository;
+    private final FileStorageService fileStorageService;
+    private final ComplianceMatrixService complianceMatrixService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor uploadExecutor;
+    private final int maxFiles;
+
+    public BulkUploadService(MasterTransactionRepository masterTransactionRepository,
+                             DocumentRepository documentRepository,
+                             BudgetYearRepository budgetYearRepository,
+                             UserRepository userRepository,
+                             OrganizationRepository organizationRepository,
+                             FileStorageService fileStorageService,
+                             ComplianceMatrixService complianceMatrixService,
+                             ApplicationEventPublisher eventPublisher,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${armas.upload.bulk.parallelism:4}") int parallelism,
+                             @Value("${armas.upload.bulk.max-files:50}") int maxFiles) {
+        this.masterTransactionRepository = masterTransactionRepository;
+        this.documentRepository = documentRepository;
+        this.budgetYearRepository = budgetYearRepository;
+        this.userRepository = userRepository;
+        this.organizationRepository = organizationRepository;
+        this.fileStorageService = fileStorageService;
+        this.complianceMatrixService = complianceMatrixService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.maxFiles = maxFiles;
+        AtomicInteger threadCount = new AtomicInteger();
+        // When every worker is busy and the queue is full the request thread stores the file itself
+        this.uploadExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parallelism * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    public List<BulkUploadResultDTO> upload(List<MultipartFile> files, List<BulkUploadItemRequest> items,
+                                            UserContext userContext, Principal principal) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("No files provided for upload");
+        }
+        if (items == null || items.size() != files.size()) {
+            throw new IllegalArgumentException("Expected one metadata entry per file");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("At most " + maxFiles + " files can be uploaded at once");
+        }
+        if (userContext.organizationId() == null) {
+            throw new IllegalArgumentException("User has no organization assigned");
+        }
+
+        List<BulkUploadResultDTO> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            results.add(new BulkUploadResultDTO(i, docname(files.get(i))));
+        }
+
+        // One query per lookup table for the whole batch
+        Map<String, Document> documents = documentRepository.findAllById(items.stream()
+                        .map(BulkUploadItemRequest::getTransactiondocumentid).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Document::getId, Function.identity()));
+        Map<Long, BudgetYear> budgetYears = budgetYearRepository.findAllById(items.stream()
+                        .map(BulkUploadItemRequest::getBudgetYearId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(BudgetYear::getId, Function.identity()));
+        Set<String> takenDocnames = new HashSet<>(masterTransactionRepository.findExistingDocnames(userContext.userId(),
+                results.stream().map(BulkUploadResultDTO::getDocname).collect(Collectors.toSet())));
+        Map<String, Boolean> reportResponseNeeded = new HashMap<>();
+        if (items.stream().anyMatch(item -> isFeedback(item.getReportcategory()))) {
+            for (ReportResponseStatusView report : masterTransactionRepository.findReportResponseStatuses(
+                    userContext.organizationId(), documents.keySet())) {
+                reportResponseNeeded.merge(report.getDocumentId() + "|" + report.getFiscalYear(),
+                        "Yes".equalsIgnoreCase(report.getResponseNeeded()), Boolean::logicalOr);
+            }
+        }
+
+        User user = userRepository.getReferenceById(userContext.userId());
+        Organization organization = organizationRepository.getReferenceById(userContext.organizationId());
+        Map<Integer, MasterTransaction> accepted = new HashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            BulkUploadItemRequest item = items.get(i);
+            BulkUploadResultDTO result = results.get(i);
+            String error = validate(files.get(i), item, result.getDocname(), documents, budgetYears,
+                    takenDocnames, reportResponseNeeded);
+            if (error != null) {
+                result.failed(error);
+                continue;
+            }
+            // Later files in the same batch may not reuse a name either
+            takenDocnames.add(result.getDocname());
+
+            MasterTransaction transaction = new MasterTransaction();
+            transaction.setUser(user);
+            transaction.setUser2(null);
+            transaction.setOrganization(organization);
+            transaction.setReportstatus(ReportStatus.SUBMITTED.label());
+            transaction.setReportcategory(item.getReportcategory());
+            transaction.setBudgetYear(budgetYears.get(item.getBudgetYearId()));
+            transaction.setTransactiondocument(documents.get(item.getTransactiondocumentid()));
+            transaction.setCreatedBy(userContext.username());
+            if ("Report".equalsIgnoreCase(item.getReportcategory().trim())) {
+                transaction.setResponse_needed("Pending");
+            }
+            accepted.put(i, transaction);
+        }
+
+        Map<Integer, FileStorageService.StagedFile> staged = storeConcurrently(files, accepted, results, principal);
+        if (!accepted.isEmpty()) {
+            persist(accepted, staged, results, userContext.username());
+        }
+        log.info("Bulk upload by {}: {} of {} files stored", userContext.username(), accepted.size(), files.size());
+        return results;
+    }
+
+    private String validate(MultipartFile file, BulkUploadItemRequest item, String docname,
+                            Map<String, Document> documents, Map<Long, BudgetYear> budgetYears,
+                            Set<String> takenDocnames, Map<String, Boolean> reportResponseNeeded) {
+        if (file == null || file.isEmpty()) {
+            return "No file provided for upload.";
+        }
+        if (!StringUtils.hasText(item.getReportcategory())) {
+            return "Report category is required";
+        }
+        if (takenDocnames.contains(docname)) {
+            return "Document already exists";
+        }
+        Document document = documents.get(item.getTransactiondocumentid());
+        if (document == null) {
+            return "Document not found";
+        }
+        BudgetYear budgetYear = budgetYears.get(item.getBudgetYearId());
+        if (budgetYear == null) {
+            return "Budget Year not found: " + item.getBudgetYearId();
+        }
+        if (isFeedback(item.getReportcategory())) {
+            Boolean responseNeeded = reportResponseNeeded.get(document.getId() + "|" + budgetYear.getFiscalYear());
+            if (responseNeeded == null) {
+                return "Report for this feedback was not uploaded. Upload the report first!";
+            }
+            if (!responseNeeded) {
+                return "The uploaded report’s response_needed is not set to 'Yes'. Wait until the experts respond to your report.";
+            }
+        }
+        return null;
+    }
+
+    /** Stages the accepted files on the pool, before any transaction is opened; returns them by index. */
+    private Map<Integer, FileStorageService.StagedFile> storeConcurrently(List<MultipartFile> files,
+                                                                          Map<Integer, MasterTransaction> accepted,
+                                                                          List<BulkUploadResultDTO> results,
+                                                                          Principal principal) {
+        Map<Integer, CompletableFuture<FileStorageService.StagedFile>> uploads = new HashMap<>();
+        accepted.forEach((index, transaction) -> uploads.put(index, CompletableFuture.supplyAsync(() -> {
+            try {
+                FileStorageService.StagedFile staged = fileStorageService.stage(files.get(index), principal);
+                transaction.setDocname(staged.docname());
+                transaction.setFilepath(staged.key());
+                transaction.setFileContentType(staged.contentType());
+                return staged;
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }, uploadExecutor)));
+
+        Map<Integer, FileStorageService.StagedFile> staged = new HashMap<>();
+        uploads.forEach((index, upload) -> {
+            try {
+                staged.put(index, upload.join());
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Bulk upload of {} failed: {}", results.get(index).getDocname(), cause.getMessage());
+                results.get(index).failed(cause.getMessage());
+                accepted.remove(index);
+            }
+        });
+        return staged;
+    }
+
+    private void persist(Map<Integer, MasterTransaction> accepted, Map<Integer, FileStorageService.StagedFile> staged,
+                         List<BulkUploadResultDTO> results, String username) {
+        Date now = new Date();
+        accepted.values().forEach(transaction -> transaction.setCreatedDate(now));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<MasterTransaction> saved = masterTransactionRepository.saveAll(accepted.values());
+                for (MasterTransaction transaction : saved) {
+                    complianceMatrixService.recordSubmission(transaction);
+                    // Dispatched to ARCHIVER users once the batch has committed
+                    eventPublisher.publishEvent(WorkflowEvent.reportUploaded(transaction, username));
+                }
+            });
+            accepted.forEach((index, transaction) -> {
+                results.get(index).succeeded(transaction.getId());
+                fileStorageService.release(staged.get(index));
+            });
+        } catch (RuntimeException e) {
+            log.error("Bulk upload insert failed for {} files", accepted.size(), e);
+            accepted.keySet().forEach(index -> {
+                results.get(index).failed("Could not save transaction: " + e.getMessage());
+                fileStorageService.discard(staged.get(index));
+            });
+        }
+    }
+
+    private static boolean isFeedback(String reportcategory) {
+        return reportcategory != null && "Feedback".equalsIgnoreCase(reportcategory.trim());
+    }
+
+    private static String docname(MultipartFile file) {
+        String original = file != null ? file.getOriginalFilename() : null;
+        return StringUtils.cleanPath(original != null ? original : "unnamed_file");
+    }
+}
@@ -0,0 +1,151 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.dto.BulkWorkflowRequest;
+import com.simon.armas_springboot_api.dto.BulkWorkflowResultDTO;
+import com.simon.armas_springboot_api.events.WorkflowEvent;
+import com.simon.armas_springboot_api.exception.WorkflowConflictException;
+import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.User;
+import com.simon.armas_springboot_api.repositories.UserRepository;
+import com.simon.armas_springboot_api.security.services.EffectivePermissionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Assigns, approves or rejects many reports in one request. The acting user (and auditor)
+ * are resolved once, the reports move with one conditional UPDATE per call, and the
+ * resulting notifications are published together so the dispatcher writes them in one
+ * batch. Reports that cannot take the action are reported per id and do not block the rest.
+ */
+@Service
+public class BulkWorkflowService {
+    private static final Logger log = LoggerFactory.getLogger(BulkWorkflowService.class);
+
+    private final WorkflowEngine workflowEngine;
+    private final UserRepository userRepository;
+    private final EffectivePermissionService effectivePermissionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxIds;
+
+    public BulkWorkflowService(WorkflowEngine workflowEngine,
+                               UserRepository userRepository,
+                               EffectivePermissionService effectivePermissionService,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${armas.workflow.bulk.max-ids:500}") int maxIds) {
+        this.workflowEngine = workflowEngine;
+        this.userRepository = userRepository;
+        this.effectivePermissionService = effectivePermissionService;
+        this.eventPublisher = eventPublisher;
+        this.maxIds = maxIds;
+    }
+
+    @Transactional
+    public List<BulkWorkflowResultDTO> assign(BulkWorkflowRequest request, String currentUsername) {
+        List<Integer> ids = validate(request);
+        User archiver = actor(currentUsername, "Unauthorized: Must be an Archiver");
+        User auditor = userRepository.findByUsername(request.getAuditorUsername());
+        if (auditor == null
+                || !effectivePermissionService.forUser(auditor.getId()).roles().contains("SENIOR_AUDITOR")) {
+            throw new IllegalArgumentException("Invalid Senior Auditor: " + request.getAuditorUsername());
+        }
+
+        WorkflowEngine.BulkOutcome outcome = workflowEngine
+                .transitionAll(ids, WorkflowEngine.Transition.ASSIGN, currentUsername)
+                .set("user2", auditor)
+                .set("assignedBy", archiver)
+                .applyAll();
+        return results(ids, outcome, transaction -> WorkflowEvent.taskAssigned(transaction, auditor, currentUsername));
+    }
+
+    @Transactional
+    public List<BulkWorkflowResultDTO> approve(BulkWorkflowRequest request, String currentUsername) {
+        List<Integer> ids = validate(request);
+        actor(currentUsername, "Unauthorized: Must have APPROVER role");
+
+        WorkflowEngine.BulkOutcome outcome = workflowEngine
+                .transitionAll(ids, WorkflowEngine.Transition.APPROVE, currentUsername)
+                .applyAll();
+        // Notify the ARCHIVER who assigned each task
+        return results(ids, outcome, transaction -> transaction.getAssignedBy() != null
+                ? WorkflowEvent.taskApproved(transaction, currentUsername) : null);
+    }
+
+    @Transactional
+    public List<BulkWorkflowResultDTO> reject(BulkWorkflowRequest request, String currentUsername) {
+        List<Integer> ids = validate(request);
+        if (request.getRejectionReason() == null || request.getRejectionReason().isBlank()) {
+            throw new IllegalArgumentException("A rejection reason is required");
+        }
+        User approver = actor(currentUsername, "Unauthorized: Must have APPROVER role");
+
+        WorkflowEngine.BulkOutcome outcome = workflowEngine
+                .transitionAll(ids, WorkflowEngine.Transition.REJECT, currentUsername)
+                .requireEqual("user2", approver, "Unauthorized: Must be the assigned Approver")
+                .set("reason_of_rejection", request.getRejectionReason())
+                .copy("user2", "submittedByAuditor")
+                .applyAll();
+        return results(ids, outcome, transaction -> null);
+    }
+
+    private List<Integer> validate(BulkWorkflowRequest request) {
+        List<Integer> ids = new ArrayList<>();
+        if (request != null && request.getTransactionIds() != null) {
+            ids.addAll(new LinkedHashSet<>(request.getTransactionIds()));
+            ids.remove(null);
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one transaction id is required");
+        }
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " reports can be processed at once");
+        }
+        return ids;
+    }
+
+    private User actor(String username, String message) {
+        User user = userRepository.findByUsername(username);
+        if (user == null) {
+            throw new IllegalArgumentException(message);
+        }
+        return user;
+    }
+
+    /** One result per requested id, in request order; publishes the events of the applied ones. */
+    private List<BulkWorkflowResultDTO> results(List<Integer> ids, WorkflowEngine.BulkOutcome outcome,
+                                                Function<MasterTransaction, WorkflowEvent> event) {
+        Map<Integer, MasterTransaction> applied = new HashMap<>();
+        for (MasterTransaction transaction : outcome.applied()) {
+            applied.put(transaction.getId(), transaction);
+            WorkflowEvent workflowEvent = event.apply(transaction);
+            if (workflowEvent != null) {
+                eventPublisher.publishEvent(workflowEvent);
+            }
+        }
+
+        List<BulkWorkflowResultDTO> results = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            MasterTransaction transaction = applied.get(id);
+            RuntimeException failure = outcome.failed().get(id);
+            if (transaction != null) {
+                results.add(BulkWorkflowResultDTO.succeeded(id, transaction.getReportstatus()));
+            } else if (failure instanceof WorkflowConflictException conflict) {
+                results.add(BulkWorkflowResultDTO.conflicted(id, conflict.getCurrentStatus(), conflict.getMessage()));
+            } else {
+                results.add(BulkWorkflowResultDTO.failed(id, failure != null ? failure.getMessage() : "Not processed"));
+            }
+        }
+        log.info("Bulk workflow action: {} of {} reports moved", outcome.applied().size(), ids.size());
+        return results;
+    }
+}
@@ -0,0 +1,108 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.events.ComplianceMatrixRebuiltEvent;
+import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.Organization;
+import com.simon.armas_springboot_api.repositories.ComplianceMatrixRepository;
+import com.simon.armas_springboot_api.repositories.MasterTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Keeps the compliance_matrix_cell table in step with master_transaction so sender and
+ * non-sender questions are answered from one row per organization/document/budget year/category
+ * instead of scanning every transaction. Uploads add to the matrix as they commit; the
+ * application never deletes a transaction or changes its category, so anything else that
+ * does (data fixes, manual deletes) is reconciled by the scheduled rebuild.
+ */
+@Service
+public class ComplianceMatrixService {
+    private static final Logger log = LoggerFactory.getLogger(ComplianceMatrixService.class);
+
+    public static final String REPORT = "Report";
+    public static final String FEEDBACK = "Feedback";
+
+    private final ComplianceMatrixRepository complianceMatrixRepository;
+    private final MasterTransactionRepository masterTransactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ComplianceMatrixService(ComplianceMatrixRepository complianceMatrixRepository,
+                                   MasterTransactionRepository masterTransactionRepository,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.complianceMatrixRepository = complianceMatrixRepository;
+        this.masterTransactionRepository = masterTransactionRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Counts a new submission. Runs inside the upload transaction, so the matrix commits
+     * or rolls back together with the master_transaction row.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSubmission(MasterTransaction transaction) {
+        if (transaction.getOrganization() == null || transaction.getTransactiondocument() == null
+                || transaction.getBudgetYear() == null || transaction.getReportcategory() == null) {
+            return;
+        }
+        complianceMatrixRepository.recordSubmission(
+                transaction.getOrganization().getId(),
+                transaction.getTransactiondocument().getId(),
+                transaction.getBudgetYear().getId(),
+                transaction.getReportcategory(),
+                transaction.getCreatedDate());
+    }
+
+    /**
+     * Recomputes the whole matrix from master_transaction in one transaction and, once that
+     * commits, has the cached dashboard counts dropped. Returns the number of cells written.
+     */
+    @Transactional
+    public int rebuild() {
+        long started = System.currentTimeMillis();
+        complianceMatrixRepository.deleteAllCells();
+        int cells = complianceMatrixRepository.rebuildFromTransactions();
+        log.info("Rebuilt compliance matrix: {} cells in {} ms", cells, System.currentTimeMillis() - started);
+        eventPublisher.publishEvent(new ComplianceMatrixRebuiltEvent(cells));
+        return cells;
+    }
+
+    // Reconciles counts with rows deleted or re-categorized outside the upload paths
+    @Scheduled(cron = "${armas.compliance-matrix.rebuild-cron:0 30 2 * * *}")
+    @Transactional
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Seed the matrix on first start against an existing database
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (complianceMatrixRepository.count() == 0 && masterTransactionRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Organization> findNonSenders(String reportcategory, String reportype, String fiscalYear) {
+        return complianceMatrixRepository.findNonSenders(reportcategory, reportype, fiscalYear);
+    }
+
+    @Transactional(readOnly = true)
+    public long countSenders(String reportcategory, String fiscalYear) {
+        return complianceMatrixRepository.countSenders(reportcategory, fiscalYear);
+    }
+
+    @Transactional(readOnly = true)
+    public long countSenders(String reportcategory, String reportype, String fiscalYear) {
+        return complianceMatrixRepository.countSenders(reportcategory, reportype, fiscalYear);
+    }
+}
@@ -0,0 +1,132 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.dto.DashboardCounts;
+import com.simon.armas_springboot_api.events.ComplianceMatrixRebuiltEvent;
+import com.simon.armas_springboot_api.events.WorkflowEvent;
+import com.simon.armas_springboot_api.repositories.ComplianceMatrixRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dashboard counters per fiscal year, computed with one SQL statement and cached for a short TTL.
+ * Concurrent requests for a missing or expired year share a single computation; uploads evict
+ * the year they belong to once they commit, and a matrix rebuild evicts every year.
+ */
+@Service
+public class DashboardStatsService {
+
+    private static final String AUDIT_PLAN = "Audit Plan";
+
+    private final ComplianceMatrixRepository complianceMatrixRepository;
+    private final Map<String, CachedStats> cache = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    public DashboardStatsService(ComplianceMatrixRepository complianceMatrixRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${armas.dashboard.cache-ttl-ms:60000}") long ttlMillis) {
+        this.complianceMatrixRepository = complianceMatrixRepository;
+        this.ttlMillis = ttlMillis;
+        this.hits = Counter.builder("armas.dashboard.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("armas.dashboard.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    public Map<String, Long> getStats(String fiscalYear) {
+        long now = System.currentTimeMillis();
+        CachedStats current = cache.get(fiscalYear);
+        if (current != null && !current.isExpired(now)) {
+            hits.increment();
+            return await(current.stats);
+        }
+
+        // Only the caller whose entry wins the race computes; everyone else waits on its future
+        CachedStats fresh = new CachedStats(new CompletableFuture<>(), now + ttlMillis);
+        CachedStats winner = cache.compute(fiscalYear,
+                (key, existing) -> existing != null && !existing.isExpired(now) ? existing : fresh);
+        if (winner != fresh) {
+            hits.increment();
+            return await(winner.stats);
+        }
+
+        misses.increment();
+        try {
+            fresh.stats.complete(load(fiscalYear));
+        } catch (RuntimeException e) {
+            fresh.stats.completeExceptionally(e);
+            cache.remove(fiscalYear, fresh);
+        }
+        return await(fresh.stats);
+    }
+
+    public void invalidate(String fiscalYear) {
+        if (fiscalYear != null) {
+            cache.remove(fiscalYear);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkflowEvent(WorkflowEvent event) {
+        if (event.getType() == WorkflowEvent.Type.REPORT_UPLOADED) {
+            invalidate(event.getFiscalYear());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMatrixRebuilt(ComplianceMatrixRebuiltEvent event) {
+        invalidateAll();
+    }
+
+    private Map<String, Long> load(String fiscalYear) {
+        DashboardCounts counts = complianceMatrixRepository.dashboardCounts(fiscalYear, AUDIT_PLAN);
+        long totalOrganizations = counts.getTotalOrganizations();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("totalOrganizations", totalOrganizations);
+        stats.put("totalReportTypes", counts.getTotalReportTypes());
+        stats.put("senders", counts.getSenders());
+        stats.put("nonSenders", totalOrganizations - counts.getSenders());
+        stats.put("auditPlanSenders", counts.getReportTypeSenders());
+        stats.put("auditPlanNonSenders", totalOrganizations - counts.getReportTypeSenders());
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static Map<String, Long> await(CompletableFuture<Map<String, Long>> stats) {
+        try {
+            return stats.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class CachedStats {
+        private final CompletableFuture<Map<String, Long>> stats;
+        private final long expiresAt;
+
+        private CachedStats(CompletableFuture<Map<String, Long>> stats, long expiresAt) {
+            this.stats = stats;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -10,10 +10,12 @@ import java.util.List;
 public class DirectorateService {
 
     private final DirectorateRepository directorateRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     @Autowired
-    public DirectorateService(DirectorateRepository directorateRepository) {
+    public DirectorateService(DirectorateRepository directorateRepository, ReferenceDataCache referenceDataCache) {
         this.directorateRepository = directorateRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     public List<Directorate> getAllDirectorates() {
@@ -33,9 +35,12 @@ public class DirectorateService {
     }
 
     public Directorate save(Directorate directorate) {
-        return directorateRepository.save(directorate);
+        Directorate saved = directorateRepository.save(directorate);
+        referenceDataCache.evict(Directorate.class);
+        return saved;
     }
 
     public void deleteDirectorate(String id) {
         directorateRepository.deleteById(id);
+        referenceDataCache.evict(Directorate.class);
     }}
\ No newline at end of file
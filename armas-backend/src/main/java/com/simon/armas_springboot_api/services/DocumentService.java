@@ -12,10 +12,12 @@ import java.util.List;
 public class DocumentService {
 
     private final DocumentRepository documentRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     @Autowired
-    public DocumentService(DocumentRepository documentRepository) {
+    public DocumentService(DocumentRepository documentRepository, ReferenceDataCache referenceDataCache) {
         this.documentRepository = documentRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     public List<Document> getAllDocuments() {
@@ -33,11 +35,14 @@ public class DocumentService {
         if (document.getDirectorate() == null) {
             throw new IllegalArgumentException("Directorate cannot be null");
         }
-        return documentRepository.save(document);
+        Document saved = documentRepository.save(document);
+        referenceDataCache.evict(Document.class);
+        return saved;
     }
 
     public void deleteDocument(String id) {
         documentRepository.deleteById(id);
+        referenceDataCache.evict(Document.class);
     }
 
     public boolean existsByReportype(String reportype) {
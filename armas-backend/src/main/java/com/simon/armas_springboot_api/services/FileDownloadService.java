@@ -0,0 +1,174 @@
+package com.simon.armas_springboot_api.services;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves stored files with HTTP Range, ETag and Last-Modified support.
+ * When the connector supports it the body is handed to Tomcat's sendfile, otherwise it is
+ * copied with FileChannel.transferTo so the bytes never pass through a heap buffer.
+ */
+@Service
+public class FileDownloadService {
+    private static final Logger log = LoggerFactory.getLogger(FileDownloadService.class);
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * @param contentHash hex SHA-256 of the file, used as a strong ETag; null for legacy rows,
+     *                    which get a weak ETag derived from size and modification time
+     */
+    public void send(Path path, String contentHash, String fileName, String contentType,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis() / 1000 * 1000;
+        String eTag = contentHash != null
+                ? "\"" + contentHash + "\""
+                : "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=0, must-revalidate");
+
+        if (isNotModified(request, eTag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && rangeApplies(request, eTag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Multi-range responses are optional; serve the whole file instead of multipart/byteranges
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        response.setContentLengthLong(count);
+        if (count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Tomcat writes the region with sendfile once the handler returns
+            request.setAttribute(SENDFILE_FILENAME_ATTR, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+            if (remaining > 0) {
+                log.warn("Download of {} ended early with {} bytes unsent", fileName, remaining);
+            }
+        }
+    }
+
+    private boolean isNotModified(HttpServletRequest request, String eTag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesAny(ifNoneMatch, eTag, false);
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * If-Range only honours the Range header when the client's validator still matches;
+     * entity tags are compared strongly, so weak legacy tags always fall back to a full response.
+     */
+    private boolean rangeApplies(HttpServletRequest request, String eTag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return matchesAny(ifRange, eTag, true);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date != -1 && lastModified == date;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean matchesAny(String header, String eTag, boolean strong) {
+        if (strong && eTag.startsWith("W/")) {
+            return false;
+        }
+        String current = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                if (strong) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
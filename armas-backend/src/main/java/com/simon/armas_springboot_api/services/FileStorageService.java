@@ -1,50 +1,152 @@
 package com.simon.armas_springboot_api.services;
 
-import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.StoredFile;
+import com.simon.armas_springboot_api.repositories.MasterTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.security.Principal;
+import java.util.Optional;
 
 @Service
 public class FileStorageService {
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
 
-    public String storeFile(MultipartFile file, MasterTransaction trans, Principal principal, boolean isSupporting) throws IOException {
+    private final StorageEngine storageEngine;
+    private final MasterTransactionRepository masterTransactionRepository;
+
+    public FileStorageService(StorageEngine storageEngine, MasterTransactionRepository masterTransactionRepository) {
+        this.storageEngine = storageEngine;
+        this.masterTransactionRepository = masterTransactionRepository;
+    }
+
+    /**
+     * An upload written to storage ahead of the database transaction that will reference it.
+     * created is false when identical content was already stored, in which case the object
+     * may belong to other rows and is never removed by {@link #discard(StagedFile)}.
+     */
+    public record StagedFile(String key, String docname, String contentType, boolean created) {
+    }
+
+    /**
+     * Streams the upload into the storage engine and works out its content type from the original
+     * file name (or the declared type), so that the caller only has to record the returned key and
+     * metadata in its (short) transaction. Must be called outside a transaction and followed by
+     * {@link #release(StagedFile)} after commit or {@link #discard(StagedFile)} on failure.
+     */
+    public StagedFile stage(MultipartFile file, Principal principal) throws IOException {
         if (file == null || file.isEmpty()) {
             throw new IOException("No file provided for upload.");
         }
-
-        String docname = StringUtils.cleanPath(file.getOriginalFilename() != null ? file.getOriginalFilename() : "unnamed_file");
-        if (!isSupporting) {
-            trans.setDocname(docname); // Set docname only for original report
-        } else {
-            trans.setSupportingDocname(docname); // Set supportingDocname for audit findings
+        String docname = docname(file);
+        try {
+            StoredFile stored = storageEngine.store(file.getInputStream());
+            log.info("Stored '{}' for {} as {} ({} bytes, new={})",
+                    docname, principal.getName(), stored.key(), stored.size(), stored.created());
+            return new StagedFile(stored.key(), docname, probeContentType(docname, file.getContentType()), stored.created());
+        } catch (IOException ioe) {
+            throw new IOException("Could not save file: " + docname, ioe);
         }
+    }
 
-        String createdBy = principal.getName();
-        String uploadDir = "C:/AMSReports/" + createdBy;
-        Path uploadPath = Paths.get(uploadDir);
+    /** Unpins a staged upload once the transaction that references it has committed. */
+    public void release(StagedFile staged) {
+        if (staged != null) {
+            storageEngine.release(staged.key());
+        }
+    }
 
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    /**
+     * Compensates a staged upload whose database step failed: the object is deleted if this
+     * upload created it, no other upload of the same content is in flight and no report
+     * references its key. Never throws, so the caller can rethrow the original failure.
+     */
+    public void discard(StagedFile staged) {
+        if (staged == null) {
+            return;
         }
+        if (!staged.created()) {
+            storageEngine.release(staged.key());
+            return;
+        }
+        try {
+            if (storageEngine.discard(staged.key(), key -> !masterTransactionRepository.isStorageKeyReferenced(key))) {
+                log.info("Discarded staged upload '{}' ({})", staged.docname(), staged.key());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not discard staged upload {}: {}", staged.key(), e.getMessage());
+        }
+    }
 
-        try (InputStream inputStream = file.getInputStream()) {
-            Path filePath = uploadPath.resolve(docname);
-            System.out.println("Saving file to: " + filePath.toFile().getAbsolutePath());
-            Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
-            return filePath.toString();
-        } catch (IOException ioe) {
-            throw new IOException("Could not save file: " + docname, ioe);
+    public static String docname(MultipartFile file) {
+        return StringUtils.cleanPath(file.getOriginalFilename() != null ? file.getOriginalFilename() : "unnamed_file");
+    }
+
+    /**
+     * Maps a persisted storage key (or a legacy absolute path) to the file on disk.
+     */
+    public Path resolve(String key) {
+        return storageEngine.resolve(key);
+    }
+
+    public boolean exists(String key) {
+        return storageEngine.exists(key);
+    }
+
+    public String contentHash(String key) {
+        return storageEngine.contentHash(key);
+    }
+
+    /**
+     * Works out the content type of an upload from its original file name. Stored objects are
+     * named by content hash and have no extension, so the name, never the storage key, is what
+     * gets probed. Callers cache the result on the transaction row so downloads do not probe again.
+     */
+    public String probeContentType(String docname) {
+        return probeContentType(docname, null);
+    }
+
+    /**
+     * As {@link #probeContentType(String)}, falling back to the type the client declared for the
+     * upload when the name does not tell.
+     */
+    public String probeContentType(String docname, String declaredType) {
+        if (StringUtils.hasText(docname)) {
+            Optional<MediaType> byName = MediaTypeFactory.getMediaType(docname);
+            if (byName.isPresent()) {
+                return byName.get().toString();
+            }
+            try {
+                String probed = Files.probeContentType(Path.of(docname).getFileName());
+                if (probed != null) {
+                    return probed;
+                }
+            } catch (IOException | InvalidPathException e) {
+                log.debug("Could not probe content type of '{}': {}", docname, e.getMessage());
+            }
+        }
+        if (StringUtils.hasText(declaredType)) {
+            try {
+                return MediaType.parseMediaType(declaredType).toString();
+            } catch (InvalidMediaTypeException e) {
+                log.debug("Ignoring declared content type '{}': {}", declaredType, e.getMessage());
+            }
         }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
     }
 
-    // storeLetter method remains unchanged or can be removed if unused
-}
\ No newline at end of file
+    /** True when the content type says nothing beyond "some bytes" and is worth probing again. */
+    public static boolean isUnknownContentType(String contentType) {
+        return !StringUtils.hasText(contentType) || MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(contentType);
+    }
+}
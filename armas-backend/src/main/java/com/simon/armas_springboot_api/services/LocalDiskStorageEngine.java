@@ -0,0 +1,184 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.models.StoredFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store on the local file system.
+ * Uploads are streamed to a temp file while the SHA-256 is computed and then moved to
+ * objects/ab/cd/abcd... so identical files uploaded by several organizations are kept once.
+ * Pins (see {@link StorageEngine#store(InputStream)}) are held in memory, so discards are only
+ * safe against uploads handled by the same process.
+ */
+@Service
+public class LocalDiskStorageEngine implements StorageEngine {
+    private static final Logger log = LoggerFactory.getLogger(LocalDiskStorageEngine.class);
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path objectsDir;
+    private final Path tmpDir;
+    private final Map<String, Integer> pins = new ConcurrentHashMap<>();
+    // Serialize the exists/move/pin of a store against the pin check/delete of a discard, per hash
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public LocalDiskStorageEngine(@Value("${armas.storage.root:C:/AMSReports}") String root) {
+        Path rootPath = Paths.get(root).toAbsolutePath().normalize();
+        this.objectsDir = rootPath.resolve("objects");
+        this.tmpDir = rootPath.resolve("tmp");
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public StoredFile store(InputStream content) throws IOException {
+        Files.createDirectories(tmpDir);
+        Path temp = Files.createTempFile(tmpDir, "upload-", ".part");
+        MessageDigest digest = newDigest();
+        long size = 0;
+        try (InputStream in = content; OutputStream out = Files.newOutputStream(temp)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                size += read;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        String hash = HexFormat.of().formatHex(digest.digest());
+        synchronized (lockFor(hash)) {
+            StoredFile stored = moveIntoPlace(temp, hash, size);
+            pins.merge(hash, 1, Integer::sum);
+            return stored;
+        }
+    }
+
+    private StoredFile moveIntoPlace(Path temp, String hash, long size) throws IOException {
+        Path target = objectPath(hash);
+        if (Files.exists(target)) {
+            Files.deleteIfExists(temp);
+            log.debug("De-duplicated upload {} ({} bytes)", hash, size);
+            return new StoredFile(hash, hash, size, false);
+        }
+
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (FileAlreadyExistsException e) {
+            // A concurrent upload of the same content won the race
+            Files.deleteIfExists(temp);
+            return new StoredFile(hash, hash, size, false);
+        }
+        log.debug("Stored upload {} ({} bytes)", hash, size);
+        return new StoredFile(hash, hash, size, true);
+    }
+
+    @Override
+    public Path resolve(String key) {
+        if (key == null) {
+            return null;
+        }
+        if (isContentKey(key)) {
+            return objectPath(key);
+        }
+        // Rows written before the content-addressed layout hold an absolute OS path
+        return Paths.get(key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        Path path = resolve(key);
+        return path != null && Files.exists(path);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        if (!isContentKey(key)) {
+            return false;
+        }
+        return Files.deleteIfExists(objectPath(key));
+    }
+
+    @Override
+    public void release(String key) {
+        if (isContentKey(key)) {
+            synchronized (lockFor(key)) {
+                unpin(key);
+            }
+        }
+    }
+
+    @Override
+    public boolean discard(String key, Predicate<String> unused) throws IOException {
+        if (!isContentKey(key)) {
+            return false;
+        }
+        synchronized (lockFor(key)) {
+            if (unpin(key) > 0 || !unused.test(key)) {
+                // Another upload of the same content is in flight, or a committed row uses it
+                return false;
+            }
+            return Files.deleteIfExists(objectPath(key));
+        }
+    }
+
+    @Override
+    public String contentHash(String key) {
+        // Keys are the content hash itself
+        return isContentKey(key) ? key : null;
+    }
+
+    static boolean isContentKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+
+    /** Drops one pin and returns how many remain; callers hold the key's lock. */
+    private int unpin(String key) {
+        Integer remaining = pins.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        return remaining != null ? remaining : 0;
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), locks.length)];
+    }
+
+    private Path objectPath(String hash) {
+        return objectsDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
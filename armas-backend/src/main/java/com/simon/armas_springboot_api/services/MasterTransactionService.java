@@ -2,10 +2,13 @@ package com.simon.armas_springboot_api.services;
 
 import com.simon.armas_springboot_api.dto.SentReportResponseDTO;
 import com.simon.armas_springboot_api.dto.MasterTransactionDTO;
+import com.simon.armas_springboot_api.dto.TaskPageDTO;
+import com.simon.armas_springboot_api.dto.TransactionSummaryView;
+import com.simon.armas_springboot_api.events.WorkflowEvent;
 import com.simon.armas_springboot_api.models.Document;
 import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.ReportStatus;
 import com.simon.armas_springboot_api.models.User;
-import com.simon.armas_springboot_api.models.Notification;
 import com.simon.armas_springboot_api.models.BudgetYear;
 import com.simon.armas_springboot_api.repositories.BudgetYearRepository;
 import com.simon.armas_springboot_api.repositories.DocumentRepository;
@@ -13,23 +16,27 @@ import com.simon.armas_springboot_api.repositories.OrganizationRepository;
 import com.simon.armas_springboot_api.repositories.MasterTransactionRepository;
 import com.simon.armas_springboot_api.repositories.OrganizationRepository;
 import com.simon.armas_springboot_api.repositories.UserRepository;
-import com.simon.armas_springboot_api.repositories.NotificationRepository;
 import com.simon.armas_springboot_api.dto.UserDTO;
 
 import com.simon.armas_springboot_api.security.models.Role;
+import com.simon.armas_springboot_api.security.services.EffectivePermissionService;
 import org.springframework.beans.factory.annotation.Autowired;
 //import collection
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import com.simon.armas_springboot_api.services.FileStorageService;
 import org.springframework.dao.DataIntegrityViolationException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.Principal;
@@ -40,6 +47,9 @@ import java.util.HashMap;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.Date;
+import java.util.Base64;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.Collections;
 //import organization
 
@@ -64,21 +74,21 @@ public class MasterTransactionService {
     @Autowired
     private OrganizationRepository organizationRepository;
     @Autowired
-    private NotificationRepository notificationRepository;
-    
-    private void createNotification(User user, String title, String message, String entityType, Long entityId, String context) {
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setTitle(title);
-        notification.setMessage(message);
-        notification.setEntityType(entityType);
-        notification.setEntityId(entityId);
-        notification.setContext(context);
-        notificationRepository.save(notification);
-    }
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ComplianceMatrixService complianceMatrixService;
+    @Autowired
+    private EffectivePermissionService effectivePermissionService;
+    @Autowired
+    private WorkflowEngine workflowEngine;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Upload and review actions that carry a file are deliberately not @Transactional: the
+    // file is staged first, then only the row changes run in a short transaction, so no
+    // database connection is held while an upload streams to disk.
 
     // Upload file by Uploader
-   @Transactional
     public MasterTransaction uploadFile(MultipartFile file, Long budgetYearId, String reportcategory,
             String transactionDocumentId, Principal principal) throws IOException {
         User user = userRepository.findByUsername(principal.getName());
@@ -113,16 +123,19 @@ public class MasterTransactionService {
             }
         }
 
+        FileStorageService.StagedFile staged = fileStorageService.stage(file, principal);
+
         MasterTransaction transaction = new MasterTransaction();
         transaction.setUser(user);
         transaction.setUser2(null);
         transaction.setOrganization(user.getOrganization());
-        transaction.setDocname(docname);
-        transaction.setReportstatus("Submitted");
+        transaction.setDocname(staged.docname());
+        transaction.setReportstatus(ReportStatus.SUBMITTED.label());
         transaction.setReportcategory(reportcategory);
         transaction.setBudgetYear(budgetYear); // Set BudgetYear entity
         transaction.setTransactiondocument(document);
-        transaction.setFilepath(fileStorageService.storeFile(file, transaction, principal, false));
+        transaction.setFilepath(staged.key());
+        transaction.setFileContentType(staged.contentType());
         transaction.setCreatedDate(new Date());
         transaction.setCreatedBy(principal.getName());
 
@@ -130,102 +143,104 @@ public class MasterTransactionService {
             transaction.setResponse_needed("Pending");
         }
 
-        MasterTransaction savedTransaction = masterTransactionRepository.save(transaction);
-
-        // Notify all ARCHIVER users
-        List<User> archivers = userRepository.findByRoleName("ARCHIVER");
-        for (User archiver : archivers) {
-            createNotification(
-                        archiver,
-                        "New Report Uploaded",
-                        "A new report '" + savedTransaction.getDocname() + "' has been uploaded by " + principal.getName(),
-                        "MasterTransaction",
-                        savedTransaction.getId().longValue(),
-                        "report_uploaded"
-                    );
-        }
+        return inTransaction(staged, () -> {
+            MasterTransaction savedTransaction = masterTransactionRepository.save(transaction);
+            complianceMatrixService.recordSubmission(savedTransaction);
 
-        return savedTransaction;
+            // Notify all ARCHIVER users once the upload has committed
+            eventPublisher.publishEvent(WorkflowEvent.reportUploaded(savedTransaction, principal.getName()));
+            return savedTransaction;
+        });
     }
     
 // src/main/java/com/yourpackage/service/MasterTransactionService.java
-@Transactional
 public MasterTransaction uploadLetter(Integer transactionId, MultipartFile letter, String currentUsername) throws IOException {
     User archiver = userRepository.findByUsername(currentUsername);
-    if (archiver == null || !archiver.getRoles().stream().anyMatch(r -> "ARCHIVER".equals(r.getDescription()))) {
+    // The ARCHIVER role itself is enforced by AuthorizationRules before this is reached
+    if (archiver == null) {
         throw new IllegalArgumentException("Unauthorized: Must be an ARCHIVER");
     }
 
-    MasterTransaction transaction = masterTransactionRepository.findById(transactionId)
-            .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + transactionId));
+    if (!masterTransactionRepository.existsById(transactionId)) {
+        throw new IllegalArgumentException("Transaction not found: " + transactionId);
+    }
 
     if (letter == null || letter.isEmpty()) {
         throw new IllegalArgumentException("Letter file is required");
     }
 
-    String letterPath = fileStorageService.storeFile(letter, transaction, new Principal() {
-        @Override
-        public String getName() {
-            return currentUsername;
-        }
-    }, true); // true indicates a supporting/letter file
-
-    transaction.setLetterPath(letterPath);
-    transaction.setLetterDocname(letter.getOriginalFilename());
-    transaction.setLastModifiedBy(currentUsername);
-
-    MasterTransaction savedTransaction = masterTransactionRepository.save(transaction);
-
-    // Notify the USER who uploaded the original transaction
-    User uploader = transaction.getUser();
-    if (uploader != null) {
-        createNotification(
-                uploader,
-                "Letter Uploaded",
-                "A letter '" + savedTransaction.getLetterDocname() + "' has been uploaded for your report '" + savedTransaction.getDocname() + "' by " + currentUsername,
-                "MasterTransaction",
-                savedTransaction.getId().longValue(),
-                "letter_uploaded"
-        );
-    } else {
-        System.err.println("No uploader found for transaction ID: " + transactionId);
-    }
+    FileStorageService.StagedFile staged = fileStorageService.stage(letter, () -> currentUsername);
 
-    // Notify all MANAGER users in the same organization
-    if (transaction.getOrganization() != null && transaction.getOrganization().getId() != null) {
-        List<User> managers = userRepository.findByRoleNameAndOrganizationId("MANAGER", transaction.getOrganization().getId());
-        if (managers.isEmpty()) {
-            System.err.println("No MANAGER users found for organization ID: " + transaction.getOrganization().getId());
-        } else {
-            for (User manager : managers) {
-                createNotification(
-                        manager,
-                        "Letter Uploaded",
-                        "A letter '" + savedTransaction.getLetterDocname() + "' has been uploaded for report '" + savedTransaction.getDocname() + "' by " + currentUsername,
-                        "MasterTransaction",
-                        savedTransaction.getId().longValue(),
-                        "letter_uploaded"
-                );
-            }
-        }
-    } else {
-        System.err.println("No organization found for transaction ID: " + transactionId);
-    }
+    return inTransaction(staged, () -> {
+        MasterTransaction transaction = masterTransactionRepository.findById(transactionId)
+                .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + transactionId));
+        transaction.setLetterPath(staged.key());
+        transaction.setLetterDocname(staged.docname());
+        transaction.setLetterContentType(staged.contentType());
+        transaction.setLastModifiedBy(currentUsername);
 
-    return savedTransaction;
+        MasterTransaction savedTransaction = masterTransactionRepository.save(transaction);
+
+        // Notify the USER who uploaded the original transaction and the MANAGERs of the organization
+        eventPublisher.publishEvent(WorkflowEvent.letterUploaded(savedTransaction, currentUsername));
+        return savedTransaction;
+    });
 }
 
     public Map<String, Path> getFilePaths(Integer id) {
         MasterTransaction transaction = masterTransactionRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + id));
         Map<String, Path> paths = new HashMap<>();
-        paths.put("original", Paths.get(transaction.getFilepath()));
+        paths.put("original", fileStorageService.resolve(transaction.getFilepath()));
         if (transaction.getSupportingDocumentPath() != null) {
-            paths.put("supporting", Paths.get(transaction.getSupportingDocumentPath()));
+            paths.put("supporting", fileStorageService.resolve(transaction.getSupportingDocumentPath()));
         }
         return paths;
     }
 
+    /**
+     * Returns the content type cached on the row for the given download type. Rows uploaded
+     * before it was cached, or cached as application/octet-stream, are probed by their original
+     * file name; only a type that was actually recognised is persisted.
+     */
+    @Transactional
+    public String resolveContentType(MasterTransaction transaction, String type) {
+        Integer id = transaction.getId();
+        switch (type) {
+            case "original":
+                return cachedContentType(transaction.getFileContentType(), transaction.getDocname(),
+                        contentType -> masterTransactionRepository.updateFileContentType(id, contentType));
+            case "supporting":
+                return cachedContentType(transaction.getSupportingContentType(), transaction.getSupportingDocname(),
+                        contentType -> masterTransactionRepository.updateSupportingContentType(id, contentType));
+            case "letter":
+                return cachedContentType(transaction.getLetterContentType(), transaction.getLetterDocname(),
+                        contentType -> masterTransactionRepository.updateLetterContentType(id, contentType));
+            default:
+                throw new IllegalArgumentException("Invalid download type: " + type);
+        }
+    }
+
+    /**
+     * Marks the report as started the first time its assigned auditor downloads it, after
+     * which auto-assignment no longer moves it to someone else.
+     */
+    @Transactional
+    public void markStartedByAssignee(Integer transactionId, Long userId) {
+        masterTransactionRepository.markAuditorStarted(transactionId, userId, new Date());
+    }
+
+    private String cachedContentType(String cached, String docname, Consumer<String> store) {
+        if (!FileStorageService.isUnknownContentType(cached)) {
+            return cached;
+        }
+        String contentType = fileStorageService.probeContentType(docname);
+        if (!FileStorageService.isUnknownContentType(contentType)) {
+            store.accept(contentType);
+        }
+        return contentType;
+    }
+
     public List<SentReportResponseDTO> getSentReportData(String role) {
         List<String> statuses;
         if ("ARCHIVER".equals(role)) {
@@ -256,59 +271,58 @@ public MasterTransaction uploadLetter(Integer transactionId, MultipartFile lette
     @Transactional
     public MasterTransaction assignAuditor(Integer transactionId, String auditorUsername, String currentUsername) {
         User archiver = userRepository.findByUsername(currentUsername);
-        if (archiver == null || !archiver.getRoles().stream().anyMatch(r -> "ARCHIVER".equals(r.getDescription()))) {
+        if (archiver == null) {
             throw new IllegalArgumentException("Unauthorized: Must be an Archiver");
         }
 
-        MasterTransaction transaction = masterTransactionRepository.findById(transactionId)
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + transactionId));
-        if (!"Submitted".equals(transaction.getReportstatus())) {
-            throw new IllegalStateException("Can only assign Submitted tasks");
-        }
-
         User auditor = userRepository.findByUsername(auditorUsername);
         if (auditor == null
-                || !auditor.getRoles().stream().anyMatch(r -> "SENIOR_AUDITOR".equals(r.getDescription()))) {
+                || !effectivePermissionService.forUser(auditor.getId()).roles().contains("SENIOR_AUDITOR")) {
             throw new IllegalArgumentException("Invalid Senior Auditor: " + auditorUsername);
         }
 
-        transaction.setUser2(auditor);
-        transaction.setAssignedBy(archiver);
-        transaction.setReportstatus("Assigned");
-        transaction.setLastModifiedBy(currentUsername);
-        MasterTransaction savedTransaction = masterTransactionRepository.save(transaction);
+        return assign(transactionId, auditor, archiver, currentUsername);
+    }
 
-         // Notify the assigned SENIOR_AUDITOR
-        createNotification(
-                auditor,
-                "Task Assigned",
-                "You have been assigned to evaluate report '" + savedTransaction.getDocname() + "'",
-                "MasterTransaction",
-                savedTransaction.getId().longValue(),
-                "task_assigned"
-            );
+    /**
+     * Submitted -> Assigned in one conditional UPDATE; a concurrent assignment makes this one
+     * fail. Shared by manual and automatic assignment, archiver is null for the latter.
+     */
+    @Transactional
+    public MasterTransaction assign(Integer transactionId, User auditor, User archiver, String currentUsername) {
+        MasterTransaction savedTransaction = workflowEngine
+                .transition(transactionId, WorkflowEngine.Transition.ASSIGN, currentUsername)
+                .set("user2", auditor)
+                .set("assignedBy", archiver)
+                .apply();
+
+        // Notify the assigned SENIOR_AUDITOR
+        eventPublisher.publishEvent(WorkflowEvent.taskAssigned(savedTransaction, auditor, currentUsername));
 
         System.out.println("Assigned task: ID=" + savedTransaction.getId() + ", user2=" + auditor.getUsername());
         return savedTransaction;
     }
 
-@Transactional
+    /** Moves an Assigned report that no one has worked on yet from one auditor to another. */
+    @Transactional
+    public MasterTransaction reassign(Integer transactionId, User from, User to, String currentUsername) {
+        MasterTransaction savedTransaction = workflowEngine
+                .transition(transactionId, WorkflowEngine.Transition.REASSIGN, currentUsername)
+                .requireEqual("user2", from, "Report " + transactionId + " is no longer assigned to " + from.getUsername())
+                .requireEqual("auditorStartedAt", null, "Report " + transactionId + " has already been opened by " + from.getUsername())
+                .set("user2", to)
+                .apply();
+
+        eventPublisher.publishEvent(WorkflowEvent.taskAssigned(savedTransaction, to, currentUsername));
+        return savedTransaction;
+    }
+
 public MasterTransaction submitFindings(Integer transactionId, String findings, String approverUsername,
         String responseNeeded, String currentUsername, MultipartFile supportingDocument) throws IOException {
     System.out.println("Starting submitFindings: transactionId=" + transactionId + ", currentUsername=" + currentUsername);
-    
-    MasterTransaction transaction = masterTransactionRepository.findById(transactionId)
-            .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + transactionId));
-    System.out.println("Transaction found: status=" + transaction.getReportstatus());
-
-    if (!Arrays.asList("Assigned", "Rejected").contains(transaction.getReportstatus())) {
-        System.out.println("Invalid status: " + transaction.getReportstatus());
-        throw new IllegalStateException("Can only submit findings for Assigned or Rejected reports");
-    }
 
     User approver = userRepository.findByUsername(approverUsername);
-    System.out.println("Approver fetched: " + (approver != null ? approver.getUsername() : "null"));
-    if (approver == null || !approver.getRoles().stream().anyMatch(r -> "APPROVER".equals(r.getDescription()))) {
+    if (approver == null || !effectivePermissionService.forUser(approver.getId()).roles().contains("APPROVER")) {
         throw new IllegalArgumentException("Invalid Approver: " + approverUsername);
     }
 
@@ -317,86 +331,47 @@ public MasterTransaction submitFindings(Integer transactionId, String findings,
     }
 
     User currentUser = userRepository.findByUsername(currentUsername);
-    System.out.println("Current user: " + (currentUser != null ? currentUser.getUsername() : "null"));
     if (currentUser == null) {
         throw new IllegalArgumentException("Current user not found: " + currentUsername);
     }
 
-    transaction.setRemarks(findings);
-    transaction.setUser2(approver);
-    transaction.setReportstatus(transaction.getReportstatus().equals("Rejected") ? "Corrected" : "Under Review");
-    transaction.setSubmittedByAuditor(currentUser);
-    transaction.setResponse_needed(responseNeeded);
-
-    if (supportingDocument != null && !supportingDocument.isEmpty()) {
-        try {
-            String supportingPath = fileStorageService.storeFile(supportingDocument, transaction, new Principal() {
-                @Override
-                public String getName() {
-                    return currentUsername;
-                }
-            }, true);
-            transaction.setSupportingDocumentPath(supportingPath);
-            transaction.setSupportingDocname(supportingDocument.getOriginalFilename());
-            System.out.println("Supporting document stored: " + supportingPath);
-        } catch (IOException e) {
-            System.err.println("File storage failed: " + e.getMessage());
-            throw e;
-        }
-    }
-
-    transaction.setLastModifiedBy(currentUsername);
-   MasterTransaction savedTransaction = masterTransactionRepository.save(transaction);
+    // Assigned -> Under Review, Rejected -> Corrected
+    WorkflowEngine.Change change = workflowEngine
+            .transition(transactionId, WorkflowEngine.Transition.SUBMIT_FINDINGS, currentUsername)
+            .set("remarks", findings)
+            .set("user2", approver)
+            .set("submittedByAuditor", currentUser)
+            .set("response_needed", responseNeeded);
+    FileStorageService.StagedFile staged = setSupportingDocument(change, supportingDocument, currentUsername);
+    MasterTransaction savedTransaction = inTransaction(staged, () -> {
+        MasterTransaction applied = change.apply();
 
         // Notify the selected APPROVER
-        createNotification(
-                approver,
-                "New Task for Review",
-                "A task '" + savedTransaction.getDocname() + "' has been submitted for your review by " + currentUsername,
-                "MasterTransaction",
-                savedTransaction.getId().longValue(),
-                "task_evaluated"
-            );
-
-        System.out.println("Transaction saved: ID=" + savedTransaction.getId());
-        return savedTransaction;
+        eventPublisher.publishEvent(WorkflowEvent.taskEvaluated(applied, approver, currentUsername));
+        return applied;
+    });
+
+    System.out.println("Transaction saved: ID=" + savedTransaction.getId() + ", status=" + savedTransaction.getReportstatus());
+    return savedTransaction;
 }
-    @Transactional
     public MasterTransaction approveReport(Integer transactionId, String currentUsername,
             MultipartFile approvalDocument) throws IOException {
-        MasterTransaction transaction = masterTransactionRepository.findById(transactionId)
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + transactionId));
-        // ... validation ...
-        transaction.setReportstatus("Approved");
-        transaction.setLastModifiedBy(currentUsername);
-
-        if (approvalDocument != null && !approvalDocument.isEmpty()) {
-            String approvalPath = fileStorageService.storeFile(approvalDocument, transaction, new Principal() {
-                @Override
-                public String getName() {
-                    return currentUsername;
-                }
-            }, true);
-            transaction.setSupportingDocumentPath(approvalPath);
-            System.out.println(
-                    "Approver attachment: Path=" + approvalPath + ", Name=" + transaction.getSupportingDocname());
-        } else {
+        // Under Review / Corrected -> Approved
+        WorkflowEngine.Change change = workflowEngine
+                .transition(transactionId, WorkflowEngine.Transition.APPROVE, currentUsername);
+        FileStorageService.StagedFile staged = setSupportingDocument(change, approvalDocument, currentUsername);
+        if (staged == null) {
             System.out.println("No Approver attachment provided for transaction ID=" + transactionId);
         }
+        MasterTransaction savedTransaction = inTransaction(staged, () -> {
+            MasterTransaction applied = change.apply();
 
-        MasterTransaction savedTransaction = masterTransactionRepository.save(transaction);
-
-        // Notify the ARCHIVER who assigned the task
-        if (savedTransaction.getAssignedBy() != null) {
-           createNotification(
-                    savedTransaction.getAssignedBy(),
-                    "Task Approved",
-                    "The task '" + savedTransaction.getDocname() + "' you assigned has been approved",
-                    "MasterTransaction",
-                    savedTransaction.getId().longValue(),
-                    "task_approved"
-                );
-        }
+            // Notify the ARCHIVER who assigned the task
+            if (applied.getAssignedBy() != null) {
+                eventPublisher.publishEvent(WorkflowEvent.taskApproved(applied, currentUsername));
+            }
+            return applied;
+        });
 
         System.out.println("Saved transaction: ID=" + savedTransaction.getId() +
                 ", SupportingDocumentPath=" + savedTransaction.getSupportingDocumentPath() +
@@ -404,122 +379,160 @@ public MasterTransaction submitFindings(Integer transactionId, String findings,
         return savedTransaction;
     }
 
-    @Transactional
     public MasterTransaction rejectReport(Integer transactionId, String rejectionReason, String currentUsername,
             MultipartFile rejectionDocument) throws IOException {
-        MasterTransaction transaction = masterTransactionRepository.findById(transactionId)
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + transactionId));
         User currentUser = userRepository.findByUsername(currentUsername);
-        if (currentUser == null
-                || !currentUser.getRoles().stream().anyMatch(r -> "APPROVER".equals(r.getDescription()))) {
+        if (currentUser == null) {
             throw new IllegalArgumentException("Unauthorized: Must have APPROVER role");
         }
-        if (!Arrays.asList("Under Review", "Corrected").contains(transaction.getReportstatus())) {
-            throw new IllegalStateException("Can only reject reports in Under Review or Corrected status");
-        }
-        if (transaction.getUser2() == null || !transaction.getUser2().getId().equals(currentUser.getId())) {
-            throw new IllegalArgumentException("Unauthorized: Must be the assigned Approver");
+        // Under Review / Corrected -> Rejected, back to the auditor who submitted the findings
+        WorkflowEngine.Change change = workflowEngine
+                .transition(transactionId, WorkflowEngine.Transition.REJECT, currentUsername)
+                .requireEqual("user2", currentUser, "Unauthorized: Must be the assigned Approver")
+                .set("reason_of_rejection", rejectionReason)
+                .copy("user2", "submittedByAuditor");
+        FileStorageService.StagedFile staged = setSupportingDocument(change, rejectionDocument, currentUsername);
+        return inTransaction(staged, change::apply);
+    }
+
+    /**
+     * Stages the optional attachment so its key can go into the transition's UPDATE; returns
+     * null when there is none.
+     */
+    private FileStorageService.StagedFile setSupportingDocument(WorkflowEngine.Change change, MultipartFile document,
+            String currentUsername) throws IOException {
+        if (document == null || document.isEmpty()) {
+            return null;
         }
-        transaction.setReportstatus("Rejected");
-        transaction.setReason_of_rejection(rejectionReason); // Store in new field
-        if (rejectionDocument != null && !rejectionDocument.isEmpty()) {
-            String rejectionPath = fileStorageService.storeFile(rejectionDocument, transaction, new Principal() {
-                @Override
-                public String getName() {
-                    return currentUsername;
-                }
-            }, true);
-            transaction.setSupportingDocumentPath(rejectionPath);
-            transaction.setSupportingDocname(rejectionDocument.getOriginalFilename());
+        FileStorageService.StagedFile staged = fileStorageService.stage(document, () -> currentUsername);
+        change.set("supportingDocumentPath", staged.key())
+                .set("supportingDocname", staged.docname())
+                .set("supportingContentType", staged.contentType());
+        return staged;
+    }
+
+    /**
+     * Runs the database step of an upload in its own short transaction and discards the
+     * staged file if that step fails, so a rolled back row leaves no orphan behind.
+     */
+    private MasterTransaction inTransaction(FileStorageService.StagedFile staged, Supplier<MasterTransaction> step) {
+        try {
+            MasterTransaction result = transactionTemplate.execute(status -> step.get());
+            fileStorageService.release(staged);
+            return result;
+        } catch (RuntimeException e) {
+            fileStorageService.discard(staged);
+            throw e;
         }
-        transaction.setUser2(transaction.getSubmittedByAuditor());
-        transaction.setLastModifiedBy(currentUsername);
-        return masterTransactionRepository.save(transaction);
     }
 
-    public List<MasterTransaction> getTasks(Long userId, String role) {
-        List<MasterTransaction> tasks = new ArrayList<>();
-        System.out.println("Fetching tasks for userId=" + userId + ", role=" + role);
+    private static final int DEFAULT_TASK_PAGE_SIZE = 25;
+    private static final int MAX_TASK_PAGE_SIZE = 100;
+    private static final List<String> ARCHIVER_TASK_STATUSES =
+            Arrays.asList("Assigned", "Under Review", "Corrected", "Approved", "Rejected");
+    private static final List<String> SENIOR_AUDITOR_TASK_STATUSES = Arrays.asList("Assigned", "Rejected", "Approved");
+    private static final List<String> APPROVER_TASK_STATUSES = Arrays.asList("Under Review", "Corrected", "Approved", "Rejected");
+
+    /**
+     * One page of the user's task inbox, newest first. The cursor is the opaque token returned
+     * as nextCursor by the previous page; statuses narrows the role's own status set.
+     */
+    @Transactional(readOnly = true)
+    public TaskPageDTO getTaskPage(Long userId, String role, List<String> statuses, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_TASK_PAGE_SIZE : Math.min(size, MAX_TASK_PAGE_SIZE);
+        List<String> roleStatuses;
         switch (role) {
-            case "ARCHIVER":
-                tasks = masterTransactionRepository.findTasksAssignedByArchiver(userId);
-                System.out.println("ARCHIVER tasks fetched: " + tasks.size());
-                break;
-            case "SENIOR_AUDITOR":
-                List<MasterTransaction> activeTasks = masterTransactionRepository.findActiveSeniorAuditorTasks(userId);
-                List<MasterTransaction> approvedTasks = masterTransactionRepository.findApprovedSeniorAuditorTasks(userId);
-                System.out.println("SENIOR_AUDITOR active tasks: " + activeTasks.size());
-                activeTasks.forEach(task -> System.out.println("Active task: ID=" + task.getId() +
-                        ", Status=" + task.getReportstatus() +
-                        ", User2=" + (task.getUser2() != null ? task.getUser2().getId() : "null") +
-                        ", Docname=" + task.getDocname()));
-                System.out.println("SENIOR_AUDITOR approved tasks: " + approvedTasks.size());
-                approvedTasks.forEach(task -> System.out.println("Approved task: ID=" + task.getId() +
-                        ", Status=" + task.getReportstatus() +
-                        ", User2=" + (task.getUser2() != null ? task.getUser2().getId() : "null") +
-                        ", Docname=" + task.getDocname()));
-                tasks.addAll(activeTasks);
-                tasks.addAll(approvedTasks);
-                break;
-            case "APPROVER":
-                List<String> activeStatuses = Arrays.asList("Under Review", "Corrected");
-                List<String> completedStatuses = Arrays.asList("Approved", "Rejected");
-                tasks.addAll(masterTransactionRepository.findApproverTasks(userId, activeStatuses));
-                tasks.addAll(masterTransactionRepository.findCompletedApproverTasks(userId, completedStatuses));
-                System.out.println("APPROVER tasks fetched: " + tasks.size());
-                tasks.forEach(task -> System.out.println("Task: ID=" + task.getId() +
-                        ", Status=" + task.getReportstatus() +
-                        ", User2=" + (task.getUser2() != null ? task.getUser2().getId() : "null") +
-                        ", Docname=" + task.getDocname()));
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid role: " + role);
+            case "ARCHIVER": roleStatuses = ARCHIVER_TASK_STATUSES; break;
+            case "SENIOR_AUDITOR": roleStatuses = SENIOR_AUDITOR_TASK_STATUSES; break;
+            case "APPROVER": roleStatuses = APPROVER_TASK_STATUSES; break;
+            default: throw new IllegalArgumentException("Invalid role: " + role);
+        }
+        List<String> effectiveStatuses = statuses == null || statuses.isEmpty()
+                ? roleStatuses
+                : statuses.stream().filter(roleStatuses::contains).collect(Collectors.toList());
+        if (effectiveStatuses.isEmpty()) {
+            return new TaskPageDTO(Collections.emptyList(), null, pageSize);
+        }
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<TransactionSummaryView> rows;
+        if (!StringUtils.hasText(cursor)) {
+            switch (role) {
+                case "ARCHIVER":
+                    rows = masterTransactionRepository.findArchiverInbox(userId, effectiveStatuses, limit);
+                    break;
+                case "SENIOR_AUDITOR":
+                    rows = masterTransactionRepository.findSeniorAuditorInbox(userId, effectiveStatuses, limit);
+                    break;
+                default:
+                    rows = masterTransactionRepository.findApproverInbox(userId, effectiveStatuses, limit);
+            }
+        } else {
+            // Resume strictly after the last row seen; its createdDate may be null on legacy rows
+            Long[] decoded = decodeTaskCursor(cursor);
+            Date cursorDate = decoded[0] != null ? new Date(decoded[0]) : null;
+            Integer cursorId = decoded[1].intValue();
+            switch (role) {
+                case "ARCHIVER":
+                    rows = masterTransactionRepository.findArchiverInboxAfter(userId, effectiveStatuses, cursorDate, cursorId, limit);
+                    break;
+                case "SENIOR_AUDITOR":
+                    rows = masterTransactionRepository.findSeniorAuditorInboxAfter(userId, effectiveStatuses, cursorDate, cursorId, limit);
+                    break;
+                default:
+                    rows = masterTransactionRepository.findApproverInboxAfter(userId, effectiveStatuses, cursorDate, cursorId, limit);
+            }
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            TransactionSummaryView last = rows.get(pageSize - 1);
+            nextCursor = encodeTaskCursor(last.getCreatedDate(), last.getId());
+        }
+        List<MasterTransactionDTO> items = rows.stream().map(MasterTransactionDTO::new).collect(Collectors.toList());
+        return new TaskPageDTO(items, nextCursor, pageSize);
+    }
+
+    private static String encodeTaskCursor(Date createdDate, Integer id) {
+        String raw = (createdDate != null ? Long.toString(createdDate.getTime()) : "") + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Decodes a cursor into { createdDate millis or null, id }. */
+    private static Long[] decodeTaskCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(':');
+            String date = raw.substring(0, separator);
+            return new Long[] { date.isEmpty() ? null : Long.valueOf(date), Long.valueOf(raw.substring(separator + 1)) };
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid task cursor: " + cursor);
         }
-        System.out.println("Total tasks returned: " + tasks.size());
-        tasks.forEach(task -> System.out.println("Task: ID=" + task.getId() +
-                ", Status=" + task.getReportstatus() +
-                ", User2=" + (task.getUser2() != null ? task.getUser2().getId() : "null") +
-                ", Docname=" + task.getDocname()));
-        return tasks;
     }
 
 public List<MasterTransactionDTO> getApprovedReports(String username, String role) {
-    List<MasterTransaction> reports;
+    List<TransactionSummaryView> reports;
     if ("ARCHIVER".equals(role) || "APPROVER".equals(role)) {
-        reports = masterTransactionRepository.findByReportstatus("Approved");
+        reports = masterTransactionRepository.findSummariesByStatus("Approved");
     } else if ("SENIOR_AUDITOR".equals(role)) {
-        User user = userRepository.findByUsername(username);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found: " + username);
-        }
-        reports = masterTransactionRepository.findByReportstatusAndSubmittedByAuditor("Approved", user);
+        reports = masterTransactionRepository.findSummariesByStatusAndSubmittedByAuditor("Approved", username);
     } else {
         throw new IllegalArgumentException("Invalid role for approved reports: " + role);
     }
-    System.out.println("Fetched " + reports.size() + " approved reports for " + username + " (" + role + ")");
-    reports.forEach(report -> {
-        System.out.println("Report: ID=" + report.getId() +
-                ", FiscalYear=" + (report.getBudgetYear() != null ? report.getBudgetYear().getFiscalYear() : "null") +
-                ", SupportingDocname=" + report.getSupportingDocname());
-    });
-    return reports.stream().map(MasterTransactionDTO::new).collect(Collectors.toList());
+    return toDtos(reports);
 }
 public List<MasterTransactionDTO> getRejectedReports() {
-    List<MasterTransaction> reports = masterTransactionRepository.findRejectedReports();
-    System.out.println("Fetched " + reports.size() + " rejected reports");
-    reports.forEach(report -> {
-        System.out.println("Report: ID=" + report.getId() +
-                ", FiscalYear=" + (report.getBudgetYear() != null ? report.getBudgetYear().getFiscalYear() : "null"));
-    });
-    return reports.stream().map(MasterTransactionDTO::new).collect(Collectors.toList());
+    return toDtos(masterTransactionRepository.findSummariesByStatus("Rejected"));
 }
 
-    public List<MasterTransaction> getUnderReviewReports() {
-        return masterTransactionRepository.findUnderReviewReports();
+    public List<MasterTransactionDTO> getUnderReviewReports() {
+        return toDtos(masterTransactionRepository.findSummariesByStatus("Under Review"));
     }
 
-    public List<MasterTransaction> getCorrectedReports() {
-        return masterTransactionRepository.findCorrectedReports();
+    public List<MasterTransactionDTO> getCorrectedReports() {
+        return toDtos(masterTransactionRepository.findSummariesByStatus("Corrected"));
     }
 
     public List<Organization> getReportNonSenders(String reportype, String fiscalYear) {
@@ -544,7 +557,7 @@ public List<MasterTransactionDTO> getRejectedReports() {
             System.out.println("No Document found for reportype: " + reportype);
             return new ArrayList<>(); // Return empty list if no matching document
         }
-        List<Organization> nonSenders = masterTransactionRepository.findReportNonSendersByReportTypeAndBudgetYear(reportype, fiscalYear);
+        List<Organization> nonSenders = complianceMatrixService.findNonSenders(ComplianceMatrixService.REPORT, reportype, fiscalYear);
         System.out.println("Found " + nonSenders.size() + " non-senders");
         return nonSenders;
     } catch (Exception e) {
@@ -554,9 +567,8 @@ public List<MasterTransactionDTO> getRejectedReports() {
     }
 }
     public List<MasterTransactionDTO> getReportsByOrgAndFilters(String reportype, String fiscalYear, String orgId) {
-        List<MasterTransaction> transactions = masterTransactionRepository
-                .findReportsByOrgAndReportTypeAndBudgetYear(reportype, fiscalYear, orgId);
-        return transactions.stream().map(MasterTransactionDTO::new).collect(Collectors.toList());
+        return toDtos(masterTransactionRepository
+                .findReportSummariesByOrgAndReportTypeAndBudgetYear(reportype, fiscalYear, orgId));
     }
 
     public List<Organization> getAllOrganizationsWithReports() {
@@ -585,7 +597,7 @@ public List<MasterTransactionDTO> getRejectedReports() {
             System.out.println("No Document found for reportype: " + reportype);
             return new ArrayList<>(); // Return empty list if no matching document
         }
-        List<Organization> nonSenders = masterTransactionRepository.findFeedbackNonSendersByReportTypeAndBudgetYear(reportype, fiscalYear);
+        List<Organization> nonSenders = complianceMatrixService.findNonSenders(ComplianceMatrixService.FEEDBACK, reportype, fiscalYear);
         System.out.println("Found " + nonSenders.size() + " feedback non-senders");
         return nonSenders;
     } catch (Exception e) {
@@ -596,9 +608,8 @@ public List<MasterTransactionDTO> getRejectedReports() {
 }
 
     public List<MasterTransactionDTO> getFeedbackSenders(String reportype, String fiscalYear) {
-        List<MasterTransaction> transactions = masterTransactionRepository
-                .findFeedbackSendersByReportTypeAndBudgetYear(reportype, fiscalYear);
-        return transactions.stream().map(MasterTransactionDTO::new).collect(Collectors.toList());
+        return toDtos(masterTransactionRepository
+                .findSummariesByCategoryAndReportTypeAndBudgetYear("Feedback", reportype, fiscalYear));
     }
 
 
@@ -611,7 +622,7 @@ public long getTotalReportTypes() {
 }
 
 public long getSendersCount(String fiscalYear) {
-    return masterTransactionRepository.countSendersByFiscalYear(fiscalYear);
+    return complianceMatrixService.countSenders(ComplianceMatrixService.REPORT, fiscalYear);
 }
 
 public long getNonSendersCount(String fiscalYear) {
@@ -619,20 +630,23 @@ public long getNonSendersCount(String fiscalYear) {
 }
 
 public long getSendersCountForReportType(String reportype, String fiscalYear) {
-    return masterTransactionRepository.countSendersByReportTypeAndFiscalYear(reportype, fiscalYear);
+    return complianceMatrixService.countSenders(ComplianceMatrixService.REPORT, reportype, fiscalYear);
 }
 
 public long getNonSendersCountForReportType(String reportype, String fiscalYear) {
     return getTotalOrganizations() - getSendersCountForReportType(reportype, fiscalYear);
 }
 public List<MasterTransactionDTO> getTransactionHistory(Long userId) {
-    List<MasterTransaction> transactions = masterTransactionRepository.findTransactionHistoryByUserId(userId);
-    return transactions.stream()
-            .map(MasterTransactionDTO::new)
-            .collect(Collectors.toList());
+    return toDtos(masterTransactionRepository.findSummariesByUploader(userId));
 }
 
-public List<MasterTransaction> getLettersForOrganization(String orgId) {
-        return masterTransactionRepository.findTransactionsWithLettersByOrganization(orgId);
+public List<MasterTransactionDTO> getLettersForOrganization(String orgId) {
+        return toDtos(masterTransactionRepository.findLetterSummariesByOrganization(orgId));
+    }
+
+    private static List<MasterTransactionDTO> toDtos(List<TransactionSummaryView> views) {
+        List<MasterTransactionDTO> dtos = new ArrayList<>(views.size());
+        views.forEach(view -> dtos.add(new MasterTransactionDTO(view)));
+        return dtos;
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.events.WorkflowEvent;
+import com.simon.armas_springboot_api.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns committed workflow events into notification rows on a background thread.
+ * Events are queued in a bounded buffer, drained in batches, and written with a single
+ * JDBC batch insert per drain, so request latency no longer depends on recipient count.
+ */
+@Service
+public class NotificationDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (title, message, user_id, is_read, created_at, entity_type, entity_id, context) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ENTITY_TYPE = "MasterTransaction";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationStreamService notificationStreamService;
+    private final BlockingQueue<WorkflowEvent> queue;
+    private final int batchSize;
+    private final Timer lagTimer;
+    private final Timer writeTimer;
+    private final Counter writtenCounter;
+    private final Counter overflowCounter;
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public NotificationDispatcher(UserRepository userRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  NotificationStreamService notificationStreamService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${armas.notifications.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${armas.notifications.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationStreamService = notificationStreamService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        Gauge.builder("armas.notifications.queue.depth", queue, BlockingQueue::size)
+                .description("Workflow events waiting to be turned into notifications")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("armas.notifications.lag")
+                .description("Time from event publication to notification rows being written")
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder("armas.notifications.batch.write")
+                .description("Duration of one notification batch insert")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("armas.notifications.written").register(meterRegistry);
+        this.overflowCounter = Counter.builder("armas.notifications.overflow")
+                .description("Events dispatched on the publishing thread because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        worker = new Thread(this::drainLoop, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        // Flush whatever is still buffered so committed workflow steps are not left without notifications
+        List<WorkflowEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            dispatch(remaining);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkflowEvent(WorkflowEvent event) {
+        if (!queue.offer(event)) {
+            overflowCounter.increment();
+            log.warn("Notification queue full, dispatching {} inline", event);
+            dispatch(List.of(event));
+        }
+    }
+
+    private void drainLoop() {
+        List<WorkflowEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to dispatch {} workflow events", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void dispatch(List<WorkflowEvent> events) {
+        Map<String, List<Long>> roleMembers = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        for (WorkflowEvent event : events) {
+            switch (event.getType()) {
+                case REPORT_UPLOADED -> {
+                    List<Long> archivers = roleMembers.computeIfAbsent("ARCHIVER", userRepository::findIdsByRoleName);
+                    String message = "A new report '" + event.getDocname() + "' has been uploaded by " + event.getActorUsername();
+                    archivers.forEach(id -> rows.add(row(id, "New Report Uploaded", message, event, "report_uploaded", now)));
+                }
+                case LETTER_UPLOADED -> {
+                    if (event.getUploaderId() != null) {
+                        rows.add(row(event.getUploaderId(), "Letter Uploaded",
+                                "A letter '" + event.getLetterDocname() + "' has been uploaded for your report '"
+                                        + event.getDocname() + "' by " + event.getActorUsername(),
+                                event, "letter_uploaded", now));
+                    } else {
+                        log.warn("No uploader found for transaction ID: {}", event.getTransactionId());
+                    }
+                    if (event.getOrganizationId() != null) {
+                        List<Long> managers = userRepository.findIdsByRoleNameAndOrganizationId("MANAGER", event.getOrganizationId());
+                        if (managers.isEmpty()) {
+                            log.warn("No MANAGER users found for organization ID: {}", event.getOrganizationId());
+                        }
+                        String message = "A letter '" + event.getLetterDocname() + "' has been uploaded for report '"
+                                + event.getDocname() + "' by " + event.getActorUsername();
+                        managers.forEach(id -> rows.add(row(id, "Letter Uploaded", message, event, "letter_uploaded", now)));
+                    } else {
+                        log.warn("No organization found for transaction ID: {}", event.getTransactionId());
+                    }
+                }
+                case TASK_ASSIGNED -> rows.add(row(event.getRecipientId(), "Task Assigned",
+                        "You have been assigned to evaluate report '" + event.getDocname() + "'",
+                        event, "task_assigned", now));
+                case TASK_EVALUATED -> rows.add(row(event.getRecipientId(), "New Task for Review",
+                        "A task '" + event.getDocname() + "' has been submitted for your review by " + event.getActorUsername(),
+                        event, "task_evaluated", now));
+                case TASK_APPROVED -> {
+                    if (event.getRecipientId() != null) {
+                        rows.add(row(event.getRecipientId(), "Task Approved",
+                                "The task '" + event.getDocname() + "' you assigned has been approved",
+                                event, "task_approved", now));
+                    }
+                }
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            writeTimer.record(() -> jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, rows));
+            writtenCounter.increment(rows.size());
+            Set<Long> recipients = new HashSet<>();
+            rows.forEach(row -> recipients.add((Long) row[2]));
+            notificationStreamService.publish(recipients);
+        }
+        long finishedAt = System.nanoTime();
+        events.forEach(event -> lagTimer.record(finishedAt - event.getPublishedAt(), TimeUnit.NANOSECONDS));
+        log.debug("Dispatched {} workflow events as {} notifications", events.size(), rows.size());
+    }
+
+    private static Object[] row(Long userId, String title, String message, WorkflowEvent event, String context, Timestamp createdAt) {
+        return new Object[] { title, message, userId, false, createdAt, ENTITY_TYPE, event.getTransactionId(), context };
+    }
+}
@@ -0,0 +1,124 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.dto.NotificationDTO;
+import com.simon.armas_springboot_api.repositories.NotificationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of open notification streams, keyed by user id.
+ * Emitters are completed asynchronously by the servlet container, so an idle subscriber
+ * holds no request thread; only pushes and heartbeats touch the connections.
+ */
+@Service
+public class NotificationStreamService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    public NotificationStreamService(NotificationRepository notificationRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${armas.notifications.stream-timeout-ms:1800000}") long timeoutMillis) {
+        this.notificationRepository = notificationRepository;
+        this.timeoutMillis = timeoutMillis;
+        Gauge.builder("armas.notifications.stream.subscribers", subscribers,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .description("Open notification SSE connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the user. Unread notifications newer than lastEventId (or all unread
+     * ones on a fresh connection) are replayed before live events.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, lastEventId != null ? lastEventId : 0L);
+        Set<Subscriber> userSubscribers = subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+        userSubscribers.add(subscriber);
+
+        Runnable remove = () -> unregister(userId, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        push(userId, subscriber);
+        return emitter;
+    }
+
+    /**
+     * Called after new notification rows are written; only users with an open stream are queried.
+     */
+    public void publish(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            Set<Subscriber> userSubscribers = subscribers.get(userId);
+            if (userSubscribers == null) {
+                continue;
+            }
+            userSubscribers.forEach(subscriber -> push(userId, subscriber));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${armas.notifications.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.forEach((userId, userSubscribers) -> userSubscribers.forEach(subscriber -> {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                unregister(userId, subscriber);
+            }
+        }));
+    }
+
+    private void push(Long userId, Subscriber subscriber) {
+        // Serialise pushes per connection so the cursor only moves forward
+        synchronized (subscriber) {
+            List<NotificationDTO> pending = notificationRepository.findUnreadAfter(userId, subscriber.lastSentId);
+            try {
+                for (NotificationDTO notification : pending) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(notification.getId()))
+                            .name("notification")
+                            .data(notification, MediaType.APPLICATION_JSON));
+                    subscriber.lastSentId = notification.getId();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping notification stream for user {}: {}", userId, e.getMessage());
+                unregister(userId, subscriber);
+            }
+        }
+    }
+
+    private void unregister(Long userId, Subscriber subscriber) {
+        subscribers.computeIfPresent(userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private long lastSentId;
+
+        private Subscriber(SseEmitter emitter, long lastSentId) {
+            this.emitter = emitter;
+            this.lastSentId = lastSentId;
+        }
+    }
+}
@@ -1,19 +1,31 @@
 package com.simon.armas_springboot_api.services;
 
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
 import com.simon.armas_springboot_api.models.Organization;
+import com.simon.armas_springboot_api.models.User;
 import com.simon.armas_springboot_api.repositories.OrganizationRepository;
+import com.simon.armas_springboot_api.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class OrganizationService {
     private final OrganizationRepository organizationRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public OrganizationService(OrganizationRepository organizationRepository) {
+    public OrganizationService(OrganizationRepository organizationRepository, ReferenceDataCache referenceDataCache,
+                               UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
         this.organizationRepository = organizationRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
     public List<Organization> getAllOrganizations() {
         return organizationRepository.findAll();
@@ -22,10 +34,37 @@ public class OrganizationService {
         return organizationRepository.findById(id).orElse(null);
     }
     public Organization save(Organization organization) {
-        return organizationRepository.save(organization);
+        String previousHead = organization.getId() == null ? null
+                : organizationRepository.findById(organization.getId())
+                        .map(Organization::getOrganizationhead)
+                        .orElse(null);
+        Organization saved = organizationRepository.save(organization);
+        referenceDataCache.evict(Organization.class);
+        if (!Objects.equals(previousHead, saved.getOrganizationhead())) {
+            headChanged(previousHead);
+            headChanged(saved.getOrganizationhead());
+        }
+        return saved;
     }
     public void deleteOrganization(String id) {
+        String head = organizationRepository.findById(id)
+                .map(Organization::getOrganizationhead)
+                .orElse(null);
         organizationRepository.deleteById(id);
+        referenceDataCache.evict(Organization.class);
+        headChanged(head);
+    }
+
+    // The org-head privilege is derived from organizationhead, so both the outgoing and
+    // incoming head need their cached effective permissions reloaded.
+    private void headChanged(String username) {
+        if (username == null || username.isBlank()) {
+            return;
+        }
+        User user = userRepository.findByUsername(username);
+        if (user != null) {
+            eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(user.getId()));
+        }
     }
     public Object findById(String id) {
         // TODO Auto-generated method stub
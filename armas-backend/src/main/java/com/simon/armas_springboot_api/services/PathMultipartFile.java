@@ -0,0 +1,72 @@
+package com.simon.armas_springboot_api.services;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Presents an already assembled file on disk as a MultipartFile so it can go through
+ * the same upload flow as a form upload.
+ */
+class PathMultipartFile implements MultipartFile {
+    private final Path path;
+    private final String originalFilename;
+
+    PathMultipartFile(Path path, String originalFilename) {
+        this.path = path;
+        this.originalFilename = originalFilename;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        try {
+            return Files.probeContentType(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,93 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.models.BudgetYear;
+import com.simon.armas_springboot_api.models.Directorate;
+import com.simon.armas_springboot_api.models.Document;
+import com.simon.armas_springboot_api.models.Organization;
+import com.simon.armas_springboot_api.security.models.Role;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Second-level cache regions holding reference data (organizations, directorates, documents,
+ * budget years, roles). Admin writes evict the entity region and cached query results so the
+ * next read sees the change at once; per-region hit/miss counts are published as metrics.
+ */
+@Service
+public class ReferenceDataCache {
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    public static final String QUERY_REGION = "default-query-results-region";
+
+    private static final Map<Class<?>, String> REGIONS = Map.of(
+            BudgetYear.class, "reference-data.budget-year",
+            Document.class, "reference-data.document",
+            Organization.class, "reference-data.organization",
+            Directorate.class, "reference-data.directorate",
+            Role.class, "reference-data.role");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Statistics statistics;
+
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        REGIONS.values().forEach(region -> register(meterRegistry, region, false));
+        register(meterRegistry, QUERY_REGION, true);
+    }
+
+    /** Drops every cached row of the entity type and all cached query results. */
+    public void evict(Class<?> entityType) {
+        entityManagerFactory.getCache().evict(entityType);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        log.debug("Evicted {} and cached query results", REGIONS.getOrDefault(entityType, entityType.getSimpleName()));
+    }
+
+    private void register(MeterRegistry meterRegistry, String region, boolean queryRegion) {
+        FunctionCounter.builder("armas.cache.hits", this, cache -> cache.value(region, queryRegion, CacheRegionStatistics::getHitCount))
+                .description("Second-level cache hits")
+                .tag("region", region)
+                .register(meterRegistry);
+        FunctionCounter.builder("armas.cache.misses", this, cache -> cache.value(region, queryRegion, CacheRegionStatistics::getMissCount))
+                .description("Second-level cache misses")
+                .tag("region", region)
+                .register(meterRegistry);
+        Gauge.builder("armas.cache.hit.ratio", this, cache -> cache.hitRatio(region, queryRegion))
+                .description("Share of second-level cache lookups served from the cache")
+                .tag("region", region)
+                .register(meterRegistry);
+        Gauge.builder("armas.cache.entries", this, cache -> cache.value(region, queryRegion, CacheRegionStatistics::getElementCountInMemory))
+                .description("Entries held in memory by the region")
+                .tag("region", region)
+                .register(meterRegistry);
+    }
+
+    private double hitRatio(String region, boolean queryRegion) {
+        double hits = value(region, queryRegion, CacheRegionStatistics::getHitCount);
+        double misses = value(region, queryRegion, CacheRegionStatistics::getMissCount);
+        return hits + misses == 0 ? 0 : hits / (hits + misses);
+    }
+
+    private double value(String region, boolean queryRegion, ToDoubleFunction<CacheRegionStatistics> metric) {
+        try {
+            CacheRegionStatistics regionStatistics = queryRegion
+                    ? statistics.getQueryRegionStatistics(region)
+                    : statistics.getDomainDataRegionStatistics(region);
+            return regionStatistics != null ? metric.applyAsDouble(regionStatistics) : 0;
+        } catch (IllegalArgumentException e) {
+            // Region not built, e.g. with the second-level cache switched off
+            return 0;
+        }
+    }
+}
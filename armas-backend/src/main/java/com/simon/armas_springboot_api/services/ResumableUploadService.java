@@ -0,0 +1,320 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.dto.UploadSessionDTO;
+import com.simon.armas_springboot_api.dto.UploadSessionRequest;
+import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.UploadSession;
+import com.simon.armas_springboot_api.repositories.BudgetYearRepository;
+import com.simon.armas_springboot_api.repositories.DocumentRepository;
+import com.simon.armas_springboot_api.repositories.MasterTransactionRepository;
+import com.simon.armas_springboot_api.repositories.UploadSessionRepository;
+import com.simon.armas_springboot_api.security.models.UserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Resumable upload protocol: create a session, PUT chunks at byte offsets in any order,
+ * query which ranges have arrived, then finalize. Chunks are written straight into a
+ * preallocated file with positional channel writes; finalize hands the assembled file to
+ * MasterTransactionService.uploadFile so validation and storage are the same as a form upload.
+ * Chunk writes share a per-session read lock, so several may run at once; complete, abort and
+ * the expiry purge take its write lock, so the file is never written while it is being
+ * finalized or deleted.
+ */
+@Service
+public class ResumableUploadService {
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final MasterTransactionService masterTransactionService;
+    private final MasterTransactionRepository masterTransactionRepository;
+    private final DocumentRepository documentRepository;
+    private final BudgetYearRepository budgetYearRepository;
+    private final Path uploadsDir;
+    private final long maxBytes;
+    private final long chunkSize;
+    private final long sessionTtlMillis;
+    private final Map<String, ReadWriteLock> sessionLocks = new ConcurrentHashMap<>();
+
+    public ResumableUploadService(UploadSessionRepository uploadSessionRepository,
+                                  MasterTransactionService masterTransactionService,
+                                  MasterTransactionRepository masterTransactionRepository,
+                                  DocumentRepository documentRepository,
+                                  BudgetYearRepository budgetYearRepository,
+                                  @Value("${armas.storage.root:C:/AMSReports}") String storageRoot,
+                                  @Value("${armas.upload.resumable.max-bytes:2147483648}") long maxBytes,
+                                  @Value("${armas.upload.resumable.chunk-size:8388608}") long chunkSize,
+                                  @Value("${armas.upload.resumable.session-ttl-hours:24}") long sessionTtlHours) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.masterTransactionService = masterTransactionService;
+        this.masterTransactionRepository = masterTransactionRepository;
+        this.documentRepository = documentRepository;
+        this.budgetYearRepository = budgetYearRepository;
+        this.uploadsDir = Paths.get(storageRoot).toAbsolutePath().normalize().resolve("uploads");
+        this.maxBytes = maxBytes;
+        this.chunkSize = chunkSize;
+        this.sessionTtlMillis = TimeUnit.HOURS.toMillis(sessionTtlHours);
+    }
+
+    public UploadSessionDTO createSession(UploadSessionRequest request, UserContext user) throws IOException {
+        if (!StringUtils.hasText(request.getFileName())) {
+            throw new IllegalArgumentException("File name is required");
+        }
+        if (request.getTotalSize() == null || request.getTotalSize() <= 0 || request.getTotalSize() > maxBytes) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxBytes + " bytes");
+        }
+        if (!StringUtils.hasText(request.getReportcategory())) {
+            throw new IllegalArgumentException("Report category is required");
+        }
+        // Fail fast on the cheap checks; finalize runs the full uploadFile validation again
+        String fileName = StringUtils.cleanPath(request.getFileName());
+        if (masterTransactionRepository.existsByDocnameAndUserId(fileName, user.userId())) {
+            throw new IllegalArgumentException("Document already exists");
+        }
+        if (request.getTransactiondocumentid() == null || !documentRepository.existsById(request.getTransactiondocumentid())) {
+            throw new IllegalArgumentException("Document not found");
+        }
+        if (request.getBudgetYearId() == null || !budgetYearRepository.existsById(request.getBudgetYearId())) {
+            throw new IllegalArgumentException("Budget Year not found: " + request.getBudgetYearId());
+        }
+
+        String id = UUID.randomUUID().toString();
+        Files.createDirectories(uploadsDir);
+        Path target = uploadsDir.resolve(id + ".part");
+        try (RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw")) {
+            file.setLength(request.getTotalSize());
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(id);
+        session.setUserId(user.userId());
+        session.setFileName(fileName);
+        session.setTotalSize(request.getTotalSize());
+        session.setReportcategory(request.getReportcategory());
+        session.setBudgetYearId(request.getBudgetYearId());
+        session.setTransactiondocumentid(request.getTransactiondocumentid());
+        session.setTempPath(target.toString());
+        session.setCreatedAt(new Date());
+        session.setUpdatedAt(session.getCreatedAt());
+        uploadSessionRepository.save(session);
+        log.info("Opened upload session {} for '{}' ({} bytes) by {}", id, fileName, request.getTotalSize(), user.username());
+        return toDTO(session);
+    }
+
+    /**
+     * Writes length bytes from the body at offset. Chunks may be resent or arrive out of order;
+     * overlapping writes simply rewrite the same bytes.
+     */
+    public UploadSessionDTO writeChunk(String sessionId, long offset, long length, InputStream body, UserContext user)
+            throws IOException {
+        ReadWriteLock lock = lockFor(sessionId);
+        lock.readLock().lock();
+        try {
+            // Checked under the lock: complete/abort cannot run until this chunk is written and recorded
+            UploadSession session = findOwned(sessionId, user);
+            if (session.getStatus() != UploadSession.Status.OPEN) {
+                throw new IllegalStateException("Upload session is already completed");
+            }
+            if (offset < 0 || length <= 0 || offset + length > session.getTotalSize()) {
+                throw new IllegalArgumentException("Chunk [" + offset + ", " + (offset + length) + ") is outside the file");
+            }
+            long written = write(session, offset, length, body);
+            if (written == 0) {
+                return toDTO(session);
+            }
+            // Concurrent chunks of the same session hold the read lock too; merge their ranges one at a time
+            synchronized (lock) {
+                UploadSession current = findOwned(sessionId, user);
+                TreeMap<Long, Long> ranges = parseRanges(current.getReceivedRanges());
+                addRange(ranges, offset, offset + written);
+                current.setReceivedRanges(formatRanges(ranges));
+                current.setReceivedBytes(ranges.entrySet().stream().mapToLong(e -> e.getValue() - e.getKey()).sum());
+                current.setUpdatedAt(new Date());
+                uploadSessionRepository.save(current);
+                return toDTO(current);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long write(UploadSession session, long offset, long length, InputStream body) throws IOException {
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(session.getTempPath()), StandardOpenOption.WRITE)) {
+            ReadableByteChannel source = Channels.newChannel(body);
+            while (written < length) {
+                long transferred = channel.transferFrom(source, offset + written, length - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+        }
+        if (written < length) {
+            // Keep what did arrive so the client only resends the tail
+            log.debug("Chunk for session {} ended early: {} of {} bytes", session.getId(), written, length);
+        }
+        return written;
+    }
+
+    public UploadSessionDTO getSession(String sessionId, UserContext user) {
+        return toDTO(findOwned(sessionId, user));
+    }
+
+    public UploadSessionDTO complete(String sessionId, UserContext user, Principal principal) throws IOException {
+        Lock lock = lockFor(sessionId).writeLock();
+        lock.lock();
+        try {
+            UploadSession session = findOwned(sessionId, user);
+            if (session.getStatus() == UploadSession.Status.COMPLETED) {
+                return toDTO(session); // finalize is idempotent for clients retrying after a timeout
+            }
+            if (session.getReceivedBytes() != session.getTotalSize()) {
+                throw new IllegalStateException("Upload incomplete: received " + session.getReceivedBytes()
+                        + " of " + session.getTotalSize() + " bytes");
+            }
+
+            Path assembled = Paths.get(session.getTempPath());
+            MasterTransaction transaction = masterTransactionService.uploadFile(
+                    new PathMultipartFile(assembled, session.getFileName()),
+                    session.getBudgetYearId(), session.getReportcategory(), session.getTransactiondocumentid(), principal);
+
+            session.setStatus(UploadSession.Status.COMPLETED);
+            session.setTransactionId(transaction.getId());
+            session.setUpdatedAt(new Date());
+            uploadSessionRepository.save(session);
+            Files.deleteIfExists(assembled);
+            log.info("Completed upload session {} as transaction {}", sessionId, transaction.getId());
+            return toDTO(session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void abort(String sessionId, UserContext user) throws IOException {
+        Lock lock = lockFor(sessionId).writeLock();
+        lock.lock();
+        try {
+            UploadSession session = findOwned(sessionId, user);
+            Files.deleteIfExists(Paths.get(session.getTempPath()));
+            uploadSessionRepository.delete(session);
+        } finally {
+            lock.unlock();
+        }
+        sessionLocks.remove(sessionId);
+    }
+
+    // Abandoned sessions release their preallocated files; finished ones are kept a while for status queries
+    @Scheduled(fixedDelayString = "${armas.upload.resumable.cleanup-ms:3600000}")
+    public void purgeExpiredSessions() {
+        Date cutoff = new Date(System.currentTimeMillis() - sessionTtlMillis);
+        List<UploadSession> expired = new ArrayList<>(
+                uploadSessionRepository.findByStatusAndUpdatedAtBefore(UploadSession.Status.OPEN, cutoff));
+        expired.addAll(uploadSessionRepository.findByStatusAndUpdatedAtBefore(UploadSession.Status.COMPLETED, cutoff));
+        for (UploadSession session : expired) {
+            Lock lock = lockFor(session.getId()).writeLock();
+            if (!lock.tryLock()) {
+                continue; // A chunk is being written right now, so the session is not abandoned
+            }
+            try {
+                Files.deleteIfExists(Paths.get(session.getTempPath()));
+                uploadSessionRepository.delete(session);
+            } catch (IOException e) {
+                log.warn("Could not delete upload file {}: {}", session.getTempPath(), e.getMessage());
+                continue;
+            } finally {
+                lock.unlock();
+            }
+            sessionLocks.remove(session.getId());
+        }
+        if (!expired.isEmpty()) {
+            log.info("Purged {} expired upload sessions", expired.size());
+        }
+    }
+
+    private UploadSession findOwned(String sessionId, UserContext user) {
+        UploadSession session = uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new IllegalArgumentException("Upload session not found: " + sessionId));
+        if (!session.getUserId().equals(user.userId())) {
+            throw new AccessDeniedException("Upload session belongs to another user");
+        }
+        return session;
+    }
+
+    private ReadWriteLock lockFor(String sessionId) {
+        return sessionLocks.computeIfAbsent(sessionId, id -> new ReentrantReadWriteLock());
+    }
+
+    private UploadSessionDTO toDTO(UploadSession session) {
+        List<String> ranges = new ArrayList<>();
+        parseRanges(session.getReceivedRanges()).forEach((start, end) -> ranges.add(start + "-" + (end - 1)));
+        return new UploadSessionDTO(session, ranges, chunkSize);
+    }
+
+    static TreeMap<Long, Long> parseRanges(String value) {
+        TreeMap<Long, Long> ranges = new TreeMap<>();
+        if (!StringUtils.hasText(value)) {
+            return ranges;
+        }
+        for (String range : value.split(",")) {
+            int dash = range.indexOf('-');
+            ranges.put(Long.parseLong(range.substring(0, dash)), Long.parseLong(range.substring(dash + 1)));
+        }
+        return ranges;
+    }
+
+    static String formatRanges(TreeMap<Long, Long> ranges) {
+        StringBuilder value = new StringBuilder();
+        ranges.forEach((start, end) -> {
+            if (value.length() > 0) {
+                value.append(',');
+            }
+            value.append(start).append('-').append(end);
+        });
+        return value.toString();
+    }
+
+    // Inserts [start, end) and coalesces it with any overlapping or adjacent ranges
+    static void addRange(TreeMap<Long, Long> ranges, long start, long end) {
+        Map.Entry<Long, Long> before = ranges.floorEntry(start);
+        if (before != null && before.getValue() >= start) {
+            start = before.getKey();
+            end = Math.max(end, before.getValue());
+        }
+        Map.Entry<Long, Long> next = ranges.ceilingEntry(start);
+        while (next != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            ranges.remove(next.getKey());
+            next = ranges.ceilingEntry(start);
+        }
+        ranges.put(start, end);
+    }
+}
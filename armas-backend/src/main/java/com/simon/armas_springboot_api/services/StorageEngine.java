@@ -0,0 +1,43 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.models.StoredFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+/**
+ * Backend that holds uploaded report, supporting and letter files.
+ * Callers only ever persist the returned key; the engine decides where the bytes live.
+ */
+public interface StorageEngine {
+
+    /**
+     * Streams the content into the store. The returned key stays pinned until {@link #release(String)}
+     * or {@link #discard(String, Predicate)} is called for it, so an upload of the same content that
+     * is being rolled back cannot delete the object while this one's row is still uncommitted.
+     */
+    StoredFile store(InputStream content) throws IOException;
+
+    /** Drops the pin taken by {@link #store(InputStream)}, once the row referencing the key has committed. */
+    void release(String key);
+
+    /**
+     * Drops the pin taken by {@link #store(InputStream)} and deletes the object if no other upload
+     * holds a pin on it and unused confirms nothing references it. Atomic with respect to stores of
+     * the same content; returns whether the object was deleted.
+     */
+    boolean discard(String key, Predicate<String> unused) throws IOException;
+
+    Path resolve(String key);
+
+    boolean exists(String key);
+
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Hex SHA-256 of the stored content, or null when the key predates content addressing.
+     */
+    String contentHash(String key);
+}
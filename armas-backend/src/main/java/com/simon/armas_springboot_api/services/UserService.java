@@ -1,5 +1,7 @@
 package com.simon.armas_springboot_api.services;
 
+import com.simon.armas_springboot_api.events.SessionsRevokedEvent;
+import com.simon.armas_springboot_api.events.UserAuthorityChangedEvent;
 import com.simon.armas_springboot_api.exception.InvalidTokenException;
 import com.simon.armas_springboot_api.exception.UserAlreadyExistException;
 import com.simon.armas_springboot_api.mailing.AccountVerificationEmailContext;
@@ -26,6 +28,7 @@ import com.simon.armas_springboot_api.dto.DirectorateDTO;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.simon.armas_springboot_api.dto.RoleDTO;
@@ -50,6 +53,7 @@ public class UserService {
     private final SecureTokenService secureTokenService;
     private final EmailService emailService;
     private final RoleService roleService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public UserService(UserRepository userRepository,
@@ -60,7 +64,8 @@ public class UserService {
                        BCryptPasswordEncoder bCryptPasswordEncoder,
                        SecureTokenService secureTokenService,
                        RoleService roleService,
-                       EmailService emailService) {
+                       EmailService emailService,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.organizationRepository = organizationRepository;
         this.roleRepository = roleRepository;
@@ -70,6 +75,7 @@ public class UserService {
         this.secureTokenService = secureTokenService;
         this.emailService = emailService;
         this.roleService = roleService;
+        this.eventPublisher = eventPublisher;
     }
 
    public User register(User user, String roleDescription) throws UserAlreadyExistException {
@@ -154,6 +160,7 @@ public class UserService {
             .orElseThrow(() -> new IllegalArgumentException("Role not found: " + roleId));
         user.getRoles().add(role);
         userRepository.save(user);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(userId));
     }
 
     public User save(User user) {
@@ -164,7 +171,8 @@ public class UserService {
             existingUser.setLastName(user.getLastName());
             existingUser.setUsername(user.getUsername());
 
-            if (StringUtils.isNotBlank(user.getPassword())) {
+            boolean passwordChanged = StringUtils.isNotBlank(user.getPassword());
+            if (passwordChanged) {
                 existingUser.setPassword(bCryptPasswordEncoder.encode(user.getPassword()));
             }
 
@@ -187,7 +195,13 @@ public class UserService {
             }
 
             existingUser.setConfirmPassword(null); // Clear confirmPassword
-            return userRepository.save(existingUser);
+            User saved = userRepository.save(existingUser);
+            // Username and organization feed the cached user context
+            eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(saved.getId()));
+            if (passwordChanged) {
+                eventPublisher.publishEvent(new SessionsRevokedEvent(saved.getId(), saved.getUsername(), "password changed"));
+            }
+            return saved;
         }
         return register(user, "USER");
     }
@@ -227,7 +241,10 @@ public class UserService {
 }
 
     public void deleteUser(Long id) {
+        String username = userRepository.findById(id).map(User::getUsername).orElse(null);
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(UserAuthorityChangedEvent.forUser(id));
+        eventPublisher.publishEvent(new SessionsRevokedEvent(id, username, "user deleted"));
     }
 
     public User getUserByUsername(String username) {
@@ -307,6 +324,7 @@ public class UserService {
         user.setPassword(bCryptPasswordEncoder.encode(request.getNewPassword()));
         user.setConfirmPassword(null); // Clear confirmPassword
         userRepository.save(user);
+        eventPublisher.publishEvent(new SessionsRevokedEvent(user.getId(), user.getUsername(), "password changed"));
     }
      public List<UserDTO> getAllUsers() {
         return userRepository.findAllWithOrganizationsAndDirectorates().stream()
@@ -338,5 +356,6 @@ public void resetUserPassword(Long userId, String newPassword, String confirmPas
         user.setPassword(bCryptPasswordEncoder.encode(newPassword));
         user.setConfirmPassword(null); // Clear confirmPassword
         userRepository.save(user);
+        eventPublisher.publishEvent(new SessionsRevokedEvent(user.getId(), user.getUsername(), "password reset"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,306 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.exception.WorkflowConflictException;
+import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.ReportStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Applies report status changes as one conditional UPDATE ... WHERE id = ? AND reportstatus IN (...)
+ * that also bumps the version, so two users acting on the same report cannot both win: the loser
+ * updates no row and gets a WorkflowConflictException. The state machine is the transition table
+ * below; nothing else may write reportstatus on an existing report.
+ */
+@Service
+public class WorkflowEngine {
+
+    public enum Transition {
+        ASSIGN(Map.of(ReportStatus.SUBMITTED, ReportStatus.ASSIGNED)),
+        REASSIGN(Map.of(ReportStatus.ASSIGNED, ReportStatus.ASSIGNED)),
+        SUBMIT_FINDINGS(Map.of(ReportStatus.ASSIGNED, ReportStatus.UNDER_REVIEW,
+                ReportStatus.REJECTED, ReportStatus.CORRECTED)),
+        APPROVE(Map.of(ReportStatus.UNDER_REVIEW, ReportStatus.APPROVED,
+                ReportStatus.CORRECTED, ReportStatus.APPROVED)),
+        REJECT(Map.of(ReportStatus.UNDER_REVIEW, ReportStatus.REJECTED,
+                ReportStatus.CORRECTED, ReportStatus.REJECTED));
+
+        private final Map<ReportStatus, ReportStatus> targets;
+
+        Transition(Map<ReportStatus, ReportStatus> targets) {
+            this.targets = new EnumMap<>(targets);
+        }
+
+        public boolean allowedFrom(ReportStatus status) {
+            return targets.containsKey(status);
+        }
+
+        public List<String> fromLabels() {
+            return targets.keySet().stream().map(ReportStatus::label).toList();
+        }
+
+        /** SET expression for reportstatus: a constant, or a CASE when the target depends on the source. */
+        String targetExpression() {
+            List<ReportStatus> distinct = targets.values().stream().distinct().toList();
+            if (distinct.size() == 1) {
+                return literal(distinct.get(0));
+            }
+            return targets.entrySet().stream()
+                    .map(e -> "WHEN " + literal(e.getKey()) + " THEN " + literal(e.getValue()))
+                    .collect(Collectors.joining(" ", "CASE t.reportstatus ", " END"));
+        }
+
+        private static String literal(ReportStatus status) {
+            return "'" + status.label() + "'";
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Starts a transition of the report, applied by {@link Change#apply()}. */
+    public Change transition(Integer transactionId, Transition transition, String actor) {
+        return new Change(List.of(transactionId), transition, actor);
+    }
+
+    /** Starts the same transition for many reports, applied by {@link Change#applyAll()}. */
+    public Change transitionAll(Collection<Integer> transactionIds, Transition transition, String actor) {
+        return new Change(List.copyOf(new LinkedHashSet<>(transactionIds)), transition, actor);
+    }
+
+    /** Reports moved by applyAll, in id order, and why each of the others was left alone. */
+    public record BulkOutcome(List<MasterTransaction> applied, Map<Integer, RuntimeException> failed) {
+    }
+
+    public final class Change {
+        private final List<Integer> transactionIds;
+        private final Transition transition;
+        private final String actor;
+        private final Map<String, Object> values = new LinkedHashMap<>();
+        private final Map<String, String> copies = new LinkedHashMap<>();
+        private final List<Guard> guards = new ArrayList<>();
+
+        private Change(List<Integer> transactionIds, Transition transition, String actor) {
+            this.transactionIds = transactionIds;
+            this.transition = transition;
+            this.actor = actor;
+        }
+
+        /** Sets an attribute of the report in the same UPDATE. */
+        public Change set(String attribute, Object value) {
+            values.put(attribute, value);
+            return this;
+        }
+
+        /** Sets an attribute to the current value of another attribute of the same row. */
+        public Change copy(String attribute, String sourceAttribute) {
+            copies.put(attribute, sourceAttribute);
+            return this;
+        }
+
+        /**
+         * Only applies if the attribute currently equals the value (an entity for associations,
+         * null for an unset attribute); otherwise fails with an IllegalArgumentException carrying
+         * the message.
+         */
+        public Change requireEqual(String attribute, Object value, String message) {
+            guards.add(new Guard(attribute, value, message));
+            return this;
+        }
+
+        /**
+         * Runs the UPDATE inside the caller's transaction and returns the updated report. The
+         * report must not have been loaded earlier in the same persistence context, or that
+         * stale copy is returned.
+         */
+        public MasterTransaction apply() {
+            Integer transactionId = transactionIds.get(0);
+            StringBuilder jpql = update().append(" WHERE t.id = :id AND t.reportstatus IN :from");
+            for (int i = 0; i < guards.size(); i++) {
+                jpql.append(" AND ").append(guards.get(i).condition("guard" + i));
+            }
+            Query update = bind(entityManager.createQuery(jpql.toString()))
+                    .setParameter("id", transactionId)
+                    .setParameter("from", transition.fromLabels());
+            for (int i = 0; i < guards.size(); i++) {
+                if (guards.get(i).value != null) {
+                    update.setParameter("guard" + i, guards.get(i).value);
+                }
+            }
+
+            if (update.executeUpdate() == 0) {
+                throw failure(transactionId);
+            }
+            return entityManager.find(MasterTransaction.class, transactionId);
+        }
+
+        /**
+         * Applies the transition to every report that allows it, with one UPDATE for the lot.
+         * The reports are locked (in id order) and checked first, so the UPDATE cannot lose a
+         * race against a single transition and the outcome of each id is known exactly. Reports
+         * that do not qualify are left unchanged and reported, the others still move.
+         */
+        public BulkOutcome applyAll() {
+            List<MasterTransaction> locked = entityManager
+                    .createQuery("SELECT t FROM MasterTransaction t WHERE t.id IN :ids ORDER BY t.id", MasterTransaction.class)
+                    .setParameter("ids", transactionIds)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList();
+            Map<Integer, MasterTransaction> byId = new HashMap<>();
+            locked.forEach(t -> byId.put(t.getId(), t));
+
+            Map<Integer, RuntimeException> failed = new LinkedHashMap<>();
+            List<Integer> eligible = new ArrayList<>();
+            for (Integer id : transactionIds) {
+                MasterTransaction transaction = byId.get(id);
+                RuntimeException problem = transaction == null
+                        ? new IllegalArgumentException("Transaction not found: " + id)
+                        : check(transaction);
+                if (problem != null) {
+                    failed.put(id, problem);
+                } else {
+                    eligible.add(id);
+                }
+            }
+            if (eligible.isEmpty()) {
+                return new BulkOutcome(List.of(), failed);
+            }
+
+            Query update = bind(entityManager.createQuery(update().append(" WHERE t.id IN :ids").toString()))
+                    .setParameter("ids", eligible);
+            int updated = update.executeUpdate();
+            if (updated != eligible.size()) {
+                // Cannot happen while the rows are locked; refuse to report a partial batch as done
+                throw new IllegalStateException("Bulk " + transition + " updated " + updated + " of " + eligible.size() + " reports");
+            }
+
+            // The loaded copies predate the UPDATE; reload them in one query (their associations stay cached)
+            eligible.forEach(id -> entityManager.detach(byId.get(id)));
+            List<MasterTransaction> applied = entityManager
+                    .createQuery("SELECT t FROM MasterTransaction t WHERE t.id IN :ids ORDER BY t.id", MasterTransaction.class)
+                    .setParameter("ids", eligible)
+                    .getResultList();
+            return new BulkOutcome(applied, failed);
+        }
+
+        private StringBuilder update() {
+            StringBuilder jpql = new StringBuilder("UPDATE MasterTransaction t SET t.reportstatus = ")
+                    .append(transition.targetExpression())
+                    .append(", t.version = t.version + 1, t.lastModifiedBy = :actor, t.lastModifiedDate = :now");
+            values.keySet().forEach(attribute -> jpql.append(", t.").append(attribute).append(" = :").append(attribute));
+            copies.forEach((attribute, source) -> jpql.append(", t.").append(attribute).append(" = t.").append(source));
+            return jpql;
+        }
+
+        private Query bind(Query update) {
+            update.setParameter("actor", actor).setParameter("now", new Date());
+            values.forEach(update::setParameter);
+            return update;
+        }
+
+        /** Why the loaded report cannot take this transition, or null if it can. */
+        private RuntimeException check(MasterTransaction transaction) {
+            RuntimeException conflict = statusConflict(transaction.getId(), transaction.getReportstatus());
+            if (conflict != null) {
+                return conflict;
+            }
+            EntityPersister persister = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getMappingMetamodel()
+                    .getEntityDescriptor(MasterTransaction.class);
+            for (Guard guard : guards) {
+                if (!sameValue(persister.getPropertyValue(transaction, guard.attribute), guard.value)) {
+                    return new IllegalArgumentException(guard.message);
+                }
+            }
+            return null;
+        }
+
+        private WorkflowConflictException statusConflict(Integer transactionId, String status) {
+            boolean allowed;
+            try {
+                allowed = transition.allowedFrom(ReportStatus.fromLabel(status));
+            } catch (IllegalArgumentException e) {
+                allowed = false;
+            }
+            if (allowed) {
+                return null;
+            }
+            return new WorkflowConflictException(transactionId, status,
+                    "Cannot " + transition.name().toLowerCase().replace('_', ' ') + " report " + transactionId
+                            + ": it is " + status + ", expected one of " + transition.fromLabels());
+        }
+
+        /** Explains why no row was updated; only runs on the losing path. */
+        private RuntimeException failure(Integer transactionId) {
+            List<?> current = entityManager
+                    .createQuery("SELECT t.reportstatus FROM MasterTransaction t WHERE t.id = :id")
+                    .setParameter("id", transactionId)
+                    .getResultList();
+            if (current.isEmpty()) {
+                return new IllegalArgumentException("Transaction not found: " + transactionId);
+            }
+            String status = (String) current.get(0);
+            WorkflowConflictException conflict = statusConflict(transactionId, status);
+            if (conflict != null) {
+                return conflict;
+            }
+            // Status was acceptable, so a guard did not hold
+            for (Guard guard : guards) {
+                TypedQuery<Long> query = entityManager
+                        .createQuery("SELECT COUNT(t) FROM MasterTransaction t WHERE t.id = :id AND "
+                                + guard.condition("value"), Long.class)
+                        .setParameter("id", transactionId);
+                if (guard.value != null) {
+                    query.setParameter("value", guard.value);
+                }
+                if (query.getSingleResult() == 0) {
+                    return new IllegalArgumentException(guard.message);
+                }
+            }
+            return new WorkflowConflictException(transactionId, status, "Report " + transactionId + " changed concurrently");
+        }
+
+        private boolean sameValue(Object actual, Object expected) {
+            if (actual == null || expected == null) {
+                return actual == expected;
+            }
+            PersistenceUnitUtil util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+            if (isEntity(actual) && isEntity(expected)) {
+                return Objects.equals(util.getIdentifier(actual), util.getIdentifier(expected));
+            }
+            return actual.equals(expected);
+        }
+
+        private boolean isEntity(Object value) {
+            return entityManager.getMetamodel().getEntities().stream()
+                    .anyMatch(type -> type.getJavaType().isInstance(value));
+        }
+    }
+
+    private record Guard(String attribute, Object value, String message) {
+
+        private String condition(String parameter) {
+            return value == null ? "t." + attribute + " IS NULL" : "t." + attribute + " = :" + parameter;
+        }
+    }
+}
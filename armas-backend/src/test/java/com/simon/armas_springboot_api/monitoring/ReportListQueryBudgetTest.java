@@ -0,0 +1,147 @@
+package com.simon.armas_springboot_api.monitoring;
+
+import com.simon.armas_springboot_api.models.BudgetYear;
+import com.simon.armas_springboot_api.models.Directorate;
+import com.simon.armas_springboot_api.models.Document;
+import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.Organization;
+import com.simon.armas_springboot_api.models.User;
+import com.simon.armas_springboot_api.repositories.BudgetYearRepository;
+import com.simon.armas_springboot_api.repositories.DirectorateRepository;
+import com.simon.armas_springboot_api.repositories.DocumentRepository;
+import com.simon.armas_springboot_api.repositories.MasterTransactionRepository;
+import com.simon.armas_springboot_api.repositories.OrganizationRepository;
+import com.simon.armas_springboot_api.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets for the report list endpoints against a seeded in-memory database. Every
+ * list must be served by a single statement however many rows it returns.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReportListQueryBudgetTest {
+
+    private static final String FISCAL_YEAR = "2024/25";
+    private static final String REPORT_TYPE = "Annual Audit";
+    private static final int ROWS_PER_STATUS = 5;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private DirectorateRepository directorateRepository;
+    @Autowired private DocumentRepository documentRepository;
+    @Autowired private OrganizationRepository organizationRepository;
+    @Autowired private BudgetYearRepository budgetYearRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private MasterTransactionRepository masterTransactionRepository;
+
+    @BeforeAll
+    void seed() {
+        Directorate directorate = new Directorate();
+        directorate.setDirectoratename("Audit");
+        directorate = directorateRepository.save(directorate);
+
+        Document document = new Document();
+        document.setId("DOC-1");
+        document.setReportype(REPORT_TYPE);
+        document.setDirectorate(directorate);
+        document = documentRepository.save(document);
+
+        BudgetYear budgetYear = new BudgetYear();
+        budgetYear.setFiscalYear(FISCAL_YEAR);
+        budgetYear = budgetYearRepository.save(budgetYear);
+
+        User auditor = user("auditor", null);
+        User approver = user("approver", null);
+        List<String> statuses = List.of("Approved", "Rejected", "Under Review", "Corrected");
+        for (int i = 0; i < ROWS_PER_STATUS; i++) {
+            Organization organization = new Organization();
+            organization.setId("ORG-" + i);
+            organization.setOrgname("Organization " + i);
+            organization = organizationRepository.save(organization);
+            User uploader = user("uploader" + i, organization);
+            for (String status : statuses) {
+                for (String category : List.of("Report", "Feedback")) {
+                    MasterTransaction transaction = new MasterTransaction();
+                    transaction.setDocname(category + "-" + status + "-" + i + ".pdf");
+                    transaction.setReportstatus(status);
+                    transaction.setReportcategory(category);
+                    transaction.setOrganization(organization);
+                    transaction.setTransactiondocument(document);
+                    transaction.setBudgetYear(budgetYear);
+                    transaction.setUser(uploader);
+                    transaction.setUser2(approver);
+                    transaction.setSubmittedByAuditor(auditor);
+                    transaction.setAssignedBy(auditor);
+                    masterTransactionRepository.save(transaction);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectedReports() throws Exception {
+        expectSingleStatement(get("/transactions/rejected-reports"), "ROLE_APPROVER", ROWS_PER_STATUS * 2);
+    }
+
+    @Test
+    void underReviewReports() throws Exception {
+        expectSingleStatement(get("/transactions/under-review-reports"), "ROLE_APPROVER", ROWS_PER_STATUS * 2);
+    }
+
+    @Test
+    void correctedReports() throws Exception {
+        expectSingleStatement(get("/transactions/corrected-reports"), "ROLE_SENIOR_AUDITOR", ROWS_PER_STATUS * 2);
+    }
+
+    @Test
+    void approvedReports() throws Exception {
+        expectSingleStatement(get("/transactions/approved-reports"), "ROLE_APPROVER", ROWS_PER_STATUS * 2);
+    }
+
+    @Test
+    void feedbackSenders() throws Exception {
+        expectSingleStatement(get("/transactions/feedback-senders")
+                .param("reportype", REPORT_TYPE).param("fiscalYear", FISCAL_YEAR), "ROLE_APPROVER", ROWS_PER_STATUS * 4);
+    }
+
+    @Test
+    void reportsByOrganization() throws Exception {
+        expectSingleStatement(get("/transactions/reports-by-org")
+                .param("reportype", REPORT_TYPE).param("fiscalYear", FISCAL_YEAR).param("orgId", "ORG-0"), "ROLE_APPROVER", 4);
+    }
+
+    private void expectSingleStatement(MockHttpServletRequestBuilder request, String authority, int rows) throws Exception {
+        mockMvc.perform(request.with(jwt().jwt(token -> token.subject("budget-test"))
+                        .authorities(new SimpleGrantedAuthority(authority))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(rows))
+                .andExpect(SqlQueryBudget.atMost(1));
+    }
+
+    private User user(String username, Organization organization) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("{noop}unused");
+        user.setEnabled(true);
+        user.setOrganization(organization);
+        return userRepository.save(user);
+    }
+}
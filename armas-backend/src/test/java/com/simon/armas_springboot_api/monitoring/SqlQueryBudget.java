@@ -0,0 +1,26 @@
+package com.simon.armas_springboot_api.monitoring;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MockMvc matcher for the per-request SQL budget reported by SqlStatsFilter, e.g.
+ * {@code mockMvc.perform(get(...)).andExpect(SqlQueryBudget.atMost(1))}.
+ */
+public final class SqlQueryBudget {
+
+    private SqlQueryBudget() {
+    }
+
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            String header = result.getResponse().getHeader(SqlStatsFilter.COUNT_HEADER);
+            assertNotNull(header, "No " + SqlStatsFilter.COUNT_HEADER + " header; is the prod profile active?");
+            int issued = Integer.parseInt(header);
+            assertTrue(issued <= statements, () -> result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                    + " issued " + issued + " SQL statements, budget is " + statements);
+        };
+    }
+}
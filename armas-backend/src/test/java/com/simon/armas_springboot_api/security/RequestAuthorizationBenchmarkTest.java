@@ -0,0 +1,137 @@
+package com.simon.armas_springboot_api.security;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times the trie against an ordered matcher chain of the same rules, the way SecurityConfig
+ * evaluated them before. Wall-clock numbers depend on the machine, so this only runs with
+ * -Pbenchmark and not in the normal build; RequestAuthorizationManagerTest covers correctness.
+ */
+@Tag("benchmark")
+class RequestAuthorizationBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(RequestAuthorizationBenchmarkTest.class);
+
+    private static final List<String> METHODS = List.of("GET", "POST", "PUT", "DELETE", "OPTIONS");
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int ROUNDS = 500;
+    private static final int ITERATIONS = 5;
+
+    private static RequestAuthorizationManager trie;
+    private static RequestMatcherDelegatingAuthorizationManager chain;
+    private static List<MockHttpServletRequest> requests;
+    private static List<RequestAuthorizationContext> contexts;
+
+    @BeforeAll
+    static void setUp() {
+        trie = AuthorizationRules.requestAuthorizationManager();
+
+        RequestMatcherDelegatingAuthorizationManager.Builder builder = RequestMatcherDelegatingAuthorizationManager.builder();
+        for (RequestAuthorizationManager.Rule rule : trie.rules()) {
+            String method = rule.method() != null ? rule.method().name() : null;
+            builder.add(new AntPathRequestMatcher(rule.pattern(), method), toSpring(rule.access()));
+        }
+        chain = builder.add(AnyRequestMatcher.INSTANCE, AuthenticatedAuthorizationManager.authenticated()).build();
+
+        Set<String> paths = new LinkedHashSet<>(List.of("/", "/unknown", "/transactions/unknown/1"));
+        for (RequestAuthorizationManager.Rule rule : trie.rules()) {
+            String path = rule.pattern().replace("/**", "");
+            paths.add(path.isEmpty() ? "/" : path);
+            paths.add(path + "/42");
+        }
+        requests = new ArrayList<>();
+        for (String path : paths) {
+            for (String method : METHODS) {
+                MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+                request.setServletPath(path);
+                requests.add(request);
+            }
+        }
+        contexts = requests.stream().map(RequestAuthorizationContext::new).toList();
+    }
+
+    @Test
+    void trieIsFasterThanTheMatcherChain() {
+        Authentication user = new TestingAuthenticationToken("ROLE_USER", "password", "ROLE_USER");
+
+        runTrie(user, WARMUP_ROUNDS);
+        runChain(user, WARMUP_ROUNDS);
+
+        // Best of several iterations, to keep GC pauses and JIT noise out of the comparison
+        double chainNanos = Double.MAX_VALUE;
+        double trieNanos = Double.MAX_VALUE;
+        long chainGranted = 0;
+        long trieGranted = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            chainGranted = runChain(user, ROUNDS);
+            chainNanos = Math.min(chainNanos, perRequest(System.nanoTime() - started));
+
+            started = System.nanoTime();
+            trieGranted = runTrie(user, ROUNDS);
+            trieNanos = Math.min(trieNanos, perRequest(System.nanoTime() - started));
+        }
+
+        log.info("Authorization per request over {} requests: matcher chain {} ns, trie {} ns",
+                requests.size(), String.format("%.0f", chainNanos), String.format("%.0f", trieNanos));
+        assertEquals(chainGranted, trieGranted, "both managers must grant the same requests");
+        assertTrue(trieNanos < chainNanos,
+                "trie took " + trieNanos + " ns per request, matcher chain " + chainNanos + " ns");
+    }
+
+    private static double perRequest(long nanos) {
+        return nanos / (double) (ROUNDS * requests.size());
+    }
+
+    private static long runTrie(Authentication authentication, int rounds) {
+        long granted = 0;
+        for (int i = 0; i < rounds; i++) {
+            for (RequestAuthorizationContext context : contexts) {
+                granted += trie.check(() -> authentication, context).isGranted() ? 1 : 0;
+            }
+        }
+        return granted;
+    }
+
+    private static long runChain(Authentication authentication, int rounds) {
+        long granted = 0;
+        for (int i = 0; i < rounds; i++) {
+            for (MockHttpServletRequest request : requests) {
+                granted += chain.check(() -> authentication, request).isGranted() ? 1 : 0;
+            }
+        }
+        return granted;
+    }
+
+    private static AuthorizationManager<RequestAuthorizationContext> toSpring(RequestAuthorizationManager.Access access) {
+        if (access.permitAll()) {
+            return (authentication, context) -> new AuthorizationDecision(true);
+        }
+        if (access.authorities().isEmpty()) {
+            return AuthenticatedAuthorizationManager.authenticated();
+        }
+        return AuthorityAuthorizationManager.hasAnyAuthority(access.authorities().toArray(String[]::new));
+    }
+}
@@ -0,0 +1,254 @@
+package com.simon.armas_springboot_api.security;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.expression.WebExpressionAuthorizationManager;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks the trie against what the application enforced before it: the ordered matcher chain
+ * from SecurityConfig and the @PreAuthorize expressions on the /transactions controllers, both
+ * copied verbatim from the tree the trie replaced. They are deliberately not derived from
+ * {@link AuthorizationRules}, so a mistake in the table cannot hide in the reference.
+ */
+class RequestAuthorizationManagerTest {
+
+    private static final List<String> METHODS = List.of("GET", "POST", "PUT", "DELETE", "OPTIONS");
+
+    private static RequestAuthorizationManager trie;
+    private static RequestMatcherDelegatingAuthorizationManager legacyChain;
+    private static List<Endpoint> legacyEndpoints;
+    private static List<MockHttpServletRequest> requests;
+    private static List<Authentication> authentications;
+
+    @BeforeAll
+    static void setUp() {
+        trie = AuthorizationRules.requestAuthorizationManager();
+
+        // SecurityConfig.authorizeHttpRequests before the rule table
+        LegacyMatchers auth = new LegacyMatchers();
+        auth
+            .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+            .requestMatchers("/register", "/login", "/token/refresh").permitAll()
+            .requestMatchers(HttpMethod.POST, "/users").permitAll()
+            .requestMatchers(HttpMethod.GET, "/users").permitAll()
+            .requestMatchers("/roles/**").permitAll()
+            .requestMatchers("/organizations/**").hasAnyRole("ADMIN", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/directorates/**").hasRole("ADMIN")
+            .requestMatchers("/documents/**").hasRole("ADMIN")
+            .requestMatchers("/budgetyears/**").hasRole("ADMIN")
+            .requestMatchers("/budget-years/**").hasAnyRole("ADMIN", "USER", "ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/master-transactions/**").hasRole("ADMIN")
+            .requestMatchers("/userPrivilegeAssignments/**").hasRole("ADMIN")
+            .requestMatchers("/buttons/forms/**").hasRole("USER")
+            .requestMatchers("/buttons/charts/**").hasRole("USER")
+            .requestMatchers("/transactions/upload", "/transactions/upload/bulk", "/transactions/upload/sessions/**").hasAnyRole("USER", "ADMIN")
+            .requestMatchers("/transactions/sent-reports").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/transactions/listdocuments").hasAnyRole("ADMIN", "USER", "ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/transactions/users-by-role/**").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER")
+            .requestMatchers("/transactions/assign/**").hasRole("ARCHIVER")
+            .requestMatchers("/transactions/submit-findings/**").hasRole("SENIOR_AUDITOR")
+            .requestMatchers("/transactions/approve/**").hasRole("APPROVER")
+            .requestMatchers("/transactions/reject/**").hasRole("APPROVER")
+            .requestMatchers("/transactions/file-history/**").hasRole("USER")
+            .requestMatchers("/transactions/auditor-tasks/**").hasAnyRole("SENIOR_AUDITOR", "APPROVER", "ADMIN", "ARCHIVER", "USER")
+            .requestMatchers("/transactions/tasks").permitAll()
+            .requestMatchers("/transactions/letters").hasAuthority("VIEW_LETTERS")
+            .requestMatchers("/transactions/approved-reports").hasAnyRole("APPROVER", "ARCHIVER", "SENIOR_AUDITOR")
+            .requestMatchers("/transactions/download/**").hasAnyRole("ARCHIVER", "SENIOR_AUDITOR", "APPROVER", "USER", "MANAGER")
+            .requestMatchers("/transactions/dashboard-stats").hasAnyRole("USER", "ADMIN", "SENIOR_AUDITOR", "APPROVER", "ARCHIVER","MANAGER")
+            .requestMatchers("/users/change-password").hasAnyRole("USER", "ADMIN", "SENIOR_AUDITOR", "APPROVER", "ARCHIVER")
+            .anyRequest().authenticated();
+        legacyChain = auth.build();
+
+        // MasterTransactionController and UploadSessionController handlers with their @PreAuthorize
+        legacyEndpoints = List.of(
+            new Endpoint(HttpMethod.GET, "/transactions/notifications", "isAuthenticated()"),
+            new Endpoint(HttpMethod.GET, "/transactions/notifications/stream", "isAuthenticated()"),
+            new Endpoint(HttpMethod.PUT, "/transactions/notifications/{id}/read", "isAuthenticated()"),
+            new Endpoint(HttpMethod.POST, "/transactions/upload", "hasRole('USER')"),
+            new Endpoint(HttpMethod.POST, "/transactions/upload/bulk", "hasRole('USER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/download/{id}/{type}", "hasAnyRole('APPROVER', 'SENIOR_AUDITOR', 'ARCHIVER', 'USER', 'MANAGER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/my-reports", "hasRole('USER')"),
+            new Endpoint(HttpMethod.POST, "/transactions/upload-letter/{transactionId}", "hasRole('ARCHIVER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/sent-reports", "hasAnyRole('APPROVER', 'SENIOR_AUDITOR', 'ARCHIVER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/listdocuments", null),
+            new Endpoint(HttpMethod.GET, "/transactions/users-by-role/{roleName}", null),
+            new Endpoint(HttpMethod.POST, "/transactions/assign/{transactionId}", "hasRole('ARCHIVER')"),
+            new Endpoint(HttpMethod.POST, "/transactions/submit-findings/{transactionId}", "hasRole('SENIOR_AUDITOR')"),
+            new Endpoint(HttpMethod.GET, "/transactions/approved-reports", "hasAnyRole('APPROVER', 'SENIOR_AUDITOR', 'ARCHIVER')"),
+            new Endpoint(HttpMethod.POST, "/transactions/approve/{transactionId}", "hasRole('APPROVER')"),
+            new Endpoint(HttpMethod.POST, "/transactions/reject/{transactionId}", "hasRole('APPROVER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/rejected-reports", "hasAnyRole('ARCHIVER', 'SENIOR_AUDITOR', 'APPROVER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/tasks", "hasAnyRole('ARCHIVER', 'SENIOR_AUDITOR', 'APPROVER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/under-review-reports", "hasAnyRole('APPROVER', 'SENIOR_AUDITOR')"),
+            new Endpoint(HttpMethod.GET, "/transactions/corrected-reports", "hasAnyRole('APPROVER', 'SENIOR_AUDITOR')"),
+            new Endpoint(HttpMethod.GET, "/transactions/budget-years", "hasAnyRole('USER', 'ADMIN', 'SENIOR_AUDITOR', 'APPROVER', 'ARCHIVER','MANAGER')"),
+            new Endpoint(HttpMethod.POST, "/transactions/budget-years", "hasRole('ADMIN')"),
+            new Endpoint(HttpMethod.GET, "/transactions/report-non-senders", "hasAnyRole('SENIOR_AUDITOR', 'APPROVER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/reports-by-org", "hasAnyRole('SENIOR_AUDITOR', 'APPROVER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/organizations-with-reports", "hasAnyRole('SENIOR_AUDITOR', 'APPROVER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/feedback-non-senders", "hasAnyRole('SENIOR_AUDITOR', 'APPROVER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/feedback-senders", "hasAnyRole('SENIOR_AUDITOR', 'APPROVER')"),
+            new Endpoint(HttpMethod.POST, "/transactions/compliance-matrix/rebuild", "hasRole('ADMIN')"),
+            new Endpoint(HttpMethod.GET, "/transactions/dashboard-stats", "hasAnyRole('SENIOR_AUDITOR', 'APPROVER', 'ARCHIVER', 'ADMIN','USER', 'MANAGER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/file-history", "hasRole('USER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/letters", "hasAuthority('VIEW_LETTERS')"),
+            new Endpoint(HttpMethod.POST, "/transactions/upload/sessions", "hasRole('USER')"),
+            new Endpoint(HttpMethod.PUT, "/transactions/upload/sessions/{id}", "hasRole('USER')"),
+            new Endpoint(HttpMethod.GET, "/transactions/upload/sessions/{id}", "hasRole('USER')"),
+            new Endpoint(HttpMethod.POST, "/transactions/upload/sessions/{id}/complete", "hasRole('USER')"),
+            new Endpoint(HttpMethod.DELETE, "/transactions/upload/sessions/{id}", "hasRole('USER')"));
+
+        Set<String> paths = new LinkedHashSet<>(List.of("/", "/unknown", "/transactions", "/transactions/unknown/1",
+                "/users/1", "/transactions/upload/other"));
+        for (String pattern : auth.patterns) {
+            String path = pattern.replace("/**", "");
+            paths.add(path.isEmpty() ? "/" : path);
+            paths.add(path + "/42");
+            paths.add(path + "/42/detail");
+        }
+        for (Endpoint endpoint : legacyEndpoints) {
+            paths.add(endpoint.pattern().replaceAll("\\{[^}]+}", "42"));
+        }
+        requests = new ArrayList<>();
+        for (String path : paths) {
+            for (String method : METHODS) {
+                MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+                request.setServletPath(path);
+                requests.add(request);
+            }
+        }
+
+        authentications = new ArrayList<>();
+        authentications.add(new AnonymousAuthenticationToken("key", "anonymous", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        authentications.add(new TestingAuthenticationToken("none", "password", List.of()));
+        for (String authority : List.of("ROLE_USER", "ROLE_ADMIN", "ROLE_ARCHIVER", "ROLE_SENIOR_AUDITOR",
+                "ROLE_APPROVER", "ROLE_MANAGER", "VIEW_LETTERS")) {
+            authentications.add(new TestingAuthenticationToken(authority, "password", authority));
+        }
+    }
+
+    /**
+     * A request that reached a handler was allowed only if both the URL chain and the handler's
+     * expression allowed it. Outside /transactions the controllers kept their annotations, so the
+     * URL chain alone is the reference. Requests under /transactions that hit no handler ended in
+     * 404 or 405 either way; for those the table may only be stricter than the old chain.
+     */
+    @Test
+    void decidesLikeTheMatcherChainAndPreAuthorize() {
+        for (MockHttpServletRequest request : requests) {
+            RequestAuthorizationContext context = new RequestAuthorizationContext(request);
+            Endpoint endpoint = legacyEndpoints.stream().filter(e -> e.matcher().matches(request)).findFirst().orElse(null);
+            for (Authentication authentication : authentications) {
+                String message = request.getMethod() + " " + request.getRequestURI() + " as " + authentication.getName();
+                boolean chainGranted = legacyChain.check(() -> authentication, request).isGranted();
+                boolean actual = trie.check(() -> authentication, context).isGranted();
+                if (endpoint != null) {
+                    boolean expected = chainGranted && endpoint.allows(authentication, context);
+                    assertEquals(expected, actual, message);
+                } else if (request.getRequestURI().startsWith("/transactions")) {
+                    assertFalse(actual && !chainGranted, message + " is allowed by the table but was denied before");
+                } else {
+                    assertEquals(chainGranted, actual, message);
+                }
+            }
+        }
+    }
+
+    private record Endpoint(HttpMethod method, String pattern, String expression) {
+
+        RequestMatcher matcher() {
+            return new AntPathRequestMatcher(pattern, method.name());
+        }
+
+        boolean allows(Authentication authentication, RequestAuthorizationContext context) {
+            return expression == null
+                    || new WebExpressionAuthorizationManager(expression).check(() -> authentication, context).isGranted();
+        }
+    }
+
+    /** Just enough of the old authorizeHttpRequests DSL to paste its matchers in unchanged. */
+    private static final class LegacyMatchers {
+        private final RequestMatcherDelegatingAuthorizationManager.Builder builder = RequestMatcherDelegatingAuthorizationManager.builder();
+        private final List<String> patterns = new ArrayList<>();
+
+        Rule requestMatchers(String... patterns) {
+            return requestMatchers(null, patterns);
+        }
+
+        Rule requestMatchers(HttpMethod method, String... patterns) {
+            List<RequestMatcher> matchers = new ArrayList<>();
+            for (String pattern : patterns) {
+                this.patterns.add(pattern);
+                matchers.add(new AntPathRequestMatcher(pattern, method != null ? method.name() : null));
+            }
+            return new Rule(matchers);
+        }
+
+        Rule anyRequest() {
+            return new Rule(List.of(AnyRequestMatcher.INSTANCE));
+        }
+
+        RequestMatcherDelegatingAuthorizationManager build() {
+            return builder.build();
+        }
+
+        private final class Rule {
+            private final List<RequestMatcher> matchers;
+
+            private Rule(List<RequestMatcher> matchers) {
+                this.matchers = matchers;
+            }
+
+            LegacyMatchers permitAll() {
+                return access((authentication, context) -> new AuthorizationDecision(true));
+            }
+
+            LegacyMatchers authenticated() {
+                return access(AuthenticatedAuthorizationManager.authenticated());
+            }
+
+            LegacyMatchers hasRole(String role) {
+                return access(AuthorityAuthorizationManager.hasRole(role));
+            }
+
+            LegacyMatchers hasAnyRole(String... roles) {
+                return access(AuthorityAuthorizationManager.hasAnyRole(roles));
+            }
+
+            LegacyMatchers hasAuthority(String authority) {
+                return access(AuthorityAuthorizationManager.hasAuthority(authority));
+            }
+
+            private LegacyMatchers access(AuthorizationManager<RequestAuthorizationContext> manager) {
+                for (RequestMatcher matcher : matchers) {
+                    builder.add(matcher, manager);
+                }
+                return LegacyMatchers.this;
+            }
+        }
+    }
+}
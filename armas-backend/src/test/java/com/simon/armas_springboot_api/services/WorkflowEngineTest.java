@@ -0,0 +1,248 @@
+package com.simon.armas_springboot_api.services;
+
+import com.simon.armas_springboot_api.exception.WorkflowConflictException;
+import com.simon.armas_springboot_api.models.MasterTransaction;
+import com.simon.armas_springboot_api.models.User;
+import com.simon.armas_springboot_api.repositories.MasterTransactionRepository;
+import com.simon.armas_springboot_api.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Drives every transition of the report state machine against the in-memory database, with
+ * the status and guard conditions evaluated by the UPDATE itself.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WorkflowEngineTest {
+
+    private static final String ACTOR = "workflow-test";
+
+    @Autowired private WorkflowEngine workflowEngine;
+    @Autowired private MasterTransactionRepository masterTransactionRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private User archiver;
+    private User auditor;
+    private User otherAuditor;
+    private User approver;
+    private User otherApprover;
+
+    @BeforeAll
+    void seed() {
+        archiver = user("wf-archiver");
+        auditor = user("wf-auditor");
+        otherAuditor = user("wf-auditor-2");
+        approver = user("wf-approver");
+        otherApprover = user("wf-approver-2");
+    }
+
+    @Test
+    void assignMovesSubmittedToAssigned() {
+        MasterTransaction report = report("Submitted", null);
+
+        inTransaction(() -> workflowEngine.transition(report.getId(), WorkflowEngine.Transition.ASSIGN, ACTOR)
+                .set("user2", auditor)
+                .set("assignedBy", archiver)
+                .apply());
+
+        MasterTransaction saved = reload(report);
+        assertEquals("Assigned", saved.getReportstatus());
+        assertEquals(auditor.getId(), saved.getUser2().getId());
+        assertEquals(archiver.getId(), saved.getAssignedBy().getId());
+        assertEquals(report.getVersion() + 1, saved.getVersion());
+        assertEquals(ACTOR, saved.getLastModifiedBy());
+    }
+
+    @Test
+    void reassignKeepsAssignedAndMovesTheTask() {
+        MasterTransaction report = report("Assigned", auditor);
+
+        inTransaction(() -> workflowEngine.transition(report.getId(), WorkflowEngine.Transition.REASSIGN, ACTOR)
+                .requireEqual("user2", auditor, "no longer assigned")
+                .requireEqual("auditorStartedAt", null, "already opened")
+                .set("user2", otherAuditor)
+                .apply());
+
+        MasterTransaction saved = reload(report);
+        assertEquals("Assigned", saved.getReportstatus());
+        assertEquals(otherAuditor.getId(), saved.getUser2().getId());
+    }
+
+    @Test
+    void reassignRefusesAStartedReport() {
+        MasterTransaction report = report("Assigned", auditor);
+        report.setAuditorStartedAt(new Date());
+        MasterTransaction started = masterTransactionRepository.save(report);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> inTransaction(() ->
+                workflowEngine.transition(started.getId(), WorkflowEngine.Transition.REASSIGN, ACTOR)
+                        .requireEqual("user2", auditor, "no longer assigned")
+                        .requireEqual("auditorStartedAt", null, "already opened")
+                        .set("user2", otherAuditor)
+                        .apply()));
+
+        assertEquals("already opened", e.getMessage());
+        assertEquals(auditor.getId(), reload(started).getUser2().getId());
+    }
+
+    @Test
+    void submitFindingsMovesAssignedToUnderReview() {
+        MasterTransaction report = report("Assigned", auditor);
+
+        inTransaction(() -> workflowEngine.transition(report.getId(), WorkflowEngine.Transition.SUBMIT_FINDINGS, ACTOR)
+                .set("remarks", "Findings")
+                .set("user2", approver)
+                .set("submittedByAuditor", auditor)
+                .apply());
+
+        MasterTransaction saved = reload(report);
+        assertEquals("Under Review", saved.getReportstatus());
+        assertEquals(approver.getId(), saved.getUser2().getId());
+        assertEquals("Findings", saved.getRemarks());
+    }
+
+    @Test
+    void submitFindingsMovesRejectedToCorrected() {
+        MasterTransaction report = report("Rejected", auditor);
+
+        inTransaction(() -> workflowEngine.transition(report.getId(), WorkflowEngine.Transition.SUBMIT_FINDINGS, ACTOR)
+                .set("remarks", "Corrected findings")
+                .set("user2", approver)
+                .set("submittedByAuditor", auditor)
+                .apply());
+
+        MasterTransaction saved = reload(report);
+        assertEquals("Corrected", saved.getReportstatus());
+        assertEquals(approver.getId(), saved.getUser2().getId());
+    }
+
+    @Test
+    void approveMovesUnderReviewAndCorrectedToApproved() {
+        MasterTransaction underReview = report("Under Review", approver);
+        MasterTransaction corrected = report("Corrected", approver);
+
+        inTransaction(() -> workflowEngine.transition(underReview.getId(), WorkflowEngine.Transition.APPROVE, ACTOR).apply());
+        inTransaction(() -> workflowEngine.transition(corrected.getId(), WorkflowEngine.Transition.APPROVE, ACTOR).apply());
+
+        assertEquals("Approved", reload(underReview).getReportstatus());
+        assertEquals("Approved", reload(corrected).getReportstatus());
+    }
+
+    @Test
+    void rejectSendsTheReportBackToItsAuditor() {
+        MasterTransaction report = report("Under Review", approver);
+
+        inTransaction(() -> reject(report.getId(), approver).apply());
+
+        MasterTransaction saved = reload(report);
+        assertEquals("Rejected", saved.getReportstatus());
+        assertEquals(auditor.getId(), saved.getUser2().getId());
+        assertEquals("Incomplete", saved.getReason_of_rejection());
+    }
+
+    @Test
+    void transitionFromTheWrongStatusConflicts() {
+        MasterTransaction report = report("Submitted", null);
+
+        WorkflowConflictException e = assertThrows(WorkflowConflictException.class, () -> inTransaction(() ->
+                workflowEngine.transition(report.getId(), WorkflowEngine.Transition.APPROVE, ACTOR).apply()));
+
+        assertEquals("Submitted", e.getCurrentStatus());
+        MasterTransaction saved = reload(report);
+        assertEquals("Submitted", saved.getReportstatus());
+        assertEquals(report.getVersion(), saved.getVersion());
+    }
+
+    @Test
+    void rejectByAnotherApproverFailsTheGuard() {
+        MasterTransaction report = report("Under Review", approver);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> inTransaction(() ->
+                reject(report.getId(), otherApprover).apply()));
+
+        assertEquals("Unauthorized: Must be the assigned Approver", e.getMessage());
+        MasterTransaction saved = reload(report);
+        assertEquals("Under Review", saved.getReportstatus());
+        assertEquals(approver.getId(), saved.getUser2().getId());
+    }
+
+    @Test
+    void bulkRejectMovesEligibleReportsAndReportsTheRest() {
+        MasterTransaction underReview = report("Under Review", approver);
+        MasterTransaction corrected = report("Corrected", approver);
+        MasterTransaction otherApprovers = report("Under Review", otherApprover);
+        MasterTransaction submitted = report("Submitted", null);
+        Integer missing = Integer.MAX_VALUE;
+        List<Integer> ids = List.of(submitted.getId(), underReview.getId(), missing, otherApprovers.getId(), corrected.getId());
+
+        WorkflowEngine.BulkOutcome outcome = inTransaction(() -> workflowEngine
+                .transitionAll(ids, WorkflowEngine.Transition.REJECT, ACTOR)
+                .requireEqual("user2", approver, "Unauthorized: Must be the assigned Approver")
+                .set("reason_of_rejection", "Incomplete")
+                .copy("user2", "submittedByAuditor")
+                .applyAll());
+
+        assertEquals(List.of(underReview.getId(), corrected.getId()),
+                outcome.applied().stream().map(MasterTransaction::getId).toList());
+        assertEquals(List.of(submitted.getId(), missing, otherApprovers.getId()), List.copyOf(outcome.failed().keySet()));
+        assertInstanceOf(WorkflowConflictException.class, outcome.failed().get(submitted.getId()));
+        assertEquals("Transaction not found: " + missing, outcome.failed().get(missing).getMessage());
+        assertEquals("Unauthorized: Must be the assigned Approver", outcome.failed().get(otherApprovers.getId()).getMessage());
+
+        assertEquals("Rejected", reload(underReview).getReportstatus());
+        assertEquals(auditor.getId(), reload(underReview).getUser2().getId());
+        assertEquals("Rejected", reload(corrected).getReportstatus());
+        assertEquals("Under Review", reload(otherApprovers).getReportstatus());
+        assertEquals(otherApprover.getId(), reload(otherApprovers).getUser2().getId());
+        assertEquals("Submitted", reload(submitted).getReportstatus());
+    }
+
+    private WorkflowEngine.Change reject(Integer transactionId, User currentUser) {
+        return workflowEngine.transition(transactionId, WorkflowEngine.Transition.REJECT, ACTOR)
+                .requireEqual("user2", currentUser, "Unauthorized: Must be the assigned Approver")
+                .set("reason_of_rejection", "Incomplete")
+                .copy("user2", "submittedByAuditor");
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+
+    private MasterTransaction reload(MasterTransaction report) {
+        return masterTransactionRepository.findById(report.getId()).orElseThrow();
+    }
+
+    private MasterTransaction report(String status, User assignee) {
+        MasterTransaction transaction = new MasterTransaction();
+        transaction.setDocname("report-" + status + ".pdf");
+        transaction.setReportstatus(status);
+        transaction.setReportcategory("Report");
+        transaction.setUser2(assignee);
+        transaction.setSubmittedByAuditor(auditor);
+        return masterTransactionRepository.save(transaction);
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("{noop}unused");
+        user.setEnabled(true);
+        return userRepository.save(user);
+    }
+}
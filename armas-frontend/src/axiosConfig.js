@@ -18,9 +18,50 @@ axiosInstance.interceptors.request.use(
     (error) => Promise.reject(error)
 );
 
+// Access tokens are short-lived. On a 401 the refresh token is exchanged once (shared by
+// all requests that fail at the same time) and the original request is retried.
+let refreshPromise = null;
+
+export const refreshAccessToken = () => {
+    if (!refreshPromise) {
+        const refreshToken = localStorage.getItem('refreshToken');
+        refreshPromise = (refreshToken
+            ? axios.post(`${axiosInstance.defaults.baseURL}/token/refresh`, { refreshToken })
+            : Promise.reject(new Error('No refresh token')))
+            .then((response) => {
+                localStorage.setItem('token', response.data.token);
+                localStorage.setItem('refreshToken', response.data.refreshToken);
+                return response.data.token;
+            })
+            .catch((error) => {
+                localStorage.removeItem('token');
+                localStorage.removeItem('refreshToken');
+                localStorage.removeItem('isAuthenticated');
+                localStorage.removeItem('user');
+                throw error;
+            })
+            .finally(() => {
+                refreshPromise = null;
+            });
+    }
+    return refreshPromise;
+};
+
 axiosInstance.interceptors.response.use(
     (response) => response,
-    (error) => {
+    async (error) => {
+        const original = error.config;
+        if (error.response?.status === 401 && original && !original._retried
+            && !original.url?.endsWith('/login') && !original.url?.endsWith('/token/refresh')) {
+            original._retried = true;
+            try {
+                const token = await refreshAccessToken();
+                original.headers.Authorization = `Bearer ${token}`;
+                return axiosInstance(original);
+            } catch (refreshError) {
+                console.warn('Session expired, please log in again');
+            }
+        }
         console.error('Axios error:', {
             status: error.response?.status,
             data: error.response?.data,
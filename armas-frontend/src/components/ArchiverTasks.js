@@ -5,6 +5,7 @@ import { useAuth } from '../views/pages/AuthProvider';
 const AuditorTasks = () => {
     const { roles } = useAuth();
     const [tasks, setTasks] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [error, setError] = useState('');
     const [success, setSuccess] = useState('');
     const [showFindingsModal, setShowFindingsModal] = useState(false);
@@ -13,14 +14,13 @@ const AuditorTasks = () => {
     const [approvers, setApprovers] = useState([]);
     const [selectedApprover, setSelectedApprover] = useState('');
 
-    const fetchMyTasks = async () => {
+    const fetchMyTasks = async (cursor = null) => {
         try {
             console.log('Fetching tasks for roles:', roles);
-            const data = await getMyTasks();
-            console.log('Raw tasks fetched:', JSON.stringify(data, null, 2));
-            const validTasks = data.filter(task => task && task.id);
-            console.log('Valid tasks after filtering:', JSON.stringify(validTasks, null, 2));
-            setTasks(validTasks);
+            const { items, nextCursor: next } = await getMyTasks({ cursor });
+            const validTasks = items.filter(task => task && task.id);
+            setTasks(prev => (cursor ? [...prev, ...validTasks] : validTasks));
+            setNextCursor(next);
             setError('');
             if (validTasks.length === 0) {
                 console.warn('No valid tasks returned for user. Check role, database, or backend query.');
@@ -197,6 +197,11 @@ const AuditorTasks = () => {
                     </tbody>
                 </table>
             )}
+            {nextCursor && (
+                <button className="btn btn-outline-secondary" onClick={() => fetchMyTasks(nextCursor)}>
+                    Load more
+                </button>
+            )}
 
             {showFindingsModal && (
                 <div className="modal" style={{ display: 'block', backgroundColor: 'rgba(0,0,0,0.5)' }}>
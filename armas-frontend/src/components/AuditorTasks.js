@@ -91,6 +91,7 @@ const StyledTableRow = styled(TableRow)(({ theme }) => ({
 export default function AuditorTasks() {
   const { roles } = useAuth();
   const [tasks, setTasks] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [page, setPage] = useState(0);
@@ -113,23 +114,24 @@ export default function AuditorTasks() {
   const isSeniorAuditor = roles.includes('SENIOR_AUDITOR');
   const isApprover = roles.includes('APPROVER');
 
-  const fetchMyTasks = async () => {
+  const fetchMyTasks = async (cursor = null) => {
     setLoading(true);
     try {
-      const data = await getMyTasks();
-      let filteredTasks;
+      // Status filtering happens in the inbox query; only the role's working statuses are requested
+      let statuses;
       if (isSeniorAuditor) {
-        filteredTasks = data.filter(task =>
-          ['Assigned', 'Rejected', 'Under Review', 'Corrected'].includes(task.reportstatus)
-        );
+        statuses = ['Assigned', 'Rejected', 'Under Review', 'Corrected'];
       } else if (isApprover) {
-        filteredTasks = data.filter(task =>
-          ['Under Review', 'Corrected', 'Rejected'].includes(task.reportstatus)
-        );
+        statuses = ['Under Review', 'Corrected', 'Rejected'];
       } else {
-        filteredTasks = [];
+        statuses = [];
       }
-      setTasks(Array.isArray(filteredTasks) ? filteredTasks : []);
+      const { items, nextCursor: next } = statuses.length
+        ? await getMyTasks({ statuses, cursor, size: 50 })
+        : { items: [], nextCursor: null };
+      const filteredTasks = cursor ? [...tasks, ...items] : items;
+      setTasks(filteredTasks);
+      setNextCursor(next);
       setLoading(false);
       if (filteredTasks.length === 0) {
         setError('No tasks available for your role.');
@@ -483,6 +485,13 @@ export default function AuditorTasks() {
                     onRowsPerPageChange={handleChangeRowsPerPage}
                     rowsPerPageOptions={[5, 10, 25]}
                   />
+                  {nextCursor && (
+                    <Box sx={{ display: 'flex', justifyContent: 'center', p: 1 }}>
+                      <Button variant="outlined" onClick={() => fetchMyTasks(nextCursor)}>
+                        Load more tasks
+                      </Button>
+                    </Box>
+                  )}
                 </StyledTableContainer>
               )}
             </CCardBody>
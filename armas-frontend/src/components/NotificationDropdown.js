@@ -4,7 +4,7 @@ import { CIcon } from '@coreui/icons-react';
 import { cilBell } from '@coreui/icons';
 import { useNavigate } from 'react-router-dom';
 import { useAuth } from '../views/pages/AuthProvider';
-import { getUnreadNotifications, markNotificationAsRead } from '../file/upload_download';
+import { getUnreadNotifications, markNotificationAsRead, subscribeToNotifications } from '../file/upload_download';
 import { formatDistanceToNow } from 'date-fns';
 import {
   Box,
@@ -117,10 +117,21 @@ const NotificationDropdown = () => {
 
   useEffect(() => {
     fetchNotifications();
-    const interval = setInterval(fetchNotifications, 5000);
-    return () => clearInterval(interval);
+    const unsubscribe = subscribeToNotifications(
+      (notification) => {
+        setNotifications((current) =>
+          current.some((n) => n.id === notification.id) ? current : [notification, ...current],
+        );
+      },
+      (err) => console.error('Notification stream error:', err.message),
+    );
+    return unsubscribe;
   }, [fetchNotifications]);
 
+  useEffect(() => {
+    setUnreadCount(notifications.length);
+  }, [notifications]);
+
   const handleMenuOpen = (event) => {
     setAnchorEl(event.currentTarget);
   };
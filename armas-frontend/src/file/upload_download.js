@@ -1,4 +1,4 @@
-import axiosInstance from '../axiosConfig';
+import axiosInstance, { refreshAccessToken } from '../axiosConfig';
 
 export const getDocuments = async () => {
     try {
@@ -18,6 +18,78 @@ export const getUnreadNotifications = async () => {
         throw error;
     }
 };
+// Opens the server-sent notification stream. EventSource cannot send the bearer token,
+// so the stream is read with fetch. Returns a function that closes the stream.
+export const subscribeToNotifications = (onNotification, onError) => {
+    const controller = new AbortController();
+    let lastEventId = null;
+
+    const connect = async () => {
+        const headers = { Accept: 'text/event-stream' };
+        const token = localStorage.getItem('token');
+        if (token) {
+            headers.Authorization = `Bearer ${token}`;
+        }
+        if (lastEventId) {
+            headers['Last-Event-ID'] = lastEventId;
+        }
+        const response = await fetch(`${axiosInstance.defaults.baseURL}/transactions/notifications/stream`, {
+            headers,
+            signal: controller.signal,
+        });
+        if (response.status === 401) {
+            // Access token expired; the next reconnect uses the refreshed one
+            await refreshAccessToken();
+        }
+        if (!response.ok || !response.body) {
+            throw new Error(`Notification stream failed with status ${response.status}`);
+        }
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+        for (;;) {
+            const { value, done } = await reader.read();
+            if (done) {
+                return;
+            }
+            buffer += decoder.decode(value, { stream: true });
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) !== -1) {
+                const rawEvent = buffer.slice(0, boundary);
+                buffer = buffer.slice(boundary + 2);
+                let data = '';
+                rawEvent.split('\n').forEach((line) => {
+                    if (line.startsWith('id:')) {
+                        lastEventId = line.slice(3).trim();
+                    } else if (line.startsWith('data:')) {
+                        data += line.slice(5).trim();
+                    }
+                });
+                if (data) {
+                    onNotification(JSON.parse(data));
+                }
+            }
+        }
+    };
+
+    const run = async () => {
+        while (!controller.signal.aborted) {
+            try {
+                await connect();
+            } catch (error) {
+                if (controller.signal.aborted) {
+                    return;
+                }
+                onError?.(error);
+            }
+            // Reconnect after the server closes the stream or the network drops
+            await new Promise((resolve) => setTimeout(resolve, 5000));
+        }
+    };
+    run();
+
+    return () => controller.abort();
+};
 export const markNotificationAsRead = async (id) => {
     try {
         await axiosInstance.put(`/transactions/notifications/${id}/read`);
@@ -44,6 +116,59 @@ export const uploadFile = async (file, reportcategory, budgetYearId, transaction
         throw new Error(errorMessage);
     }
 };
+// uploads: [{ file, reportcategory, budgetYearId, transactiondocumentid }]; resolves to the per-file manifest
+export const uploadFiles = async (uploads) => {
+    const formData = new FormData();
+    uploads.forEach(({ file }) => formData.append('files', file));
+    const metadata = uploads.map(({ reportcategory, budgetYearId, transactiondocumentid }) => ({
+        reportcategory, budgetYearId, transactiondocumentid,
+    }));
+    formData.append('metadata', new Blob([JSON.stringify(metadata)], { type: 'application/json' }));
+
+    try {
+        const response = await axiosInstance.post('/transactions/upload/bulk', formData, {
+            headers: { 'Content-Type': 'multipart/form-data' },
+        });
+        return response.data;
+    } catch (error) {
+        const errorMessage = error.response?.data || error.message || 'Bulk upload failed';
+        console.error('Error uploading files:', errorMessage);
+        throw new Error(errorMessage);
+    }
+};
+// Large files: upload in chunks through a resumable session; pass sessionId to resume after a failure
+export const uploadFileResumable = async (file, reportcategory, budgetYearId, transactiondocumentid,
+                                          { sessionId, onProgress } = {}) => {
+    let session;
+    if (sessionId) {
+        session = (await axiosInstance.get(`/transactions/upload/sessions/${sessionId}`)).data;
+    } else {
+        session = (await axiosInstance.post('/transactions/upload/sessions', {
+            fileName: file.name,
+            totalSize: file.size,
+            reportcategory,
+            budgetYearId,
+            transactiondocumentid,
+        })).data;
+    }
+
+    // Only send the byte ranges the server has not acknowledged yet
+    const received = session.receivedRanges.map(range => range.split('-').map(Number));
+    const isReceived = (start, end) => received.some(([from, to]) => from <= start && end - 1 <= to);
+    for (let offset = 0; offset < file.size; offset += session.chunkSize) {
+        const end = Math.min(offset + session.chunkSize, file.size);
+        if (!isReceived(offset, end)) {
+            session = (await axiosInstance.put(`/transactions/upload/sessions/${session.id}`, file.slice(offset, end), {
+                params: { offset },
+                headers: { 'Content-Type': 'application/octet-stream' },
+            })).data;
+        }
+        if (onProgress) onProgress(end / file.size, session.id);
+    }
+
+    const completed = (await axiosInstance.post(`/transactions/upload/sessions/${session.id}/complete`)).data;
+    return completed;
+};
 // In upload_download.js
 export const uploadLetter = async (transactionId, letter) => {
     const formData = new FormData();
@@ -98,15 +223,15 @@ export const getUnderReviewReports = async () => {
             id: report.id,
             createdDate: report.createdDate,
             reportstatus: report.reportstatus,
-            organization: { orgname: report.organization ? report.organization.orgname : null },
+            organization: { orgname: report.orgname || null },
             fiscalYear: report.fiscal_year || report.fiscalYear || null,
-            transactiondocument: { reportype: report.transactiondocument ? report.transactiondocument.reportype : null },
+            transactiondocument: { reportype: report.reportype || null },
             docname: report.docname,
             supportingDocumentPath: report.supportingDocumentPath,
             supportingDocname: report.supportingDocname,
             remarks: report.remarks,
-            responseNeeded: report.response_needed || null,
-            submittedByAuditorUsername: report.submittedByAuditor ? report.submittedByAuditor.username : null
+            responseNeeded: report.responseNeeded || null,
+            submittedByAuditorUsername: report.submittedByAuditorUsername || null
         }));
     } catch (error) {
         console.error('Error fetching under review reports:', error);
@@ -121,17 +246,17 @@ export const getCorrectedReports = async () => {
             id: report.id,
             createdDate: report.createdDate,
             reportstatus: report.reportstatus,
-            organization: report.organization, // Pass the full organization object
+            organization: { orgname: report.orgname || null },
             fiscalYear: report.fiscal_year || report.fiscalYear || null,
-            transactiondocument: report.transactiondocument, // Pass the full transactiondocument object
+            transactiondocument: { reportype: report.reportype || null },
             docname: report.docname,
             supportingDocumentPath: report.supportingDocumentPath,
             supportingDocname: report.supportingDocname,
             remarks: report.remarks,
-            responseNeeded: report.response_needed || null,
+            responseNeeded: report.responseNeeded || null,
             createdBy:report.createdBy || null,
             reasonOfRejection: report.reason_of_rejection || null, 
-            submittedByAuditorUsername: report.submittedByAuditor ? report.submittedByAuditor.username : null
+            submittedByAuditorUsername: report.submittedByAuditorUsername || null
         }));
     } catch (error) {
         console.error('Error fetching corrected reports:', error);
@@ -262,19 +387,18 @@ export const getRejectedReports = async () => {
         const response = await axiosInstance.get('/transactions/rejected-reports');
         console.log('Rejected reports raw response:', JSON.stringify(response.data, null, 2));
         const mappedReports = response.data.map(report => {
-            console.log('Report ID=' + report.id + ' fiscalYear:', report.budgetYear?.fiscalYear || null);
             const mappedReport = {
                 id: report.id,
                 createdDate: report.createdDate,
                 reportstatus: report.reportstatus,
-                organization: { orgname: report.organization?.orgname || null },
-                fiscalYear: report.budgetYear?.fiscalYear || null, // Use budgetYear.fiscalYear
-                transactiondocument: { reportype: report.transactiondocument?.reportype || null },
+                organization: { orgname: report.orgname || null },
+                fiscalYear: report.fiscal_year || report.fiscalYear || null,
+                transactiondocument: { reportype: report.reportype || null },
                 docname: report.docname,
                 supportingDocumentPath: report.supportingDocumentPath,
                 supportingDocname: report.supportingDocname,
                 remarks: report.remarks || null,
-                responseNeeded: report.response_needed || null, // Use response_needed (snake_case)
+                responseNeeded: report.responseNeeded || null,
                 reasonOfRejection: report.reason_of_rejection || null,
                 submittedByAuditorUsername: report.submittedByAuditorUsername || null
             };
@@ -289,12 +413,16 @@ export const getRejectedReports = async () => {
     }
 };
 
-export const getMyTasks = async () => {
+// Returns one page of the task inbox: { items, nextCursor }. Pass nextCursor back to load the next page.
+export const getMyTasks = async ({ statuses, cursor, size } = {}) => {
     try {
-        console.log('Fetching tasks');
-        const response = await axiosInstance.get('/transactions/tasks');
-        console.log('Tasks raw response:', JSON.stringify(response.data, null, 2));
-        const mappedTasks = response.data.map(task => {
+        console.log('Fetching tasks', { statuses, cursor, size });
+        const params = new URLSearchParams();
+        (statuses || []).forEach(status => params.append('status', status));
+        if (cursor) params.append('cursor', cursor);
+        if (size) params.append('size', size);
+        const response = await axiosInstance.get('/transactions/tasks', { params });
+        const mappedTasks = response.data.items.map(task => {
             const cleanId = parseInt(String(task.id).split(':')[0], 10);
             if (isNaN(cleanId)) {
                 console.error('Invalid task ID format:', task.id);
@@ -322,7 +450,7 @@ export const getMyTasks = async () => {
             return mappedTask;
         });
         console.log('All mapped tasks:', mappedTasks);
-        return mappedTasks;
+        return { items: mappedTasks, nextCursor: response.data.nextCursor || null };
     } catch (error) {
         console.error('Error fetching tasks:', {
             message: error.message,
@@ -24,6 +24,7 @@ const AuthProvider = ({ children }) => {
     // Clear all authentication data
     const clearAuthData = () => {
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('isAuthenticated');
         localStorage.removeItem('user');
         setUser(null);
@@ -82,6 +83,7 @@ const AuthProvider = ({ children }) => {
 
                 localStorage.setItem('isAuthenticated', 'true');
                 localStorage.setItem('token', authToken);
+                localStorage.setItem('refreshToken', response.data.refreshToken || '');
                 localStorage.setItem('user', JSON.stringify(userData));
 
                 setIsAuthenticated(true);
@@ -123,8 +125,9 @@ const AuthProvider = ({ children }) => {
 
     const logOut = async () => {
         try {
-            await axiosInstance.post('/logout', {}, {
-                headers: { Authorization: `Bearer ${token}` },
+            // Revokes the access token and the refresh token family on the server
+            await axiosInstance.post('/logout', { refreshToken: localStorage.getItem('refreshToken') }, {
+                headers: { Authorization: `Bearer ${localStorage.getItem('token') || token}` },
             });
         } catch (err) {
             console.error('Logout error:', err);